@@ -0,0 +1,165 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.ImmutableList;
+import com.google.javascript.jscomp.CompilerOptions.LanguageMode;
+import com.google.javascript.rhino.Node;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The JavaScript sources the benchmarks run against.
+ *
+ * <ul>
+ * <li>{@code synthetic}: generated code with classes, JSDoc types, loops and
+ *     foldable expressions, sized by the {@code closure.benchmark.size} system
+ *     property (the number of classes, 500 by default).
+ * <li>{@code externs}: the externs bundled with the compiler.
+ * <li>{@code contrib}: the externs under {@code contrib/externs}, or under the
+ *     directory named by the {@code closure.benchmark.contribExterns} system
+ *     property.
+ * </ul>
+ */
+public final class BenchmarkCorpus {
+
+  public static final String SYNTHETIC = "synthetic";
+  public static final String EXTERNS = "externs";
+  public static final String CONTRIB = "contrib";
+
+  private BenchmarkCorpus() {}
+
+  /** Returns the files of the named corpus. */
+  public static List<SourceFile> load(String name) throws IOException {
+    switch (name) {
+      case SYNTHETIC:
+        return ImmutableList.of(SourceFile.fromCode("synthetic.js",
+            generate(Integer.getInteger("closure.benchmark.size", 500))));
+      case EXTERNS:
+        return ImmutableList.copyOf(CommandLineRunner.getDefaultExterns());
+      case CONTRIB:
+        return loadDirectory(new File(System.getProperty(
+            "closure.benchmark.contribExterns", "contrib/externs")));
+      default:
+        throw new IllegalArgumentException("Unknown corpus: " + name);
+    }
+  }
+
+  /** Returns the options the benchmarks compile the corpora with. */
+  public static CompilerOptions createOptions() {
+    CompilerOptions options = new CompilerOptions();
+    options.setLanguageIn(LanguageMode.ECMASCRIPT5);
+    options.setLanguageOut(LanguageMode.ECMASCRIPT5);
+    options.setCheckTypes(true);
+    return options;
+  }
+
+  /**
+   * Returns a compiler that has parsed the corpus, with the default externs
+   * unless the corpus is the externs themselves.
+   */
+  public static Compiler parse(String corpus, CompilerOptions options)
+      throws IOException {
+    List<SourceFile> externs = corpus.equals(EXTERNS)
+        ? ImmutableList.<SourceFile>of()
+        : CommandLineRunner.getDefaultExterns();
+    Compiler compiler = new Compiler();
+    compiler.disableThreads();
+    compiler.init(externs, load(corpus), options);
+    Node root = compiler.parseInputs();
+    if (root == null || compiler.hasErrors()) {
+      throw new IllegalStateException("The " + corpus + " corpus has errors: "
+          + Arrays.toString(compiler.getErrors()));
+    }
+    return compiler;
+  }
+
+  private static List<SourceFile> loadDirectory(File directory)
+      throws IOException {
+    File[] files = directory.listFiles();
+    if (files == null) {
+      throw new IOException("Not a directory: " + directory);
+    }
+    Arrays.sort(files);
+    List<SourceFile> sources = new ArrayList<>();
+    for (File file : files) {
+      if (file.isDirectory()) {
+        sources.addAll(loadDirectory(file));
+      } else if (file.getName().endsWith(".js")) {
+        sources.add(SourceFile.fromFile(file, UTF_8));
+      }
+    }
+    return sources;
+  }
+
+  private static String generate(int classCount) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < classCount; i++) {
+      String name = "Class" + i;
+      // Keep the class hierarchies shallow, as in real code.
+      String base = i % 10 == 0 ? null : "Class" + (i - 1);
+      sb.append("/**\n * @constructor\n");
+      if (base != null) {
+        sb.append(" * @extends {").append(base).append("}\n");
+      }
+      sb.append(" * @param {number} x\n * @param {string} s\n */\n")
+          .append("function ").append(name).append("(x, s) {\n");
+      if (base != null) {
+        sb.append("  ").append(base).append(".call(this, x, s);\n");
+      }
+      sb.append("  /** @type {number} */ this.x").append(i).append(" = x;\n")
+          .append("  /** @type {string} */ this.s").append(i).append(" = s;\n")
+          .append("}\n");
+      if (base != null) {
+        sb.append(name).append(".prototype = Object.create(")
+            .append(base).append(".prototype);\n");
+      }
+      sb.append("/**\n * @param {!Array<number>} values\n")
+          .append(" * @return {number}\n */\n")
+          .append(name).append(".prototype.sum").append(i)
+          .append(" = function(values) {\n")
+          .append("  var total = this.x").append(i).append(" * (2 + 3);\n")
+          .append("  for (var j = 0; j < values.length; j++) {\n")
+          .append("    if (values[j] > 0 && !!true) {\n")
+          .append("      total += values[j];\n")
+          .append("    } else {\n")
+          .append("      total -= 'abc'.length;\n")
+          .append("    }\n")
+          .append("  }\n")
+          .append("  return total;\n")
+          .append("};\n")
+          .append("/** @return {string} */\n")
+          .append(name).append(".prototype.describe").append(i)
+          .append(" = function() {\n")
+          .append("  var parts = ['a', 'b', 'c'].join('-');\n")
+          .append("  return this.s").append(i).append(" + parts + ")
+          .append("this.sum").append(i).append("([1, 2, 3]);\n")
+          .append("};\n")
+          .append("var instance").append(i).append(" = new ").append(name)
+          .append("(").append(i).append(", 'v").append(i).append("');\n")
+          .append("window['describe").append(i).append("'] = instance")
+          .append(i).append(".describe").append(i).append("();\n");
+    }
+    return sb.toString();
+  }
+}
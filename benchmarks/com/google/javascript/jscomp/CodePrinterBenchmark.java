@@ -0,0 +1,77 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.javascript.rhino.Node;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+
+/**
+ * Benchmarks printing the AST back to JavaScript, with and without a V3
+ * source map. The externs are printed too, since the bundled corpora are
+ * externs.
+ */
+@State(Scope.Benchmark)
+public class CodePrinterBenchmark {
+
+  @Param({
+      BenchmarkCorpus.SYNTHETIC, BenchmarkCorpus.EXTERNS,
+      BenchmarkCorpus.CONTRIB})
+  public String corpus;
+
+  private CompilerOptions options;
+  private Node root;
+
+  @Setup
+  public void setUp() throws IOException {
+    options = BenchmarkCorpus.createOptions();
+    root = BenchmarkCorpus.parse(corpus, options).getRoot();
+  }
+
+  @Benchmark
+  public String compact() {
+    return new CodePrinter.Builder(root)
+        .setCompilerOptions(options)
+        .build();
+  }
+
+  @Benchmark
+  public String prettyPrint() {
+    return new CodePrinter.Builder(root)
+        .setCompilerOptions(options)
+        .setPrettyPrint(true)
+        .build();
+  }
+
+  @Benchmark
+  public String withSourceMap() throws IOException {
+    SourceMap sourceMap = SourceMap.Format.V3.getInstance();
+    String code = new CodePrinter.Builder(root)
+        .setCompilerOptions(options)
+        .setSourceMap(sourceMap)
+        .build();
+    StringBuilder map = new StringBuilder();
+    sourceMap.appendTo(map, "out.js");
+    return code + map;
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.javascript.rhino.Node;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+
+/**
+ * Benchmarks a full traversal of the AST, with and without scope creation.
+ */
+@State(Scope.Benchmark)
+public class NodeTraversalBenchmark {
+
+  @Param({
+      BenchmarkCorpus.SYNTHETIC, BenchmarkCorpus.EXTERNS,
+      BenchmarkCorpus.CONTRIB})
+  public String corpus;
+
+  private Compiler compiler;
+  private Node root;
+
+  @Setup
+  public void setUp() throws IOException {
+    compiler = BenchmarkCorpus.parse(corpus, BenchmarkCorpus.createOptions());
+    root = compiler.getRoot();
+  }
+
+  @Benchmark
+  public int traverse() {
+    NodeCounter counter = new NodeCounter();
+    NodeTraversal.traverse(compiler, root, counter);
+    return counter.count;
+  }
+
+  @Benchmark
+  public int traverseWithScopes() {
+    NodeCounter counter = new NodeCounter();
+    new NodeTraversal(compiler, counter, SyntacticScopeCreator.makeUntyped(compiler))
+        .traverse(root);
+    return counter.count;
+  }
+
+  private static class NodeCounter
+      extends NodeTraversal.AbstractPostOrderCallback {
+    int count;
+
+    @Override
+    public void visit(NodeTraversal t, Node n, Node parent) {
+      count++;
+    }
+  }
+}
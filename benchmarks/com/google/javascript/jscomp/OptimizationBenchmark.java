@@ -0,0 +1,68 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.collect.ImmutableSet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+
+/**
+ * Benchmarks the peephole optimizations and variable renaming. Both rewrite
+ * the AST, so every invocation starts from a freshly parsed and normalized
+ * program. The bundled corpora are externs, which the optimizations leave
+ * alone, so only the synthetic corpus is optimized.
+ */
+@State(Scope.Thread)
+public class OptimizationBenchmark {
+
+  @Param({BenchmarkCorpus.SYNTHETIC})
+  public String corpus;
+
+  private Compiler compiler;
+
+  @Setup(Level.Invocation)
+  public void setUp() throws IOException {
+    compiler = BenchmarkCorpus.parse(corpus, BenchmarkCorpus.createOptions());
+    compiler.normalize();
+  }
+
+  @Benchmark
+  public void peephole() {
+    new PeepholeOptimizationsPass(compiler,
+        new PeepholeMinimizeConditions(false),
+        new PeepholeSubstituteAlternateSyntax(false),
+        new PeepholeReplaceKnownMethods(false),
+        new PeepholeRemoveDeadCode(),
+        new PeepholeFoldConstants(false),
+        new PeepholeCollectPropertyAssignments())
+        .process(compiler.externsRoot, compiler.getJsRoot());
+  }
+
+  @Benchmark
+  public void renameVars() {
+    new RenameVars(compiler, "", false, false, false, false, false, null,
+        null, ImmutableSet.<String>of())
+        .process(compiler.externsRoot, compiler.getJsRoot());
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+
+/**
+ * Benchmarks the type checking passes. Each of them annotates the AST, so
+ * every invocation starts from a freshly parsed program.
+ */
+public class TypeCheckingBenchmark {
+
+  /** A freshly parsed program. */
+  @State(Scope.Thread)
+  public static class Parsed {
+    @Param({
+        BenchmarkCorpus.SYNTHETIC, BenchmarkCorpus.EXTERNS,
+        BenchmarkCorpus.CONTRIB})
+    public String corpus;
+
+    Compiler compiler;
+
+    @Setup(Level.Invocation)
+    public void setUp() throws IOException {
+      compiler = BenchmarkCorpus.parse(corpus, BenchmarkCorpus.createOptions());
+    }
+  }
+
+  /** A freshly parsed program whose global typed scope has been created. */
+  @State(Scope.Thread)
+  public static class Scoped extends Parsed {
+    @Override
+    @Setup(Level.Invocation)
+    public void setUp() throws IOException {
+      super.setUp();
+      compiler.getPassConfig().regenerateGlobalTypedScope(
+          compiler, compiler.getRoot());
+    }
+  }
+
+  /**
+   * A freshly parsed program for the new type inference, which does not
+   * handle all of the contrib externs yet.
+   */
+  @State(Scope.Thread)
+  public static class NewTypesParsed {
+    @Param({BenchmarkCorpus.SYNTHETIC, BenchmarkCorpus.EXTERNS})
+    public String corpus;
+
+    Compiler compiler;
+
+    @Setup(Level.Invocation)
+    public void setUp() throws IOException {
+      compiler = BenchmarkCorpus.parse(corpus, BenchmarkCorpus.createOptions());
+    }
+  }
+
+  /** A freshly parsed program that the new type inference has collected. */
+  @State(Scope.Thread)
+  public static class NewTypesCollected extends NewTypesParsed {
+    @Override
+    @Setup(Level.Invocation)
+    public void setUp() throws IOException {
+      super.setUp();
+      new GlobalTypeInfo(compiler).process(
+          compiler.externsRoot, compiler.getJsRoot());
+    }
+  }
+
+  @Benchmark
+  public TypedScope typedScopeCreator(Parsed state) {
+    return new TypedScopeCreator(state.compiler)
+        .createScope(state.compiler.getRoot(), null);
+  }
+
+  @Benchmark
+  public void typeInference(Scoped state) {
+    state.compiler.getPassConfig().makeTypeInference(state.compiler)
+        .process(state.compiler.externsRoot, state.compiler.getJsRoot());
+  }
+
+  @Benchmark
+  public void globalTypeInfo(NewTypesParsed state) {
+    new GlobalTypeInfo(state.compiler).process(
+        state.compiler.externsRoot, state.compiler.getJsRoot());
+  }
+
+  @Benchmark
+  public void newTypeInference(NewTypesCollected state) {
+    new NewTypeInference(state.compiler, false).process(
+        state.compiler.externsRoot, state.compiler.getJsRoot());
+  }
+}
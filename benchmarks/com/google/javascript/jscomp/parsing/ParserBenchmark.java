@@ -0,0 +1,133 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp.parsing;
+
+import com.google.javascript.jscomp.BenchmarkCorpus;
+import com.google.javascript.jscomp.parsing.Config.LanguageMode;
+import com.google.javascript.jscomp.parsing.parser.Parser;
+import com.google.javascript.jscomp.parsing.parser.Scanner;
+import com.google.javascript.jscomp.parsing.parser.SourceFile;
+import com.google.javascript.jscomp.parsing.parser.Token;
+import com.google.javascript.jscomp.parsing.parser.TokenType;
+import com.google.javascript.jscomp.parsing.parser.trees.Comment;
+import com.google.javascript.jscomp.parsing.parser.trees.ProgramTree;
+import com.google.javascript.jscomp.parsing.parser.util.ErrorReporter;
+import com.google.javascript.jscomp.parsing.parser.util.SourcePosition;
+import com.google.javascript.jscomp.parsing.parser.util.SourceRange;
+import com.google.javascript.rhino.Node;
+import com.google.javascript.rhino.SimpleErrorReporter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarks the scanner, the parser and the conversion of the parse trees
+ * into the compiler's AST.
+ */
+@State(Scope.Benchmark)
+public class ParserBenchmark {
+
+  @Param({
+      BenchmarkCorpus.SYNTHETIC, BenchmarkCorpus.EXTERNS,
+      BenchmarkCorpus.CONTRIB})
+  public String corpus;
+
+  private final List<com.google.javascript.jscomp.SourceFile> inputs =
+      new ArrayList<>();
+  private final List<String> contents = new ArrayList<>();
+  private final List<ProgramTree> trees = new ArrayList<>();
+  private Config config;
+
+  @Setup
+  public void setUp() throws IOException {
+    config = ParserRunner.createConfig(
+        false, LanguageMode.ECMASCRIPT5, null);
+    for (com.google.javascript.jscomp.SourceFile input
+        : BenchmarkCorpus.load(corpus)) {
+      inputs.add(input);
+      contents.add(input.getCode());
+      trees.add(newParser(input.getName(), input.getCode()).parseProgram());
+    }
+  }
+
+  @Benchmark
+  public void scan(Blackhole blackhole) {
+    for (int i = 0; i < inputs.size(); i++) {
+      Scanner scanner = new Scanner(new NullErrorReporter(),
+          new NullCommentRecorder(),
+          new SourceFile(inputs.get(i).getName(), contents.get(i)));
+      for (Token token = scanner.nextToken();
+           token.type != TokenType.END_OF_FILE;
+           token = scanner.nextToken()) {
+        blackhole.consume(token);
+      }
+    }
+  }
+
+  @Benchmark
+  public void parseTree(Blackhole blackhole) {
+    for (int i = 0; i < inputs.size(); i++) {
+      blackhole.consume(
+          newParser(inputs.get(i).getName(), contents.get(i)).parseProgram());
+    }
+  }
+
+  @Benchmark
+  public void transform(Blackhole blackhole) {
+    for (int i = 0; i < inputs.size(); i++) {
+      blackhole.consume(IRFactory.transformTree(trees.get(i), inputs.get(i),
+          contents.get(i), config, new SimpleErrorReporter()));
+    }
+  }
+
+  @Benchmark
+  public void parse(Blackhole blackhole) {
+    for (int i = 0; i < inputs.size(); i++) {
+      Node root = ParserRunner.parse(inputs.get(i), contents.get(i), config,
+          new SimpleErrorReporter()).ast;
+      blackhole.consume(root);
+    }
+  }
+
+  private static Parser newParser(String name, String code) {
+    return new Parser(new Parser.Config(Parser.Config.Mode.ES5),
+        new NullErrorReporter(), new SourceFile(name, code));
+  }
+
+  private static class NullErrorReporter extends ErrorReporter {
+    @Override
+    protected void reportError(SourcePosition location, String message) {}
+
+    @Override
+    protected void reportWarning(SourcePosition location, String message) {}
+  }
+
+  private static class NullCommentRecorder
+      implements Scanner.CommentRecorder {
+    @Override
+    public void recordComment(
+        Comment.Type type, SourceRange range, String value) {}
+  }
+}
@@ -34,12 +34,14 @@ import com.google.javascript.rhino.Node;
 import com.google.javascript.rhino.TokenStream;
 import com.google.protobuf.CodedOutputStream;
 
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.Flushable;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintStream;
@@ -394,6 +396,19 @@ abstract class AbstractCommandLineRunner<A extends Compiler,
     options.commonJSModulePathPrefix = config.commonJSModulePathPrefix;
     options.angularPass = config.angularPass;
     options.tracer = config.tracerMode;
+    options.setTracerOutputFormat(config.tracerOutputFormat);
+    options.setTracerOutputFile(config.tracerOutputFile);
+    options.setParseThreadCount(config.parseThreadCount);
+    options.setTypeInferenceThreadCount(config.typeInferenceThreadCount);
+    options.setPeepholeThreadCount(config.peepholeThreadCount);
+    options.setModuleOutputThreadCount(config.moduleOutputThreadCount);
+    options.setDataFlowOrder(config.dataFlowOrder);
+    options.setAstCacheDirectory(config.astCacheDirectory);
+    if (config.daemon) {
+      // Hot swapping needs the state that IDE mode keeps after the checks.
+      options.setIdeMode(true);
+      options.setChecksOnly(true);
+    }
     options.useNewTypeInference = config.useNewTypeInference;
   }
 
@@ -463,7 +478,9 @@ abstract class AbstractCommandLineRunner<A extends Compiler,
     boolean usingStdin = false;
     for (String filename : files) {
       if (!"-".equals(filename)) {
-        SourceFile newFile = SourceFile.fromFile(filename, inputCharset);
+        SourceFile newFile = config.memoryMapInputs
+            ? SourceFile.fromMappedFile(filename, inputCharset)
+            : SourceFile.fromFile(filename, inputCharset);
         inputs.add(newFile);
       } else {
         if (!allowStdIn) {
@@ -731,9 +748,14 @@ abstract class AbstractCommandLineRunner<A extends Compiler,
               compiler.getDegenerateModuleGraph().getAllModules()));
     }
 
+    writeModuleOutput(out, m, compiler.toSource(m), compiler.getSourceMap());
+  }
+
+  private void writeModuleOutput(Appendable out, JSModule m, String code,
+      @Nullable SourceMap sourceMap) throws IOException {
     String fileName = getModuleOutputFileName(m);
     String baseName = new File(fileName).getName();
-    writeOutput(out, compiler, compiler.toSource(m),
+    writeOutput(out, sourceMap, code,
         parsedModuleWrappers.get(m.getName()).replace("%basename%", baseName),
         "%s", null);
   }
@@ -742,8 +764,8 @@ abstract class AbstractCommandLineRunner<A extends Compiler,
    * Writes code to an output stream, optionally wrapping it in an arbitrary
    * wrapper that contains a placeholder where the code should be inserted.
    */
-  static void writeOutput(Appendable out, Compiler compiler, String code,
-      String wrapper, String codePlaceholder,
+  static void writeOutput(Appendable out, @Nullable SourceMap sourceMap,
+      String code, String wrapper, String codePlaceholder,
       @Nullable Function<String, String> escaper)
       throws IOException {
     int pos = wrapper.indexOf(codePlaceholder);
@@ -767,8 +789,8 @@ abstract class AbstractCommandLineRunner<A extends Compiler,
 
       // If we have a source map, adjust its offsets to match
       // the code WITHIN the wrapper.
-      if (compiler != null && compiler.getSourceMap() != null) {
-        compiler.getSourceMap().setWrapperPrefix(prefix);
+      if (sourceMap != null) {
+        sourceMap.setWrapperPrefix(prefix);
       }
 
     } else {
@@ -838,6 +860,11 @@ abstract class AbstractCommandLineRunner<A extends Compiler,
     List<String> jsFiles = config.js;
     List<String> moduleSpecs = config.module;
 
+    if (config.daemon && jsFiles.isEmpty() && !isInTestMode()) {
+      throw new FlagUsageException("The daemon reads its requests from "
+          + "stdin, so its inputs must be given with --js");
+    }
+
     boolean createCommonJsModules = false;
     if (options.processCommonJSModules
         && (moduleSpecs.size() == 1 && "auto".equals(moduleSpecs.get(0)))) {
@@ -881,7 +908,15 @@ abstract class AbstractCommandLineRunner<A extends Compiler,
       }
     }
 
-    return processResults(result, modules, options);
+    int status = processResults(result, modules, options);
+    if (config.daemon) {
+      new CompilationDaemon(compiler, getInputCharset()).serve(
+          new BufferedReader(new InputStreamReader(System.in, UTF_8)),
+          defaultJsOutput);
+      // The diagnostics of each request are in its response, so the exit
+      // status is still that of the initial compile.
+    }
+    return status;
   }
 
   /**
@@ -980,14 +1015,50 @@ abstract class AbstractCommandLineRunner<A extends Compiler,
     }
 
     Appendable jsOutput = createDefaultOutput();
-    writeOutput(
-        jsOutput, compiler, compiler.toSource(), config.outputWrapper,
-        marker, escaper);
+    if (escaper == null) {
+      writeSingleBinary(jsOutput, compiler.getSourceMap(),
+          config.outputWrapper, marker);
+    } else {
+      writeOutput(
+          jsOutput, compiler.getSourceMap(), compiler.toSource(),
+          config.outputWrapper,
+          marker, escaper);
+    }
     closeAppendable(jsOutput);
   }
 
+  /**
+   * Writes the code like {@link #writeOutput} does, but streams it to
+   * {@code out} as it is generated instead of building it up as one string
+   * first, which takes a lot of memory for large programs.
+   */
+  private void writeSingleBinary(Appendable out, @Nullable SourceMap sourceMap,
+      String wrapper, String codePlaceholder) throws IOException {
+    int pos = wrapper.indexOf(codePlaceholder);
+    String prefix = pos > 0 ? wrapper.substring(0, pos) : "";
+    out.append(prefix);
+    compiler.toSource(out);
+    if (pos != -1) {
+      out.append(wrapper.substring(pos + codePlaceholder.length()));
+    }
+    // Make sure we always end output with a line feed.
+    out.append('\n');
+
+    // If we have a source map, adjust its offsets to match
+    // the code WITHIN the wrapper.
+    if (pos != -1 && sourceMap != null) {
+      sourceMap.setWrapperPrefix(prefix);
+    }
+  }
+
+  /**
+   * Writes the code and source map of each module. The modules may be
+   * generated on several threads, see
+   * {@link CompilerOptions#moduleOutputThreadCount}, and each one is written
+   * out as soon as it and the modules before it are done.
+   */
   private void outputModuleBinaryAndSourceMaps(
-      List<JSModule> modules, B options)
+      List<JSModule> modules, final B options)
       throws FlagUsageException, IOException {
     parsedModuleWrappers = parseModuleWrappers(
         config.moduleWrapper, modules);
@@ -996,36 +1067,42 @@ abstract class AbstractCommandLineRunner<A extends Compiler,
     // If the source map path is in fact a pattern for each
     // module, create a stream per-module. Otherwise, create
     // a single source map.
-    Writer mapOut = null;
-
-    if (!shouldGenerateMapPerModule(options)) {
-      mapOut = fileNameToOutputWriter2(expandSourceMapPath(options, null));
-    }
-
-    for (JSModule m : modules) {
-      if (shouldGenerateMapPerModule(options)) {
-        mapOut = fileNameToOutputWriter2(expandSourceMapPath(options, m));
-      }
+    final boolean mapPerModule = shouldGenerateMapPerModule(options);
+    final Writer sharedMapOut = mapPerModule
+        ? null : fileNameToOutputWriter2(expandSourceMapPath(options, null));
 
-      try (Writer writer = fileNameToLegacyOutputWriter(getModuleOutputFileName(m))) {
-        if (options.sourceMapOutputPath != null) {
-          compiler.getSourceMap().reset();
-        }
-        writeModuleOutput(writer, m);
-        if (options.sourceMapOutputPath != null) {
-          compiler.getSourceMap().appendTo(mapOut, m.getName());
+    try {
+      compiler.toSource(modules, new Compiler.ModuleSourceConsumer() {
+        @Override
+        public void accept(JSModule m, String code, SourceMap sourceMap)
+            throws IOException {
+          try (Writer writer =
+                   fileNameToLegacyOutputWriter(getModuleOutputFileName(m))) {
+            writeModuleOutput(writer, m, code, sourceMap);
+          }
+          if (options.sourceMapOutputPath == null) {
+            return;
+          }
+          if (!mapPerModule) {
+            sourceMap.appendTo(sharedMapOut, m.getName());
+          } else {
+            Writer mapOut =
+                fileNameToOutputWriter2(expandSourceMapPath(options, m));
+            if (mapOut != null) {
+              try {
+                sourceMap.appendTo(mapOut, m.getName());
+              } finally {
+                mapOut.close();
+              }
+            }
+          }
         }
-      }
-
-      if (shouldGenerateMapPerModule(options) && mapOut != null) {
-        mapOut.close();
-        mapOut = null;
+      });
+    } finally {
+      if (sharedMapOut != null) {
+        sharedMapOut.close();
       }
     }
-
-    if (mapOut != null) {
-      mapOut.close();
-    }
   }
 
   /**
@@ -2108,6 +2185,110 @@ abstract class AbstractCommandLineRunner<A extends Compiler,
       return this;
     }
 
+    private CompilerOptions.TracerOutputFormat tracerOutputFormat =
+        CompilerOptions.TracerOutputFormat.TEXT;
+
+    CommandLineConfig setTracerOutputFormat(
+        CompilerOptions.TracerOutputFormat tracerOutputFormat) {
+      this.tracerOutputFormat = tracerOutputFormat;
+      return this;
+    }
+
+    private String tracerOutputFile = null;
+
+    /**
+     * Writes the tracer report to this file instead of the error stream.
+     */
+    CommandLineConfig setTracerOutputFile(String tracerOutputFile) {
+      this.tracerOutputFile = tracerOutputFile;
+      return this;
+    }
+
+    private int parseThreadCount = 1;
+
+    /**
+     * Sets the number of threads used to parse the inputs.
+     */
+    CommandLineConfig setParseThreadCount(int parseThreadCount) {
+      this.parseThreadCount = parseThreadCount;
+      return this;
+    }
+
+    private int typeInferenceThreadCount = 1;
+
+    /**
+     * Sets the number of threads used by the new type inference.
+     */
+    CommandLineConfig setTypeInferenceThreadCount(
+        int typeInferenceThreadCount) {
+      this.typeInferenceThreadCount = typeInferenceThreadCount;
+      return this;
+    }
+
+    private int peepholeThreadCount = 1;
+
+    /**
+     * Sets the number of threads used by the peephole optimizations.
+     */
+    CommandLineConfig setPeepholeThreadCount(int peepholeThreadCount) {
+      this.peepholeThreadCount = peepholeThreadCount;
+      return this;
+    }
+
+    private int moduleOutputThreadCount = 1;
+
+    /**
+     * Sets the number of modules whose code is generated at once.
+     */
+    CommandLineConfig setModuleOutputThreadCount(int moduleOutputThreadCount) {
+      this.moduleOutputThreadCount = moduleOutputThreadCount;
+      return this;
+    }
+
+    private CompilerOptions.DataFlowOrder dataFlowOrder =
+        CompilerOptions.DataFlowOrder.PRIORITY;
+
+    /**
+     * Sets the order in which the data flow analyses visit the nodes.
+     */
+    CommandLineConfig setDataFlowOrder(
+        CompilerOptions.DataFlowOrder dataFlowOrder) {
+      this.dataFlowOrder = dataFlowOrder;
+      return this;
+    }
+
+    private String astCacheDirectory = null;
+
+    /**
+     * Sets the directory in which parsed ASTs are cached.
+     */
+    CommandLineConfig setAstCacheDirectory(String astCacheDirectory) {
+      this.astCacheDirectory = astCacheDirectory;
+      return this;
+    }
+
+    private boolean memoryMapInputs = false;
+
+    /**
+     * Sets whether the input files are memory-mapped rather than read into
+     * memory, see {@link SourceFile#fromMappedFile}.
+     */
+    CommandLineConfig setMemoryMapInputs(boolean memoryMapInputs) {
+      this.memoryMapInputs = memoryMapInputs;
+      return this;
+    }
+
+    private boolean daemon = false;
+
+    /**
+     * Sets whether to keep running after the compile and recheck the inputs
+     * that change.
+     */
+    CommandLineConfig setDaemon(boolean daemon) {
+      this.daemon = daemon;
+      return this;
+    }
+
     private boolean useNewTypeInference = false;
 
     CommandLineConfig setNewTypeInference(boolean useNewTypeInference) {
@@ -254,6 +254,13 @@ public abstract class AbstractCompiler implements SourceExcerptProvider {
   /** True iff a function changed since the last time a pass was run */
   abstract boolean hasScopeChanged(Node n);
 
+  /**
+   * Returns the functions, and possibly the root of the source tree, that
+   * changed since the last time the current pass was run, or null if every
+   * scope must be treated as changed.
+   */
+  abstract List<Node> getChangedScopeRoots();
+
   /** Passes that do cross-scope modifications use this (eg, InlineVariables) */
   abstract void reportChangeToEnclosingScope(Node n);
 
@@ -288,6 +295,17 @@ public abstract class AbstractCompiler implements SourceExcerptProvider {
    */
   abstract Config getParserConfig(ConfigContext context);
 
+  /**
+   * Returns the cache of parsed ASTs, or null if ASTs are not cached.
+   */
+  abstract AstCache getAstCache();
+
+  /**
+   * Returns the parsed externs shared with other compilations, or null if the
+   * externs are parsed by this compilation.
+   */
+  abstract ExternsSnapshot getExternsSnapshot();
+
   /**
    * Normalizes the types of AST nodes in the given tree, and
    * annotates any nodes to which the coding convention applies so that passes
@@ -368,6 +386,13 @@ public abstract class AbstractCompiler implements SourceExcerptProvider {
 
   abstract CompilerOptions getOptions();
 
+  /**
+   * Records that a data flow analysis of the code at {@code root} took
+   * {@code steps} steps to find its fixed point.
+   */
+  abstract void recordDataFlowSteps(
+      String analysis, @Nullable Node root, int steps);
+
   /**
    * The language mode of the current root node. This will match the languageIn
    * field of the {@link CompilerOptions} before transpilation happens, and
@@ -19,6 +19,9 @@ package com.google.javascript.jscomp;
 import com.google.common.base.Preconditions;
 import com.google.javascript.rhino.Node;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * An abstract class whose implementations run peephole optimizations:
  * optimizations that look at a small section of code and either remove
@@ -29,6 +32,19 @@ abstract class AbstractPeepholeOptimization {
 
   private AbstractCompiler compiler;
 
+  // Set when the optimization runs on several threads at once; see
+  // PeepholeOptimizationsPass.
+  private ThreadLocal<ThreadReport> threadReports;
+
+  /**
+   * The changes and errors of the thread that optimizes one function, which
+   * are reported to the compiler once all threads are done.
+   */
+  static final class ThreadReport {
+    boolean codeChanged;
+    final List<JSError> errors = new ArrayList<>();
+  }
+
   /**
    * Given a node to optimize and a traversal, optimize the node. Subclasses
    * should override to provide their own peephole optimization.
@@ -49,7 +65,12 @@ abstract class AbstractPeepholeOptimization {
    */
   protected void report(DiagnosticType diagnostic, Node n) {
     JSError error = JSError.make(n, diagnostic, n.toString());
-    compiler.report(error);
+    ThreadReport threadReport = getThreadReport();
+    if (threadReport != null) {
+      threadReport.errors.add(error);
+    } else {
+      compiler.report(error);
+    }
   }
 
   /**
@@ -58,7 +79,12 @@ abstract class AbstractPeepholeOptimization {
    */
   protected void reportCodeChange() {
     Preconditions.checkNotNull(compiler);
-    compiler.reportCodeChange();
+    ThreadReport threadReport = getThreadReport();
+    if (threadReport != null) {
+      threadReport.codeChanged = true;
+    } else {
+      compiler.reportCodeChange();
+    }
   }
 
   /**
@@ -90,12 +116,28 @@ abstract class AbstractPeepholeOptimization {
     this.compiler = compiler;
   }
 
+  /**
+   * Informs the optimization that a traversal will begin on several threads.
+   * Threads that have a report in {@code threadReports} record their changes
+   * and errors there instead of reporting them to the compiler.
+   */
+  void beginTraversal(
+      AbstractCompiler compiler, ThreadLocal<ThreadReport> threadReports) {
+    this.compiler = compiler;
+    this.threadReports = threadReports;
+  }
+
   /**
    * Informs the optimization that a traversal has completed.
    * @param compiler The current compiler.
    */
   void endTraversal(AbstractCompiler compiler) {
     this.compiler = null;
+    this.threadReports = null;
+  }
+
+  private ThreadReport getThreadReport() {
+    return threadReports == null ? null : threadReports.get();
   }
 
   // NodeUtil's mayEffectMutableState and mayHaveSideEffects need access to the
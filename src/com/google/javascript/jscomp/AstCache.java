@@ -0,0 +1,178 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.javascript.jscomp.parsing.Config;
+import com.google.javascript.jscomp.parsing.ParserRunner;
+import com.google.javascript.jscomp.parsing.parser.trees.Comment;
+import com.google.javascript.rhino.ErrorReporter;
+import com.google.javascript.rhino.Node;
+import com.google.javascript.rhino.NodeSerializer;
+import com.google.javascript.rhino.StaticSourceFile;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A directory of parsed ASTs that lets later compilations skip parsing
+ * files that have not changed.
+ *
+ * <p>Entries are keyed by a hash of the source code, the parser
+ * configuration and the compiler version, so a stale entry is never used.
+ * Only parses that reported no diagnostics are cached: a cache hit therefore
+ * never hides a warning, and the trees are stored before {@link PrepareAst}
+ * runs so that the result does not depend on the coding convention.
+ *
+ * <p>This class is safe to use from several parsing threads, and several
+ * compiler processes may share a directory: entries are written to a
+ * temporary file and then atomically moved into place.
+ */
+final class AstCache {
+
+  private static final Logger logger =
+      Logger.getLogger(AstCache.class.getName());
+
+  private static final String ENTRY_SUFFIX = ".ast";
+
+  private final File directory;
+  private final String compilerVersion;
+
+  private final AtomicInteger hitCount = new AtomicInteger();
+  private final AtomicInteger missCount = new AtomicInteger();
+
+  AstCache(File directory) {
+    this.directory = directory;
+    this.compilerVersion =
+        Compiler.getReleaseVersion() + "/" + Compiler.getReleaseDate();
+  }
+
+  /**
+   * Returns the AST of the given source, loading it from the cache if
+   * possible and parsing and caching it otherwise.
+   */
+  ParserRunner.ParseResult parse(StaticSourceFile sourceFile, String code,
+      Config config, ErrorReporter errorReporter) {
+    File entry = getEntry(code, config);
+    Node cached = load(entry, sourceFile);
+    if (cached != null) {
+      hitCount.incrementAndGet();
+      return new ParserRunner.ParseResult(cached, ImmutableList.<Comment>of());
+    }
+    missCount.incrementAndGet();
+
+    CountingErrorReporter counter = new CountingErrorReporter(errorReporter);
+    ParserRunner.ParseResult result =
+        ParserRunner.parse(sourceFile, code, config, counter);
+    if (result.ast != null && counter.count == 0) {
+      store(entry, sourceFile, result.ast);
+    }
+    return result;
+  }
+
+  @VisibleForTesting
+  int getHitCount() {
+    return hitCount.get();
+  }
+
+  @VisibleForTesting
+  int getMissCount() {
+    return missCount.get();
+  }
+
+  private File getEntry(String code, Config config) {
+    Hasher hasher = Hashing.sha1().newHasher()
+        .putString(compilerVersion, UTF_8)
+        .putString(config.getFingerprint(), UTF_8)
+        .putString(code, UTF_8);
+    return new File(directory, hasher.hash() + ENTRY_SUFFIX);
+  }
+
+  private static Node load(File entry, StaticSourceFile sourceFile) {
+    if (!entry.isFile()) {
+      return null;
+    }
+    try (InputStream in =
+        new BufferedInputStream(new FileInputStream(entry))) {
+      return NodeSerializer.deserialize(in, sourceFile);
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "Ignoring unreadable AST cache entry " + entry, e);
+      return null;
+    }
+  }
+
+  private void store(File entry, StaticSourceFile sourceFile, Node root) {
+    File temp = null;
+    try {
+      Files.createDirectories(directory.toPath());
+      temp = File.createTempFile(entry.getName(), ".tmp", directory);
+      try (OutputStream out =
+          new BufferedOutputStream(new FileOutputStream(temp))) {
+        NodeSerializer.serialize(root, sourceFile, out);
+      }
+      Files.move(temp.toPath(), entry.toPath(),
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      logger.log(Level.WARNING,
+          "Unable to cache the AST of " + sourceFile.getName(), e);
+      if (temp != null) {
+        temp.delete();
+      }
+    }
+  }
+
+  /** Forwards diagnostics to another reporter, counting them. */
+  private static class CountingErrorReporter implements ErrorReporter {
+    private final ErrorReporter delegate;
+    private int count = 0;
+
+    CountingErrorReporter(ErrorReporter delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void warning(
+        String message, String sourceName, int line, int lineOffset) {
+      count++;
+      delegate.warning(message, sourceName, line, lineOffset);
+    }
+
+    @Override
+    public void error(
+        String message, String sourceName, int line, int lineOffset) {
+      count++;
+      delegate.error(message, sourceName, line, lineOffset);
+    }
+  }
+}
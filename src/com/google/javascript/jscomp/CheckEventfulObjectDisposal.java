@@ -164,7 +164,7 @@ public final class CheckEventfulObjectDisposal implements CompilerPass {
   /*
    * Maps from eventful object name to state.
    */
-  private static Map<String, EventfulObjectState> eventfulObjectMap;
+  private Map<String, EventfulObjectState> eventfulObjectMap;
 
 
   public CheckEventfulObjectDisposal(AbstractCompiler compiler,
@@ -1260,7 +1260,7 @@ public final class CheckEventfulObjectDisposal implements CompilerPass {
       ControlFlowGraph<Node> cfg = t.getControlFlowGraph();
       LiveVariablesAnalysis liveness =
           new LiveVariablesAnalysis(cfg, t.getTypedScope(), compiler);
-      liveness.analyze();
+      liveness.analyze(compiler);
 
       for (TypedVar v : ((Set<TypedVar>) liveness.getEscapedLocals())) {
         eventfulObjectDisposed(t, v.getNode());
@@ -117,7 +117,7 @@ class CoalesceVariableNames extends AbstractPostOrderCallback implements
     if (scope.getRootNode().getFirstChild().getNext().getChildCount() == 2) {
       liveness.markAllParametersEscaped();
     }
-    liveness.analyze();
+    liveness.analyze(compiler);
 
     UndiGraph<Var, Void> interferenceGraph =
         computeVariableNamesInterferenceGraph(
@@ -25,6 +25,9 @@ import com.google.javascript.rhino.Node;
 import com.google.javascript.rhino.Token;
 import com.google.javascript.rhino.TypeIRegistry;
 
+import javax.annotation.Nullable;
+
+import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
@@ -47,12 +50,21 @@ public final class CodePrinter {
   // potentially has a very different implementation to the pretty
   // version.
 
+  // When printing to an Appendable, the code is written out in chunks of
+  // about this many characters.
+  private static final int FLUSH_THRESHOLD = 8192;
+
   private abstract static class MappedCodePrinter extends CodeConsumer {
     private final Deque<Mapping> mappings;
     private final List<Mapping> allMappings;
     private final boolean createSrcMap;
     private final SourceMap.DetailLevel sourceMapDetailLevel;
+    @Nullable private final Appendable out;
+    // The code that has not been written to out yet. Positions in the code
+    // are counted from the start of the output, so that they stay valid as
+    // the code is written out.
     protected final StringBuilder code = new StringBuilder(1024);
+    private int flushedLength = 0;
     protected final int lineLengthThreshold;
     protected int lineLength = 0;
     protected int lineIndex = 0;
@@ -60,8 +72,10 @@ public final class CodePrinter {
     MappedCodePrinter(
         int lineLengthThreshold,
         boolean createSrcMap,
-        SourceMap.DetailLevel sourceMapDetailLevel) {
+        SourceMap.DetailLevel sourceMapDetailLevel,
+        @Nullable Appendable out) {
       Preconditions.checkState(sourceMapDetailLevel != null);
+      this.out = out;
       this.lineLengthThreshold = lineLengthThreshold <= 0 ? Integer.MAX_VALUE :
         lineLengthThreshold;
       this.createSrcMap = createSrcMap;
@@ -202,6 +216,7 @@ public final class CodePrinter {
     }
 
     public String getCode() {
+      Preconditions.checkState(out == null);
       return code.toString();
     }
 
@@ -210,6 +225,50 @@ public final class CodePrinter {
       return (code.length() > 0) ? code.charAt(code.length() - 1) : '\0';
     }
 
+    /** Returns the length of the code printed so far. */
+    protected final int getCodeLength() {
+      return flushedLength + code.length();
+    }
+
+    /**
+     * Returns the index in the code buffer of the given position, which must
+     * not have been written out yet.
+     */
+    protected final int toBufferIndex(int position) {
+      Preconditions.checkState(position >= flushedLength);
+      return position - flushedLength;
+    }
+
+    /**
+     * When printing to an Appendable, writes out the code before the given
+     * position once enough of it has piled up. The code from the position on
+     * stays in the buffer so that it can still be edited, and so does the
+     * last character.
+     */
+    protected final void maybeFlush(int position) {
+      int end = Math.min(toBufferIndex(position), code.length() - 1);
+      if (out != null && end >= FLUSH_THRESHOLD) {
+        write(end);
+      }
+    }
+
+    /** Writes out the code that has not been written yet. */
+    final void flush() {
+      if (out != null) {
+        write(code.length());
+      }
+    }
+
+    private void write(int end) {
+      try {
+        out.append(code, 0, end);
+      } catch (IOException e) {
+        throw new OutputException(e);
+      }
+      code.delete(0, end);
+      flushedLength += end;
+    }
+
     protected final int getCurrentCharIndex() {
       return lineLength;
     }
@@ -236,8 +295,9 @@ public final class CodePrinter {
     private PrettyCodePrinter(
         int lineLengthThreshold,
         boolean createSourceMap,
-        SourceMap.DetailLevel sourceMapDetailLevel) {
-      super(lineLengthThreshold, createSourceMap, sourceMapDetailLevel);
+        SourceMap.DetailLevel sourceMapDetailLevel,
+        @Nullable Appendable out) {
+      super(lineLengthThreshold, createSourceMap, sourceMapDetailLevel, out);
     }
 
     /**
@@ -272,6 +332,7 @@ public final class CodePrinter {
         code.append('\n');
         lineIndex++;
         lineLength = 0;
+        maybeFlush(getCodeLength());
       }
     }
 
@@ -440,11 +501,14 @@ public final class CodePrinter {
    *                            mapping information when printing.
    * @param sourceMapDetailLevel A filter to control which nodes get mapped into
    *     the source map.
+   * @param out The Appendable to write the code to as it is printed, or null
+   *     to keep all of it in memory.
    */
     private CompactCodePrinter(boolean lineBreak,
         boolean preferLineBreakAtEndOfFile, int lineLengthThreshold,
-        boolean createSrcMap, SourceMap.DetailLevel sourceMapDetailLevel) {
-      super(lineLengthThreshold, createSrcMap, sourceMapDetailLevel);
+        boolean createSrcMap, SourceMap.DetailLevel sourceMapDetailLevel,
+        @Nullable Appendable out) {
+      super(lineLengthThreshold, createSrcMap, sourceMapDetailLevel, out);
       this.lineBreak = lineBreak;
       this.preferLineBreakAtEndOfFile = preferLineBreakAtEndOfFile;
     }
@@ -470,12 +534,14 @@ public final class CodePrinter {
     @Override
     void startNewLine() {
       if (lineLength > 0) {
-        prevCutPosition = code.length();
+        prevCutPosition = getCodeLength();
         prevLineStartPosition = lineStartPosition;
         code.append('\n');
         lineLength = 0;
         lineIndex++;
-        lineStartPosition = code.length();
+        lineStartPosition = getCodeLength();
+        // The previous cut may still be moved to the end of the file.
+        maybeFlush(prevCutPosition);
       }
     }
 
@@ -491,9 +557,9 @@ public final class CodePrinter {
       // Since we are at a legal line break, can we upgrade the
       // preferred break position?  We prefer to break after a
       // semicolon rather than before it.
-      int len = code.length();
+      int len = getCodeLength();
       if (preferredBreakPosition == len - 1) {
-        char ch = code.charAt(len - 1);
+        char ch = getLastChar();
         if (ch == ';') {
           preferredBreakPosition = len;
         }
@@ -512,12 +578,13 @@ public final class CodePrinter {
         if (preferredBreakPosition > lineStartPosition &&
             preferredBreakPosition < lineStartPosition + lineLength) {
           int position = preferredBreakPosition;
-          code.insert(position, '\n');
+          code.insert(toBufferIndex(position), '\n');
           prevCutPosition = position;
           reportLineCut(lineIndex, position - lineStartPosition, true);
           lineIndex++;
           lineLength -= (position - lineStartPosition);
           lineStartPosition = position + 1;
+          maybeFlush(prevCutPosition);
         } else {
           startNewLine();
         }
@@ -526,7 +593,7 @@ public final class CodePrinter {
 
     @Override
     void notePreferredLineBreak() {
-      preferredBreakPosition = code.length();
+      preferredBreakPosition = getCodeLength();
     }
 
     @Override
@@ -543,9 +610,9 @@ public final class CodePrinter {
         // Shift the previous break to end of file by replacing it with a
         // <space> and adding a new break at end of file. Adding the space
         // handles cases like instanceof\nfoo. (it would be nice to avoid this)
-        code.setCharAt(prevCutPosition, ' ');
+        code.setCharAt(toBufferIndex(prevCutPosition), ' ');
         lineStartPosition = prevLineStartPosition;
-        lineLength = code.length() - lineStartPosition;
+        lineLength = getCodeLength() - lineStartPosition;
         reportLineCut(lineIndex, prevCutPosition + 1, false);
         lineIndex--;
         prevCutPosition = 0;
@@ -656,13 +723,46 @@ public final class CodePrinter {
      * Generates the source code and returns it.
      */
     public String build() {
+      return print(null).getCode();
+    }
+
+    /**
+     * Generates the source code and writes it to {@code out} as it goes, so
+     * that only the last lines of the code are held in memory. The code and
+     * the source map are the same as those of {@link #build()}.
+     */
+    public void build(Appendable out) throws IOException {
+      Preconditions.checkNotNull(out);
+      try {
+        print(out).flush();
+      } catch (OutputException e) {
+        throw e.getCause();
+      }
+    }
+
+    private MappedCodePrinter print(@Nullable Appendable out) {
       if (root == null) {
         throw new IllegalStateException(
             "Cannot build without root node being specified");
       }
 
       return toSource(root, Format.fromOptions(options, outputTypes, prettyPrint), options,
-          sourceMap, tagAsStrict, lineBreak, codeGeneratorFactory);
+          sourceMap, tagAsStrict, lineBreak, codeGeneratorFactory, out);
+    }
+  }
+
+  /**
+   * Carries an exception thrown by the Appendable the code is printed to
+   * through the code generator, whose methods do not throw IOExceptions.
+   */
+  private static final class OutputException extends RuntimeException {
+    OutputException(IOException cause) {
+      super(cause);
+    }
+
+    @Override
+    public synchronized IOException getCause() {
+      return (IOException) super.getCause();
     }
   }
 
@@ -683,11 +783,12 @@ public final class CodePrinter {
   }
 
   /**
-   * Converts a tree to JS code
+   * Converts a tree to JS code, which is written to {@code out} if it is
+   * given or else kept in the returned printer.
    */
-  private static String toSource(Node root, Format outputFormat,
+  private static MappedCodePrinter toSource(Node root, Format outputFormat,
       CompilerOptions options, SourceMap sourceMap, boolean tagAsStrict, boolean lineBreak,
-      CodeGeneratorFactory codeGeneratorFactory) {
+      CodeGeneratorFactory codeGeneratorFactory, @Nullable Appendable out) {
     Preconditions.checkState(options.sourceMapDetailLevel != null);
 
     boolean createSourceMap = (sourceMap != null);
@@ -698,11 +799,13 @@ public final class CodePrinter {
             options.preferLineBreakAtEndOfFile,
             options.lineLengthThreshold,
             createSourceMap,
-            options.sourceMapDetailLevel)
+            options.sourceMapDetailLevel,
+            out)
         : new PrettyCodePrinter(
             options.lineLengthThreshold,
             createSourceMap,
-            options.sourceMapDetailLevel);
+            options.sourceMapDetailLevel,
+            out);
     CodeGenerator cg = codeGeneratorFactory.getCodeGenerator(outputFormat, mcp);
 
     if (tagAsStrict) {
@@ -712,12 +815,10 @@ public final class CodePrinter {
     cg.add(root);
     mcp.endFile();
 
-    String code = mcp.getCode();
-
     if (createSourceMap) {
       mcp.generateSourceMap(sourceMap);
     }
 
-    return code;
+    return mcp;
   }
 }
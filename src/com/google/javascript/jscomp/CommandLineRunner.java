@@ -562,6 +562,70 @@ public class CommandLineRunner extends
     private CompilerOptions.TracerMode tracerMode =
         CompilerOptions.TracerMode.OFF;
 
+    @Option(name = "--tracer_output_format",
+        hidden = true,
+        usage = "The format of the --tracer_mode report. Options: TEXT, JSON, "
+        + "PROMETHEUS")
+    private CompilerOptions.TracerOutputFormat tracerOutputFormat =
+        CompilerOptions.TracerOutputFormat.TEXT;
+
+    @Option(name = "--tracer_output_file",
+        hidden = true,
+        usage = "Writes the --tracer_mode report to this file instead of "
+        + "the error stream")
+    private String tracerOutputFile = null;
+
+    @Option(name = "--parse_threads",
+        hidden = true,
+        usage = "The number of threads used to parse the inputs. "
+        + "Defaults to 1 (serial parsing)")
+    private int parseThreads = 1;
+
+    @Option(name = "--type_inference_threads",
+        hidden = true,
+        usage = "The number of threads used by the new type inference. "
+        + "Defaults to 1")
+    private int typeInferenceThreads = 1;
+
+    @Option(name = "--peephole_threads",
+        hidden = true,
+        usage = "The number of threads used by the peephole optimizations. "
+        + "Defaults to 1")
+    private int peepholeThreads = 1;
+
+    @Option(name = "--module_output_threads",
+        hidden = true,
+        usage = "The number of modules whose code is generated at once. "
+        + "Defaults to 1")
+    private int moduleOutputThreads = 1;
+
+    @Option(name = "--data_flow_order",
+        hidden = true,
+        usage = "The order in which the data flow analyses visit the nodes "
+        + "of a function. Options: PRIORITY, STRONGLY_CONNECTED_COMPONENTS")
+    private CompilerOptions.DataFlowOrder dataFlowOrder =
+        CompilerOptions.DataFlowOrder.PRIORITY;
+
+    @Option(name = "--ast_cache_dir",
+        hidden = true,
+        usage = "A directory in which parsed ASTs are cached, so that "
+        + "unchanged files are not parsed again by later compilations")
+    private String astCacheDir = null;
+
+    @Option(name = "--memory_map_inputs",
+        hidden = true,
+        usage = "Memory-map the input files instead of reading them into "
+        + "memory, and drop their code once it has been parsed. The files "
+        + "must not change during the compilation")
+    private boolean memoryMapInputs = false;
+
+    @Option(name = "--daemon",
+        hidden = true,
+        usage = "After checking the inputs, keep running and recheck the "
+        + "inputs that changed whenever a line is read from stdin, until "
+        + "'quit' is read. Only the hot-swappable checks are run again")
+    private boolean daemon = false;
+
     @Option(name = "--new_type_inf",
         hidden = true,
         usage = "In development new type inference pass. DO NOT USE!")
@@ -1083,6 +1147,16 @@ public class CommandLineRunner extends
           .setWarningsWhitelistFile(flags.warningsWhitelistFile)
           .setAngularPass(flags.angularPass)
           .setTracerMode(flags.tracerMode)
+          .setTracerOutputFormat(flags.tracerOutputFormat)
+          .setTracerOutputFile(flags.tracerOutputFile)
+          .setParseThreadCount(flags.parseThreads)
+          .setTypeInferenceThreadCount(flags.typeInferenceThreads)
+          .setPeepholeThreadCount(flags.peepholeThreads)
+          .setModuleOutputThreadCount(flags.moduleOutputThreads)
+          .setDataFlowOrder(flags.dataFlowOrder)
+          .setAstCacheDirectory(flags.astCacheDir)
+          .setMemoryMapInputs(flags.memoryMapInputs)
+          .setDaemon(flags.daemon)
           .setNewTypeInference(flags.useNewTypeInference);
     }
     errorStream = null;
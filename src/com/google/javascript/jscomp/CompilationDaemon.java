@@ -0,0 +1,190 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.javascript.rhino.InputId;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Keeps a checked program in memory and, on request, re-runs the
+ * hot-swappable checks over the inputs whose files changed since they were
+ * last checked. This spares clients that recheck the same program over and
+ * over (editors, file watchers) the JVM startup and the full compile.
+ * The inputs that use names declared by a changed input, directly or through
+ * the names they declare in turn, are rechecked with it, so that a change to
+ * a declaration is seen by its users; see {@link InputDependencyIndex}.
+ *
+ * <p>The compiler must have compiled the program in IDE mode, which keeps the
+ * state the hot swap passes need. Requests are read one per line:
+ * {@code quit} (or the end of the input) stops the daemon, and any other line
+ * rechecks the inputs that changed. Each response lists the diagnostics for
+ * the rechecked inputs and ends with the summary line
+ * {@code N error(s), M warning(s)}.
+ *
+ * <p>Changes are found by comparing modification times when a request comes
+ * in, rather than by a watcher thread, because the compiler may only be used
+ * from one thread at a time.
+ *
+ */
+final class CompilationDaemon {
+
+  static final String QUIT_COMMAND = "quit";
+
+  private final Compiler compiler;
+  private final Charset inputCharset;
+
+  /** The modification time of each input file when it was last checked. */
+  private final Map<String, Long> lastModified = new LinkedHashMap<>();
+
+  private final InputDependencyIndex dependencies = new InputDependencyIndex();
+
+  /**
+   * The names of the inputs in order. Replaced inputs leave the compiler's
+   * input list, so it is recorded up front.
+   */
+  private final List<String> inputOrder = new ArrayList<>();
+
+  CompilationDaemon(Compiler compiler, Charset inputCharset) {
+    Preconditions.checkState(compiler.getOptions().ideMode,
+        "The compilation daemon requires IDE mode");
+    this.compiler = compiler;
+    this.inputCharset = inputCharset;
+    compiler.runInCompilerThread(new Callable<Void>() {
+      @Override
+      public Void call() {
+        for (CompilerInput input :
+            CompilationDaemon.this.compiler.getInputsInOrder()) {
+          File file = new File(input.getName());
+          if (file.isFile()) {
+            lastModified.put(input.getName(), file.lastModified());
+          }
+          reindex(input.getName());
+          inputOrder.add(input.getName());
+        }
+        return null;
+      }
+    });
+  }
+
+  /**
+   * Answers requests read from {@code in} until it is exhausted or a
+   * {@code quit} request is read.
+   */
+  void serve(BufferedReader in, PrintStream out) throws IOException {
+    for (String line = in.readLine(); line != null; line = in.readLine()) {
+      if (line.trim().equals(QUIT_COMMAND)) {
+        return;
+      }
+      PrintStreamErrorManager errorManager = new PrintStreamErrorManager(
+          compiler.createMessageFormatter(), out);
+      errorManager.setSummaryDetailLevel(3);
+      recheck(findChangedInputs(), errorManager);
+      errorManager.generateReport();
+      out.flush();
+    }
+  }
+
+  /**
+   * Returns the names of the inputs whose files were modified since they were
+   * last checked, and records their new modification times.
+   */
+  @VisibleForTesting
+  List<String> findChangedInputs() {
+    List<String> changed = new ArrayList<>();
+    for (Map.Entry<String, Long> entry : lastModified.entrySet()) {
+      long modified = new File(entry.getKey()).lastModified();
+      if (modified != entry.getValue()) {
+        entry.setValue(modified);
+        changed.add(entry.getKey());
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * Reloads the given inputs from disk and runs the hot-swappable checks over
+   * them and over the inputs that depend on them, reporting the diagnostics to
+   * {@code errorManager}.
+   *
+   * @return the names of the rechecked inputs, in input order
+   */
+  @VisibleForTesting
+  List<String> recheck(
+      final List<String> inputNames, ErrorManager errorManager) {
+    compiler.setErrorManager(errorManager);
+    return compiler.runInCompilerThread(new Callable<List<String>>() {
+      @Override
+      public List<String> call() {
+        List<String> replaced = new ArrayList<>();
+        // Both the old and the new declarations of the changed inputs.
+        Set<String> changedNames = new LinkedHashSet<>();
+        for (String name : inputNames) {
+          if (compiler.getInput(new InputId(name)) == null) {
+            continue;
+          }
+          if (!new File(name).isFile()) {
+            // A deleted input keeps its last version.
+            continue;
+          }
+          changedNames.addAll(dependencies.getDeclaredNames(name));
+          compiler.replaceScript(
+              new JsAst(SourceFile.fromFile(name, inputCharset)));
+          reindex(name);
+          changedNames.addAll(dependencies.getDeclaredNames(name));
+          replaced.add(name);
+        }
+
+        Set<String> dependents =
+            dependencies.getDependents(changedNames, replaced);
+        List<String> rechecked = new ArrayList<>();
+        for (String name : inputOrder) {
+          if (replaced.contains(name) || dependents.contains(name)) {
+            rechecked.add(name);
+          }
+        }
+        for (String name : rechecked) {
+          if (dependents.contains(name)) {
+            // The input is unchanged, so its index entry stays valid.
+            compiler.replaceScript(new JsAst(
+                compiler.getInput(new InputId(name)).getSourceFile()));
+          }
+        }
+        return rechecked;
+      }
+    });
+  }
+
+  /** Must be called on the compiler thread, which may parse the input. */
+  private void reindex(String inputName) {
+    dependencies.index(inputName,
+        compiler.getInput(new InputId(inputName)).getAstRoot(compiler));
+  }
+}
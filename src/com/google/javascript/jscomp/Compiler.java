@@ -29,6 +29,7 @@ import com.google.common.collect.Iterables;
 import com.google.common.io.CharStreams;
 import com.google.debugging.sourcemap.proto.Mapping.OriginalMapping;
 import com.google.javascript.jscomp.CompilerOptions.DevMode;
+import com.google.javascript.jscomp.CompilerOptions.TracerOutputFormat;
 import com.google.javascript.jscomp.JSModuleGraph.MissingModuleException;
 import com.google.javascript.jscomp.ReferenceCollectingCallback.ReferenceCollection;
 import com.google.javascript.jscomp.TypeValidator.TypeMismatch;
@@ -51,9 +52,16 @@ import com.google.javascript.rhino.Token;
 import com.google.javascript.rhino.TypeIRegistry;
 import com.google.javascript.rhino.jstype.JSTypeRegistry;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
+import java.io.Serializable;
 import java.nio.file.FileSystems;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -77,6 +85,8 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 
+import javax.annotation.Nullable;
+
 /**
  * Compiler (and the other classes in this package) does the following:
  * <ul>
@@ -203,6 +213,7 @@ public class Compiler extends AbstractCompiler {
   private JSTypeRegistry typeRegistry;
   private Config parserConfig = null;
   private Config externsParserConfig = null;
+  private AstCache astCache = null;
 
   private ReverseAbstractInterpreter abstractInterpreter;
   private TypeValidator typeValidator;
@@ -230,6 +241,9 @@ public class Compiler extends AbstractCompiler {
   public static final DiagnosticType MOTION_ITERATIONS_ERROR =
       DiagnosticType.error("JSC_OPTIMIZE_LOOP_ERROR",
           "Exceeded max number of code motion iterations: {0}");
+  static final DiagnosticType TRACER_OUTPUT_IO_ERROR = DiagnosticType.error(
+      "JSC_TRACER_OUTPUT_IO_ERROR",
+      "Error writing tracer report to {0}");
 
   // We use many recursive algorithms that use O(d) memory in the depth
   // of the tree.
@@ -314,7 +328,7 @@ public class Compiler extends AbstractCompiler {
    * Creates a message formatter instance corresponding to the value of
    * {@link CompilerOptions}.
    */
-  private MessageFormatter createMessageFormatter() {
+  MessageFormatter createMessageFormatter() {
     boolean colorize = options.shouldColorizeErrorOutput();
     return options.errorFormat.toFormatter(this, colorize);
   }
@@ -459,8 +473,7 @@ public class Compiler extends AbstractCompiler {
   private void initBasedOnOptions() {
     // Create the source map if necessary.
     if (options.sourceMapOutputPath != null) {
-      sourceMap = options.sourceMapFormat.getInstance();
-      sourceMap.setPrefixMappings(options.sourceMapLocationMappings);
+      sourceMap = createSourceMap();
     }
   }
 
@@ -775,7 +788,21 @@ public class Compiler extends AbstractCompiler {
     setProgress(1.0, "recordFunctionInformation");
 
     if (tracker != null) {
-      tracker.outputTracerReport(outStream == null ? System.out : outStream);
+      outputTracerReport();
+    }
+  }
+
+  private void outputTracerReport() {
+    if (options.tracerOutputFile == null) {
+      tracker.outputReport(outStream == null ? System.out : outStream,
+          options.tracerOutputFormat);
+      return;
+    }
+    try (PrintStream out = new PrintStream(
+        new FileOutputStream(options.tracerOutputFile), false, UTF_8.name())) {
+      tracker.outputReport(out, options.tracerOutputFormat);
+    } catch (IOException e) {
+      report(JSError.make(TRACER_OUTPUT_IO_ERROR, options.tracerOutputFile));
     }
   }
 
@@ -1204,6 +1231,9 @@ public class Compiler extends AbstractCompiler {
   public JSTypeRegistry getTypeRegistry() {
     if (typeRegistry == null) {
       typeRegistry = new JSTypeRegistry(oldErrorReporter);
+      if (tracker != null) {
+        tracker.setTypeRegistry(typeRegistry);
+      }
     }
     return typeRegistry;
   }
@@ -1326,6 +1356,9 @@ public class Compiler extends AbstractCompiler {
 
     if (options.tracer.isOn()) {
       tracker = new PerformanceTracker(jsRoot, options.tracer);
+      tracker.setTypeRegistry(typeRegistry);
+      tracker.setLogDataFlow(
+          options.tracerOutputFormat == TracerOutputFormat.JSON);
       addChangeHandler(tracker.getCodeChangeHandler());
     }
 
@@ -1333,6 +1366,10 @@ public class Compiler extends AbstractCompiler {
     beforePass(PARSING_PASS_NAME);
 
     try {
+      if (options.parseThreadCount > 1 && useThreads) {
+        preParseInputs(options.parseThreadCount);
+      }
+
       // Parse externs sources.
       for (CompilerInput input : externs) {
         Node n = input.getAstRoot(this);
@@ -1435,6 +1472,68 @@ public class Compiler extends AbstractCompiler {
     }
   }
 
+  /**
+   * Parses the externs and inputs on a bounded pool of worker threads. The
+   * trees are not attached to the compiler here: each input keeps its parse
+   * result and diagnostics until {@link CompilerInput#getAstRoot} is called
+   * in the usual serial order, so that errors are reported and the ASTs are
+   * finished exactly as they would be by a serial parse.
+   */
+  private void preParseInputs(int threadCount) {
+    final Config externsConfig = getParserConfig(ConfigContext.EXTERNS);
+    final Config config = getParserConfig(ConfigContext.DEFAULT);
+    final ExternsSnapshot snapshot = getExternsSnapshot();
+    final AstCache cache = getAstCache();
+
+    List<JsAst> asts = new ArrayList<>();
+    for (CompilerInput input : Iterables.concat(externs, inputs)) {
+      if (input.getSourceAst() instanceof JsAst) {
+        asts.add((JsAst) input.getSourceAst());
+      }
+    }
+    if (asts.size() < 2) {
+      return;
+    }
+
+    ExecutorService executor = newWorkerPool(
+        "jscompiler-parse", Math.min(threadCount, asts.size()));
+    try {
+      List<Future<?>> futures = new ArrayList<>(asts.size());
+      for (final JsAst ast : asts) {
+        futures.add(executor.submit(new Runnable() {
+          @Override
+          public void run() {
+            ast.preParse(
+                ast.getSourceFile().isExtern() ? externsConfig : config,
+                snapshot, cache);
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException | ExecutionException e) {
+      throw Throwables.propagate(e);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Returns a fixed pool of daemon threads with the same enlarged stack as
+   * the compiler thread, for work that passes spread over several cores.
+   * The caller shuts it down when done.
+   */
+  static ExecutorService newWorkerPool(final String name, int threadCount) {
+    return Executors.newFixedThreadPool(threadCount, new ThreadFactory() {
+      @Override public Thread newThread(Runnable r) {
+        Thread t = new Thread(null, r, name, COMPILER_STACK_SIZE);
+        t.setDaemon(true);
+        return t;
+      }
+    });
+  }
+
   /**
    * Hoists inputs with the @externs annotation into the externs list.
    */
@@ -1682,25 +1781,51 @@ public class Compiler extends AbstractCompiler {
     return runInCompilerThread(new Callable<String>() {
       @Override
       public String call() throws Exception {
-        Tracer tracer = newTracer("toSource");
-        try {
-          CodeBuilder cb = new CodeBuilder();
-          if (jsRoot != null) {
-            int i = 0;
-            for (Node scriptNode = jsRoot.getFirstChild();
-                 scriptNode != null;
-                 scriptNode = scriptNode.getNext()) {
-              toSource(cb, i++, scriptNode);
-            }
-          }
-          return cb.toString();
-        } finally {
-          stopTracer(tracer, "toSource");
-        }
+        CodeBuilder cb = new CodeBuilder();
+        toSource(cb);
+        return cb.toString();
       }
     });
   }
 
+  /**
+   * Converts the main parse tree back to JS code and writes it to
+   * {@code out} as it is generated, so that the code is never held in memory
+   * as a whole. The code is the same as that of {@link #toSource()}.
+   */
+  public void toSource(final Appendable out) throws IOException {
+    try {
+      runInCompilerThread(new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          CodeBuilder cb = new CodeBuilder(out);
+          toSource(cb);
+          cb.flush();
+          return null;
+        }
+      });
+    } catch (RuntimeException e) {
+      Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+      throw e;
+    }
+  }
+
+  private void toSource(CodeBuilder cb) throws IOException {
+    Tracer tracer = newTracer("toSource");
+    try {
+      if (jsRoot != null) {
+        int i = 0;
+        for (Node scriptNode = jsRoot.getFirstChild();
+             scriptNode != null;
+             scriptNode = scriptNode.getNext()) {
+          toSource(cb, i++, scriptNode, sourceMap);
+        }
+      }
+    } finally {
+      stopTracer(tracer, "toSource");
+    }
+  }
+
   /**
    * Converts the parse tree for each input back to JS code.
    */
@@ -1734,25 +1859,120 @@ public class Compiler extends AbstractCompiler {
     return runInCompilerThread(new Callable<String>() {
       @Override
       public String call() throws Exception {
-        List<CompilerInput> inputs = module.getInputs();
-        int numInputs = inputs.size();
-        if (numInputs == 0) {
-          return "";
-        }
-        CodeBuilder cb = new CodeBuilder();
-        for (int i = 0; i < numInputs; i++) {
-          Node scriptNode = inputs.get(i).getAstRoot(Compiler.this);
-          if (scriptNode == null) {
-            throw new IllegalArgumentException(
-                "Bad module: " + module.getName());
-          }
-          toSource(cb, i, scriptNode);
-        }
-        return cb.toString();
+        return toSource(module, sourceMap);
       }
     });
   }
 
+  private String toSource(JSModule module, SourceMap sourceMap)
+      throws IOException {
+    List<CompilerInput> inputs = module.getInputs();
+    int numInputs = inputs.size();
+    if (numInputs == 0) {
+      return "";
+    }
+    CodeBuilder cb = new CodeBuilder();
+    for (int i = 0; i < numInputs; i++) {
+      Node scriptNode = inputs.get(i).getAstRoot(Compiler.this);
+      if (scriptNode == null) {
+        throw new IllegalArgumentException(
+            "Bad module: " + module.getName());
+      }
+      toSource(cb, i, scriptNode, sourceMap);
+    }
+    return cb.toString();
+  }
+
+  /**
+   * Receives the code of the modules printed by
+   * {@link Compiler#toSource(List, ModuleSourceConsumer)}.
+   */
+  public interface ModuleSourceConsumer {
+    /**
+     * @param sourceMap the source map of the module's code, or null if the
+     *     compiler does not generate source maps
+     */
+    void accept(JSModule module, String code, @Nullable SourceMap sourceMap)
+        throws IOException;
+  }
+
+  /**
+   * Converts the parse trees of the given modules back to JS code. Up to
+   * {@link CompilerOptions#moduleOutputThreadCount} modules are printed at
+   * once, each with its own source map. The modules are handed to
+   * {@code consumer} on the compiler thread in the given order, each as soon
+   * as it and the modules before it are printed. A module is only printed
+   * once fewer than that many modules are waiting to be handed over, so the
+   * printed code held at any time is bounded by the thread count.
+   */
+  public void toSource(
+      final List<JSModule> modules, final ModuleSourceConsumer consumer)
+      throws IOException {
+    try {
+      runInCompilerThread(new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          int threadCount =
+              Math.min(options.moduleOutputThreadCount, modules.size());
+          if (threadCount <= 1) {
+            for (JSModule module : modules) {
+              SourceMap moduleSourceMap = createSourceMap();
+              consumer.accept(module, toSource(module, moduleSourceMap),
+                  moduleSourceMap);
+            }
+            return null;
+          }
+
+          // Indexed by module; the entries are cleared once handed over.
+          List<SourceMap> sourceMaps = new ArrayList<>(modules.size());
+          List<Future<String>> codes = new ArrayList<>(modules.size());
+          ExecutorService executor =
+              newWorkerPool("jscompiler-codegen", threadCount);
+          try {
+            for (int i = 0; i < modules.size(); i++) {
+              while (codes.size() < modules.size()
+                  && codes.size() - i < threadCount) {
+                final JSModule module = modules.get(codes.size());
+                final SourceMap moduleSourceMap = createSourceMap();
+                sourceMaps.add(moduleSourceMap);
+                codes.add(executor.submit(new Callable<String>() {
+                  @Override
+                  public String call() throws IOException {
+                    return toSource(module, moduleSourceMap);
+                  }
+                }));
+              }
+              String code;
+              try {
+                code = codes.set(i, null).get();
+              } catch (ExecutionException e) {
+                throw Throwables.propagate(e.getCause());
+              }
+              consumer.accept(modules.get(i), code, sourceMaps.set(i, null));
+            }
+          } finally {
+            executor.shutdownNow();
+          }
+          return null;
+        }
+      });
+    } catch (RuntimeException e) {
+      Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+      throw e;
+    }
+  }
+
+  /** Returns a new source map, or null if no source maps are generated. */
+  @Nullable
+  private SourceMap createSourceMap() {
+    if (options.sourceMapOutputPath == null) {
+      return null;
+    }
+    SourceMap sourceMap = options.sourceMapFormat.getInstance();
+    sourceMap.setPrefixMappings(options.sourceMapLocationMappings);
+    return sourceMap;
+  }
+
 
   /**
    * Converts the parse tree for each input in a module back to JS code.
@@ -1798,64 +2018,69 @@ public class Compiler extends AbstractCompiler {
     runInCompilerThread(new Callable<Void>() {
       @Override
       public Void call() throws Exception {
-        if (options.printInputDelimiter) {
-          if ((cb.getLength() > 0) && !cb.endsWith("\n")) {
-            cb.append("\n");  // Make sure that the label starts on a new line
-          }
-          Preconditions.checkState(root.isScript());
+        toSource(cb, inputSeqNum, root, sourceMap);
+        return null;
+      }
+    });
+  }
 
-          String delimiter = options.inputDelimiter;
+  private void toSource(
+      CodeBuilder cb, int inputSeqNum, Node root, SourceMap sourceMap)
+      throws IOException {
+    if (options.printInputDelimiter) {
+      if ((cb.getLength() > 0) && !cb.endsWith("\n")) {
+        cb.append("\n");  // Make sure that the label starts on a new line
+      }
+      Preconditions.checkState(root.isScript());
 
-          String inputName = root.getInputId().getIdName();
-          String sourceName = root.getSourceFileName();
-          Preconditions.checkState(sourceName != null);
-          Preconditions.checkState(!sourceName.isEmpty());
+      String delimiter = options.inputDelimiter;
 
-          delimiter = delimiter
-              .replaceAll("%name%", Matcher.quoteReplacement(inputName))
-              .replaceAll("%num%", String.valueOf(inputSeqNum));
+      String inputName = root.getInputId().getIdName();
+      String sourceName = root.getSourceFileName();
+      Preconditions.checkState(sourceName != null);
+      Preconditions.checkState(!sourceName.isEmpty());
 
-          cb.append(delimiter)
-            .append("\n");
-        }
-        if (root.getJSDocInfo() != null) {
-          String license = root.getJSDocInfo().getLicense();
-          if (license != null && cb.addLicense(license)) {
-            cb.append("/*\n")
-              .append(license)
-              .append("*/\n");
-          }
-        }
+      delimiter = delimiter
+          .replaceAll("%name%", Matcher.quoteReplacement(inputName))
+          .replaceAll("%num%", String.valueOf(inputSeqNum));
 
-        // If there is a valid source map, then indicate to it that the current
-        // root node's mappings are offset by the given string builder buffer.
-        if (options.sourceMapOutputPath != null) {
-          sourceMap.setStartingPosition(
-              cb.getLineIndex(), cb.getColumnIndex());
-        }
+      cb.append(delimiter)
+        .append("\n");
+    }
+    if (root.getJSDocInfo() != null) {
+      String license = root.getJSDocInfo().getLicense();
+      if (license != null && cb.addLicense(license)) {
+        cb.append("/*\n")
+          .append(license)
+          .append("*/\n");
+      }
+    }
 
-        // if LanguageMode is strict, only print 'use strict'
-        // for the first input file
-        String code = toSource(root, sourceMap, inputSeqNum == 0);
-        if (!code.isEmpty()) {
-          cb.append(code);
-
-          // In order to avoid parse ambiguity when files are concatenated
-          // together, all files should end in a semi-colon. Do a quick
-          // heuristic check if there's an obvious semi-colon already there.
-          int length = code.length();
-          char lastChar = code.charAt(length - 1);
-          char secondLastChar = length >= 2 ?
-              code.charAt(length - 2) : '\0';
-          boolean hasSemiColon = lastChar == ';' ||
-              (lastChar == '\n' && secondLastChar == ';');
-          if (!hasSemiColon) {
-            cb.append(";");
-          }
-        }
-        return null;
+    // If there is a valid source map, then indicate to it that the current
+    // root node's mappings are offset by the given string builder buffer.
+    if (options.sourceMapOutputPath != null) {
+      sourceMap.setStartingPosition(
+          cb.getLineIndex(), cb.getColumnIndex());
+    }
+
+    // if LanguageMode is strict, only print 'use strict'
+    // for the first input file
+    int start = cb.getLength();
+    newCodePrinter(root, sourceMap, inputSeqNum == 0).build(cb);
+    int length = cb.getLength() - start;
+    if (length > 0) {
+      // In order to avoid parse ambiguity when files are concatenated
+      // together, all files should end in a semi-colon. Do a quick
+      // heuristic check if there's an obvious semi-colon already there.
+      char lastChar = cb.charAt(cb.getLength() - 1);
+      char secondLastChar = length >= 2 ?
+          cb.charAt(cb.getLength() - 2) : '\0';
+      boolean hasSemiColon = lastChar == ';' ||
+          (lastChar == '\n' && secondLastChar == ';');
+      if (!hasSemiColon) {
+        cb.append(";");
       }
-    });
+    }
   }
 
   /**
@@ -1872,28 +2097,95 @@ public class Compiler extends AbstractCompiler {
    * Generates JavaScript source code for an AST.
    */
   private String toSource(Node n, SourceMap sourceMap, boolean firstOutput) {
+    return newCodePrinter(n, sourceMap, firstOutput).build();
+  }
+
+  private CodePrinter.Builder newCodePrinter(
+      Node n, SourceMap sourceMap, boolean firstOutput) {
     CodePrinter.Builder builder = new CodePrinter.Builder(n);
     builder.setCompilerOptions(options);
     builder.setSourceMap(sourceMap);
     builder.setTagAsStrict(firstOutput && options.getLanguageOut().isStrict());
-    return builder.build();
+    return builder;
   }
 
   /**
    * Stores a buffer of text to which more can be appended.  This is just like a
    * StringBuilder except that we also track the number of lines.
-   */
-  public static class CodeBuilder {
+   *
+   * <p>A builder created with an Appendable writes its text to it in chunks as
+   * the text grows, and only keeps the text that was not written yet. The
+   * text appended through the {@link Appendable} methods is written out,
+   * and so is the text appended with {@link #append(String)} once more is
+   * appended through them or the builder is flushed.
+   */
+  public static class CodeBuilder implements Appendable {
+    // The number of characters after which the text is written out.
+    private static final int FLUSH_THRESHOLD = 8192;
+    // The number of characters kept when the text is written out, so that
+    // the end of the text can still be inspected.
+    private static final int KEPT_LENGTH = 16;
+
+    @Nullable private final Appendable out;
     private final StringBuilder sb = new StringBuilder();
+    private int flushedLength = 0;
     private int lineCount = 0;
     private int colCount = 0;
     private final Set<String> uniqueLicenses = new HashSet<>();
 
+    public CodeBuilder() {
+      this(null);
+    }
+
+    CodeBuilder(@Nullable Appendable out) {
+      this.out = out;
+    }
+
     /** Removes all text, but leaves the line count unchanged. */
     void reset() {
+      Preconditions.checkState(out == null);
       sb.setLength(0);
     }
 
+    @Override
+    public CodeBuilder append(CharSequence csq) throws IOException {
+      return append(csq, 0, csq.length());
+    }
+
+    @Override
+    public CodeBuilder append(CharSequence csq, int start, int end)
+        throws IOException {
+      append(csq.subSequence(start, end).toString());
+      maybeFlush();
+      return this;
+    }
+
+    @Override
+    public CodeBuilder append(char c) throws IOException {
+      append(String.valueOf(c));
+      maybeFlush();
+      return this;
+    }
+
+    private void maybeFlush() throws IOException {
+      if (out != null && sb.length() >= FLUSH_THRESHOLD + KEPT_LENGTH) {
+        write(sb.length() - KEPT_LENGTH);
+      }
+    }
+
+    /** Writes out all of the text that was not written yet. */
+    void flush() throws IOException {
+      if (out != null) {
+        write(sb.length());
+      }
+    }
+
+    private void write(int end) throws IOException {
+      out.append(sb, 0, end);
+      sb.delete(0, end);
+      flushedLength += end;
+    }
+
     /** Appends the given string to the text buffer. */
     CodeBuilder append(String str) {
       sb.append(str);
@@ -1916,7 +2208,7 @@ public class Compiler extends AbstractCompiler {
       return this;
     }
 
-    /** Returns all text in the text buffer. */
+    /** Returns all text in the text buffer that was not written out. */
     @Override
     public String toString() {
       return sb.toString();
@@ -1924,7 +2216,15 @@ public class Compiler extends AbstractCompiler {
 
     /** Returns the length of the text buffer. */
     public int getLength() {
-      return sb.length();
+      return flushedLength + sb.length();
+    }
+
+    /**
+     * Returns the character at the given index, which must be among the last
+     * few characters if the text is written out.
+     */
+    char charAt(int index) {
+      return sb.charAt(index - flushedLength);
     }
 
     /** Returns the (zero-based) index of the last line in the text buffer. */
@@ -1939,7 +2239,7 @@ public class Compiler extends AbstractCompiler {
 
     /** Determines whether the text ends with the given suffix. */
     boolean endsWith(String suffix) {
-      return (sb.length() > suffix.length())
+      return (getLength() > suffix.length())
           && suffix.equals(sb.substring(sb.length() - suffix.length()));
     }
 
@@ -1949,27 +2249,183 @@ public class Compiler extends AbstractCompiler {
     }
   }
 
+  //------------------------------------------------------------------------
+  // Saving and restoring state
+  //------------------------------------------------------------------------
+
+  /**
+   * Writes the state of this compilation to the given stream, so that another
+   * compiler can continue it after {@link #restoreState}. This is typically
+   * done after {@link #check}, to run one or more optimization configurations
+   * without running the checks again.
+   *
+   * <p>The state includes the ASTs, the inputs and module graph, the type
+   * registry and the state collected by the passes so far. Scopes are not
+   * saved; the passes that need them recompute them.
+   */
+  public void saveState(final OutputStream outputStream) throws IOException {
+    Preconditions.checkState(jsRoot != null, "There is no state to save");
+    try {
+      runInCompilerThread(new Callable<Void>() {
+        @Override
+        public Void call() throws IOException {
+          // Serializing the types and ASTs recurses deeply, so this must run
+          // on the compiler thread with its larger stack.
+          ObjectOutputStream out = new ObjectOutputStream(outputStream);
+          out.writeObject(new CompilerState(Compiler.this));
+          out.flush();
+          return null;
+        }
+      });
+    } catch (RuntimeException e) {
+      Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+      throw e;
+    }
+  }
+
+  /**
+   * Replaces the state of this compiler with one written by
+   * {@link #saveState}. The options must already have been set with
+   * {@link #initOptions}; they do not need to match the ones of the compiler
+   * that saved the state, which allows running different optimizations from
+   * the same checked state.
+   */
+  public void restoreState(final InputStream inputStream)
+      throws IOException, ClassNotFoundException {
+    Preconditions.checkState(options != null, "initOptions was not called");
+    Preconditions.checkState(jsRoot == null, "The compiler was already used");
+    CompilerState state;
+    try {
+      state = runInCompilerThread(new Callable<CompilerState>() {
+        @Override
+        public CompilerState call()
+            throws IOException, ClassNotFoundException {
+          ObjectInputStream in = new ObjectInputStream(inputStream);
+          return (CompilerState) in.readObject();
+        }
+      });
+    } catch (RuntimeException e) {
+      Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+      Throwables.propagateIfInstanceOf(
+          e.getCause(), ClassNotFoundException.class);
+      throw e;
+    }
+
+    externsRoot = state.externsRoot;
+    jsRoot = state.jsRoot;
+    externAndJsRoot = state.externAndJsRoot;
+    externs = state.externs;
+    inputs = state.inputs;
+    modules = state.modules;
+    moduleGraph = state.moduleGraph;
+    synthesizedExternsInput = state.synthesizedExternsInput;
+    injectedLibraries.clear();
+    injectedLibraries.putAll(state.injectedLibraries);
+    typeRegistry = state.typeRegistry;
+    if (typeRegistry != null) {
+      typeRegistry.setErrorReporter(oldErrorReporter);
+    }
+    if (tracker != null) {
+      tracker.setTypeRegistry(typeRegistry);
+    }
+    defaultDefineValues = state.defaultDefineValues;
+    externProperties = state.externProperties;
+    hasRegExpGlobalReferences = state.hasRegExpGlobalReferences;
+    languageMode = state.languageMode;
+    uniqueNameId = state.uniqueNameId;
+    setLifeCycleStage(state.lifeCycleStage);
+    getPassConfig().setIntermediateState(state.passConfigState);
+
+    initBasedOnOptions();
+    initInputsByIdMap();
+  }
+
+  /** The part of a compiler's state that is written by {@link #saveState}. */
+  private static final class CompilerState implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final Node externsRoot;
+    private final Node jsRoot;
+    private final Node externAndJsRoot;
+    private final List<CompilerInput> externs;
+    private final List<CompilerInput> inputs;
+    private final List<JSModule> modules;
+    private final JSModuleGraph moduleGraph;
+    private final CompilerInput synthesizedExternsInput;
+    private final Map<String, Node> injectedLibraries;
+    private final JSTypeRegistry typeRegistry;
+    private final ImmutableMap<String, Node> defaultDefineValues;
+    private final Set<String> externProperties;
+    private final boolean hasRegExpGlobalReferences;
+    private final CompilerOptions.LanguageMode languageMode;
+    private final int uniqueNameId;
+    private final LifeCycleStage lifeCycleStage;
+    private final PassConfig.State passConfigState;
+
+    CompilerState(Compiler compiler) {
+      this.externsRoot = compiler.externsRoot;
+      this.jsRoot = compiler.jsRoot;
+      this.externAndJsRoot = compiler.externAndJsRoot;
+      this.externs = compiler.externs;
+      this.inputs = compiler.inputs;
+      this.modules = compiler.modules;
+      this.moduleGraph = compiler.moduleGraph;
+      this.synthesizedExternsInput = compiler.synthesizedExternsInput;
+      this.injectedLibraries = new LinkedHashMap<>(compiler.injectedLibraries);
+      this.typeRegistry = compiler.typeRegistry;
+      this.defaultDefineValues = compiler.defaultDefineValues;
+      this.externProperties = compiler.externProperties;
+      this.hasRegExpGlobalReferences = compiler.hasRegExpGlobalReferences;
+      this.languageMode = compiler.languageMode;
+      this.uniqueNameId = compiler.uniqueNameId;
+      this.lifeCycleStage = compiler.getLifeCycleStage();
+      this.passConfigState = compiler.getPassConfig().getIntermediateState();
+    }
+  }
+
   //------------------------------------------------------------------------
   // Optimizations
   //------------------------------------------------------------------------
 
   public void optimize() {
+    runOptimizations(null);
+  }
+
+  /**
+   * Runs the optimizations, skipping the ones that come before the pass with
+   * the given name. This is meant for continuing a compilation whose state
+   * was restored with {@link #restoreState}.
+   *
+   * @throws IllegalArgumentException if there is no optimization pass with
+   *     the given name
+   */
+  public void optimizeFrom(String passName) {
+    Preconditions.checkNotNull(passName);
+    runOptimizations(passName);
+  }
+
+  private void runOptimizations(String resumePassName) {
     List<PassFactory> optimizations = getPassConfig().getOptimizations();
     if (optimizations.isEmpty()) {
       return;
     }
 
-    // Ideally, this pass should be the first pass run, however:
-    // 1) VariableReferenceCheck reports unexpected warnings if Normalize
-    // is done first.
-    // 2) ReplaceMessages, stripCode, and potentially custom passes rely on
-    // unmodified local names.
-    normalize();
-
-    // Create extern exports after the normalize because externExports depends on unique names.
-    if (options.isExternExportsEnabled()
-        || options.externExportsPath != null) {
-      externExports();
+    // A state saved part way through the optimizations was already
+    // normalized, and its extern exports were already created.
+    if (resumePassName == null || !getLifeCycleStage().isNormalized()) {
+      // Ideally, this pass should be the first pass run, however:
+      // 1) VariableReferenceCheck reports unexpected warnings if Normalize
+      // is done first.
+      // 2) ReplaceMessages, stripCode, and potentially custom passes rely on
+      // unmodified local names.
+      normalize();
+
+      // Create extern exports after the normalize because externExports
+      // depends on unique names.
+      if (options.isExternExportsEnabled()
+          || options.externExportsPath != null) {
+        externExports();
+      }
     }
 
     phaseOptimizer = new PhaseOptimizer(this, tracker, null);
@@ -1980,6 +2436,9 @@ public class Compiler extends AbstractCompiler {
       phaseOptimizer.setPrintAstHashcodes(true);
     }
     phaseOptimizer.consume(optimizations);
+    if (resumePassName != null) {
+      phaseOptimizer.resumeAt(resumePassName);
+    }
     phaseOptimizer.process(externsRoot, jsRoot);
     phaseOptimizer = null;
   }
@@ -2068,6 +2527,14 @@ public class Compiler extends AbstractCompiler {
     return phaseOptimizer.hasScopeChanged(n);
   }
 
+  @Override
+  List<Node> getChangedScopeRoots() {
+    if (!analyzeChangedScopesOnly || phaseOptimizer == null) {
+      return null;
+    }
+    return phaseOptimizer.getChangedScopeRoots();
+  }
+
   @Override
   void reportChangeToEnclosingScope(Node n) {
     if (phaseOptimizer != null) {
@@ -2166,6 +2633,22 @@ public class Compiler extends AbstractCompiler {
     }
   }
 
+  @Override
+  AstCache getAstCache() {
+    // Comments and JSDoc documentation are not cached.
+    if (astCache == null && options.astCacheDirectory != null
+        && !isIdeMode() && !options.isParseJsDocDocumentation()) {
+      astCache = new AstCache(new File(options.astCacheDirectory));
+    }
+    return astCache;
+  }
+
+  @Override
+  ExternsSnapshot getExternsSnapshot() {
+    // Like the AST cache, the snapshot does not keep comments.
+    return isIdeMode() ? null : options.externsSnapshot;
+  }
+
   protected Config createConfig(Config.LanguageMode mode) {
     return ParserRunner.createConfig(
         isIdeMode(),
@@ -2378,6 +2861,13 @@ public class Compiler extends AbstractCompiler {
     return options;
   }
 
+  @Override
+  void recordDataFlowSteps(String analysis, @Nullable Node root, int steps) {
+    if (tracker != null) {
+      tracker.recordDataFlowSteps(analysis, root, steps);
+    }
+  }
+
   FunctionInformationMap getFunctionalInformationMap() {
     return functionInformationMap;
   }
@@ -124,6 +124,11 @@ public class CompilerInput implements SourceAst, DependencyInfo {
     ast.clearAst();
   }
 
+  /** Returns the SourceAst object on which this input is based. */
+  SourceAst getSourceAst() {
+    return ast;
+  }
+
   @Override
   public SourceFile getSourceFile() {
     return ast.getSourceFile();
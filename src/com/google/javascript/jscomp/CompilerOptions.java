@@ -109,6 +109,77 @@ public class CompilerOptions implements Serializable {
     inferConsts = value;
   }
 
+  /**
+   * The number of threads used to parse the inputs before their ASTs are
+   * assembled. A value of 1 or less parses each input serially.
+   */
+  int parseThreadCount = 1;
+
+  public void setParseThreadCount(int parseThreadCount) {
+    this.parseThreadCount = parseThreadCount;
+  }
+
+  /**
+   * The number of threads used by the new type inference. A value of 1 or
+   * less runs it on the compiler thread only.
+   */
+  int typeInferenceThreadCount = 1;
+
+  public void setTypeInferenceThreadCount(int typeInferenceThreadCount) {
+    this.typeInferenceThreadCount = typeInferenceThreadCount;
+  }
+
+  /**
+   * The number of threads used by the peephole optimizations to optimize
+   * changed functions. A value of 1 or less runs them on the compiler thread
+   * only.
+   */
+  int peepholeThreadCount = 1;
+
+  public void setPeepholeThreadCount(int peepholeThreadCount) {
+    this.peepholeThreadCount = peepholeThreadCount;
+  }
+
+  /**
+   * The number of modules whose code and source maps are generated at once.
+   * A value of 1 or less generates them on the compiler thread only.
+   */
+  int moduleOutputThreadCount = 1;
+
+  public void setModuleOutputThreadCount(int moduleOutputThreadCount) {
+    this.moduleOutputThreadCount = moduleOutputThreadCount;
+  }
+
+  /**
+   * The order in which the data flow analyses visit the nodes of a control
+   * flow graph.
+   */
+  DataFlowOrder dataFlowOrder = DataFlowOrder.PRIORITY;
+
+  public void setDataFlowOrder(DataFlowOrder dataFlowOrder) {
+    this.dataFlowOrder = dataFlowOrder;
+  }
+
+  /**
+   * A directory in which parsed ASTs are cached across compilations, keyed
+   * by the content of each file. Null disables the cache.
+   */
+  String astCacheDirectory = null;
+
+  public void setAstCacheDirectory(String astCacheDirectory) {
+    this.astCacheDirectory = astCacheDirectory;
+  }
+
+  /**
+   * Parsed externs shared with other compilations, or null if the externs
+   * are parsed by each compilation.
+   */
+  transient ExternsSnapshot externsSnapshot = null;
+
+  public void setExternsSnapshot(ExternsSnapshot externsSnapshot) {
+    this.externsSnapshot = externsSnapshot;
+  }
+
   /**
    * Whether the compiler should assume that a function's "this" value
    * never needs coercion (for example in non-strict "null" or "undefined" will
@@ -849,6 +920,24 @@ public class CompilerOptions implements Serializable {
     this.tracer = mode;
   }
 
+  TracerOutputFormat tracerOutputFormat;
+
+  public TracerOutputFormat getTracerOutputFormat() {
+    return tracerOutputFormat;
+  }
+
+  /** Sets the format of the tracer report. */
+  public void setTracerOutputFormat(TracerOutputFormat format) {
+    this.tracerOutputFormat = format;
+  }
+
+  /** Where to write the tracer report, instead of the error stream */
+  String tracerOutputFile;
+
+  public void setTracerOutputFile(String tracerOutputFile) {
+    this.tracerOutputFile = tracerOutputFile;
+  }
+
   private boolean colorizeErrorOutput;
 
   public ErrorFormat errorFormat;
@@ -1093,6 +1182,8 @@ public class CompilerOptions implements Serializable {
     preferLineBreakAtEndOfFile = false;
     reportPath = null;
     tracer = TracerMode.OFF;
+    tracerOutputFormat = TracerOutputFormat.TEXT;
+    tracerOutputFile = null;
     colorizeErrorOutput = false;
     errorFormat = ErrorFormat.SINGLELINE;
     debugFunctionSideEffectsPath = null;
@@ -2439,6 +2530,20 @@ public class CompilerOptions implements Serializable {
     }
   }
 
+  /** How to format the tracer report */
+  public static enum TracerOutputFormat {
+    TEXT,  // A table meant for people.
+    JSON,  // A JSON object with the totals, the summary and the log.
+    PROMETHEUS;  // The summary in the Prometheus text exposition format.
+  }
+
+  /** The order in which the data flow analyses visit the nodes */
+  public static enum DataFlowOrder {
+    PRIORITY,  // The priorities of the control flow graph, in AST order.
+    // Reverse postorder, one strongly connected component at a time.
+    STRONGLY_CONNECTED_COMPONENTS;
+  }
+
   /** Option for the ProcessTweaks pass */
   public static enum TweakProcessing {
     OFF,  // Do not run the ProcessTweaks pass.
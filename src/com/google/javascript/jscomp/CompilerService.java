@@ -0,0 +1,130 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs many compilations at once in one process, for build servers that
+ * would otherwise start a JVM per compilation.
+ *
+ * <p>Each compilation runs on one of the service's threads, which have the
+ * enlarged stack of the compiler thread, so the compiler does not start
+ * threads of its own. The service bounds the memory its compilations use by
+ * bounding the total size of the source code they compile at once: a
+ * compilation waits until the code of the running ones leaves room for its
+ * own. A compilation whose code alone exceeds the limit runs when it has
+ * the service to itself.
+ *
+ * <p>Compilations that use the new type inference run one at a time, because
+ * its types keep the Object type of the current compilation in a static
+ * field.
+ */
+public final class CompilerService {
+
+  private final ExecutorService executor;
+  private final int maxSourceSize;
+  private final Semaphore sourceSizeBudget;
+  private final Lock newTypeInferenceLock = new ReentrantLock();
+
+  /**
+   * @param threadCount The number of compilations that may run at once.
+   * @param maxSourceSize The total number of characters of externs and
+   *     sources that the running compilations may compile. Files whose code
+   *     is not in memory are counted by their length in bytes, so that they
+   *     are not read just to be measured.
+   */
+  public CompilerService(int threadCount, int maxSourceSize) {
+    Preconditions.checkArgument(threadCount > 0);
+    Preconditions.checkArgument(maxSourceSize > 0);
+    this.executor = Compiler.newWorkerPool("jscompiler-service", threadCount);
+    this.maxSourceSize = maxSourceSize;
+    // Fair, so that a large compilation is not overtaken forever by
+    // small ones.
+    this.sourceSizeBudget = new Semaphore(maxSourceSize, true);
+  }
+
+  /**
+   * Compiles the inputs with the given compiler, which must not have been
+   * used yet, once there is room for them. When the returned future is done,
+   * the compiler may be used to get the generated code and any other output
+   * from the thread that waited for it.
+   */
+  public <T1 extends SourceFile, T2 extends SourceFile> Future<Result> compile(
+      final Compiler compiler, final List<T1> externs, final List<T2> inputs,
+      final CompilerOptions options) {
+    compiler.disableThreads();
+    return executor.submit(new Callable<Result>() {
+      @Override
+      public Result call() throws InterruptedException {
+        if (!options.getNewTypeInference()) {
+          return compileWithinBudget(compiler, externs, inputs, options);
+        }
+        // The lock is taken first, so that the compilations waiting for it
+        // do not hold any of the budget that others could run with.
+        newTypeInferenceLock.lockInterruptibly();
+        try {
+          return compileWithinBudget(compiler, externs, inputs, options);
+        } finally {
+          newTypeInferenceLock.unlock();
+        }
+      }
+    });
+  }
+
+  private <T1 extends SourceFile, T2 extends SourceFile>
+      Result compileWithinBudget(Compiler compiler, List<T1> externs,
+          List<T2> inputs, CompilerOptions options)
+      throws InterruptedException {
+    int size = (int) Math.min(
+        getSourceSize(externs) + getSourceSize(inputs), maxSourceSize);
+    sourceSizeBudget.acquire(size);
+    try {
+      return compiler.compile(externs, inputs, options);
+    } finally {
+      sourceSizeBudget.release(size);
+    }
+  }
+
+  /**
+   * Lets the compilations already submitted finish, but accepts no more.
+   */
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  private static long getSourceSize(List<? extends SourceFile> files) {
+    long size = 0;
+    for (SourceFile file : files) {
+      try {
+        size += file.getSizeHint();
+      } catch (IOException e) {
+        // The compilation reports the file as unreadable.
+      }
+    }
+    return size;
+  }
+}
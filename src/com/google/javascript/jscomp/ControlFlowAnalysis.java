@@ -26,6 +26,7 @@ import com.google.javascript.rhino.Node;
 import com.google.javascript.rhino.Token;
 
 import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Deque;
 import java.util.HashMap;
@@ -56,13 +57,10 @@ final class ControlFlowAnalysis implements Callback, CompilerPass {
 
   private final AbstractCompiler compiler;
 
-  private ControlFlowGraph<Node> cfg;
+  private AstControlFlowGraph cfg;
 
   private Map<Node, Integer> astPosition;
 
-  // TODO(nicksantos): should these be node annotations?
-  private Map<DiGraphNode<Node, Branch>, Integer> nodePriorities;
-
   // We order CFG nodes by by looking at the AST positions.
   // CFG nodes that come first lexically should be visited first, because
   // they will often be executed first in the source program.
@@ -149,9 +147,7 @@ final class ControlFlowAnalysis implements Callback, CompilerPass {
     this.root = root;
     astPositionCounter = 0;
     astPosition = new HashMap<>();
-    nodePriorities = new HashMap<>();
-    cfg = new AstControlFlowGraph(computeFallThrough(root), nodePriorities,
-                                  edgeAnnotations);
+    cfg = new AstControlFlowGraph(computeFallThrough(root), edgeAnnotations);
     NodeTraversal.traverse(compiler, root, this);
     astPosition.put(null, ++astPositionCounter); // the implicit return is last.
 
@@ -168,7 +164,7 @@ final class ControlFlowAnalysis implements Callback, CompilerPass {
         Node value = candidate.getValue();
         if (value != null && value.isFunction()) {
           Preconditions.checkState(
-              !nodePriorities.containsKey(candidate) || candidate == entry);
+              !cfg.hasPriority(candidate) || candidate == entry);
           prioritizeFromEntryNode(candidate);
         }
       }
@@ -179,13 +175,13 @@ final class ControlFlowAnalysis implements Callback, CompilerPass {
     // Presumably, it doesn't really matter what priority they get, since
     // this shouldn't happen in real code.
     for (DiGraphNode<Node, Branch> candidate : cfg.getDirectedGraphNodes()) {
-      if (!nodePriorities.containsKey(candidate)) {
-        nodePriorities.put(candidate, ++priorityCounter);
+      if (!cfg.hasPriority(candidate)) {
+        cfg.setPriority(candidate, ++priorityCounter);
       }
     }
 
     // Again, the implicit return node is always last.
-    nodePriorities.put(cfg.getImplicitReturn(), ++priorityCounter);
+    cfg.setPriority(cfg.getImplicitReturn(), ++priorityCounter);
   }
 
   /**
@@ -199,11 +195,11 @@ final class ControlFlowAnalysis implements Callback, CompilerPass {
 
     while (!worklist.isEmpty()) {
       DiGraphNode<Node, Branch> current = worklist.remove();
-      if (nodePriorities.containsKey(current)) {
+      if (cfg.hasPriority(current)) {
         continue;
       }
 
-      nodePriorities.put(current, ++priorityCounter);
+      cfg.setPriority(current, ++priorityCounter);
 
       List<DiGraphNode<Node, Branch>> successors =
           cfg.getDirectedSuccNodes(current);
@@ -821,9 +817,8 @@ final class ControlFlowAnalysis implements Callback, CompilerPass {
    */
   private void createEdge(Node fromNode, ControlFlowGraph.Branch branch,
       Node toNode) {
-    cfg.createNode(fromNode);
-    cfg.createNode(toNode);
-    cfg.connectIfNotFound(fromNode, branch, toNode);
+    cfg.connectIfNotFound(cfg.createDirectedGraphNode(fromNode), branch,
+        cfg.createDirectedGraphNode(toNode));
   }
 
   /**
@@ -1021,20 +1016,19 @@ final class ControlFlowAnalysis implements Callback, CompilerPass {
    * pre-order traversal of the AST.
    */
   private static class AstControlFlowGraph extends ControlFlowGraph<Node> {
-    private final Map<DiGraphNode<Node, Branch>, Integer> priorities;
+    /**
+     * The priority of each node, by node index, or zero if it has none yet
+     * (filled by {@link ControlFlowAnalysis#process}).
+     */
+    private int[] priorities = new int[0];
 
     /**
      * Constructor.
      * @param entry The entry node.
-     * @param priorities The map from nodes to position in the AST (to be
-     *    filled by the {@link ControlFlowAnalysis#shouldTraverse}).
      */
-    private AstControlFlowGraph(Node entry,
-        Map<DiGraphNode<Node, Branch>, Integer> priorities,
-        boolean edgeAnnotations) {
+    private AstControlFlowGraph(Node entry, boolean edgeAnnotations) {
       super(entry,
           true /* node annotations */, edgeAnnotations);
-      this.priorities = priorities;
     }
 
     @Override
@@ -1069,9 +1063,21 @@ final class ControlFlowAnalysis implements Callback, CompilerPass {
      * @return An arbitrary counter used for comparing positions.
      */
     private int getPosition(DiGraphNode<Node, Branch> n) {
-      Integer priority = priorities.get(n);
-      Preconditions.checkNotNull(priority);
-      return priority;
+      Preconditions.checkState(hasPriority(n));
+      return priorities[getNodeIndex(n)];
+    }
+
+    private boolean hasPriority(DiGraphNode<Node, Branch> n) {
+      int index = getNodeIndex(n);
+      return index < priorities.length && priorities[index] != 0;
+    }
+
+    private void setPriority(DiGraphNode<Node, Branch> n, int priority) {
+      int index = getNodeIndex(n);
+      if (index >= priorities.length) {
+        priorities = Arrays.copyOf(priorities, getNodes().size());
+      }
+      priorities[index] = priority;
     }
   }
 }
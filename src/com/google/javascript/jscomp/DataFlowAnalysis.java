@@ -18,6 +18,8 @@ package com.google.javascript.jscomp;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.javascript.jscomp.CompilerOptions.DataFlowOrder;
 import com.google.javascript.jscomp.ControlFlowGraph.Branch;
 import com.google.javascript.jscomp.NodeTraversal.AbstractPostOrderCallback;
 import com.google.javascript.jscomp.graph.Annotation;
@@ -26,10 +28,14 @@ import com.google.javascript.jscomp.graph.LatticeElement;
 import com.google.javascript.rhino.Node;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
@@ -78,6 +84,10 @@ import java.util.TreeSet;
  * represents maximum fixed point solution. Any previous annotations at the
  * nodes of the control flow graph will be lost.
  *
+ * <p>Analyses whose lattice elements can be updated in place should extend
+ * {@link InPlaceDataFlowAnalysis}, which does not allocate new elements for
+ * every join and flow function.
+ *
  *
  * @param <N> The control flow graph's node value type.
  * @param <L> Lattice element type.
@@ -87,6 +97,10 @@ abstract class DataFlowAnalysis<N, L extends LatticeElement> {
   private final ControlFlowGraph<N> cfg;
   final JoinOp<L> joinOp;
   protected final Set<DiGraphNode<N, Branch>> orderedWorkSet;
+  private DataFlowOrder order = DataFlowOrder.PRIORITY;
+
+  /** The number of steps the last call to {@link #analyze(int)} took. */
+  private int stepCount;
 
   /*
    * Feel free to increase this to a reasonable number if you are finding that
@@ -139,6 +153,25 @@ abstract class DataFlowAnalysis<N, L extends LatticeElement> {
     return cfg;
   }
 
+  /**
+   * Sets the order in which {@link #analyze(int)} visits the nodes.
+   * {@link DataFlowOrder#PRIORITY} follows the graph's optional node
+   * comparator, and {@link DataFlowOrder#STRONGLY_CONNECTED_COMPONENTS}
+   * finds the fixed point of each strongly connected component of the graph
+   * in turn, in reverse postorder.
+   */
+  final void setOrder(DataFlowOrder order) {
+    this.order = Preconditions.checkNotNull(order);
+  }
+
+  /**
+   * Returns the number of nodes the last analysis flowed through, counting a
+   * node once per visit.
+   */
+  final int getStepCount() {
+    return stepCount;
+  }
+
   /**
    * Returns the lattice element at the exit point.
    */
@@ -180,6 +213,24 @@ abstract class DataFlowAnalysis<N, L extends LatticeElement> {
     analyze(MAX_STEPS);
   }
 
+  /**
+   * Finds a fixed-point solution using at most {@link #MAX_STEPS}
+   * iterations, in the order selected by the compiler's options, and reports
+   * the number of steps it took to the compiler.
+   *
+   * @see #analyze(int)
+   */
+  final void analyze(AbstractCompiler compiler) {
+    setOrder(compiler.getOptions().dataFlowOrder);
+    try {
+      analyze(MAX_STEPS);
+    } finally {
+      N entry = cfg.getEntry().getValue();
+      compiler.recordDataFlowSteps(getClass().getSimpleName(),
+          entry instanceof Node ? (Node) entry : null, stepCount);
+    }
+  }
+
   /**
    * Finds a fixed-point solution. The function has the side effect of replacing
    * the existing node annotations with the computed solutions using {@link
@@ -200,12 +251,21 @@ abstract class DataFlowAnalysis<N, L extends LatticeElement> {
    */
   final void analyze(int maxSteps) {
     initialize();
-    int step = 0;
+    stepCount = 0;
+    if (order == DataFlowOrder.STRONGLY_CONNECTED_COMPONENTS) {
+      orderedWorkSet.clear();
+      analyzeByComponent(maxSteps);
+    } else {
+      analyzeByPriority(maxSteps);
+    }
+    if (isForward()) {
+      joinInputs(getCfg().getImplicitReturn());
+    }
+  }
+
+  private void analyzeByPriority(int maxSteps) {
     while (!orderedWorkSet.isEmpty()) {
-      if (step > maxSteps) {
-        throw new MaxIterationsExceededException(
-          "Analysis did not terminate after " + maxSteps + " iterations");
-      }
+      checkStepCount(maxSteps);
       DiGraphNode<N, Branch> curNode = orderedWorkSet.iterator().next();
       orderedWorkSet.remove(curNode);
       joinInputs(curNode);
@@ -221,10 +281,48 @@ abstract class DataFlowAnalysis<N, L extends LatticeElement> {
           }
         }
       }
-      step++;
+      stepCount++;
     }
-    if (isForward()) {
-      joinInputs(getCfg().getImplicitReturn());
+  }
+
+  /**
+   * Finds the fixed point of each strongly connected component of the graph
+   * in the order of the flow, so that a component is only visited once the
+   * components that flow into it are stable. Within a component, the next
+   * node visited is the first pending one in reverse postorder, and a change
+   * only puts back the nodes of the same component.
+   */
+  private void analyzeByComponent(int maxSteps) {
+    ComponentOrder<N> components = new ComponentOrder<>(cfg, isForward());
+    BitSet workSet = new BitSet(components.nodes.size());
+    int start = 0;
+    for (int end : components.ends) {
+      workSet.set(start, end);
+      for (int i = workSet.nextSetBit(start); i >= 0 && i < end;
+           i = workSet.nextSetBit(start)) {
+        checkStepCount(maxSteps);
+        workSet.clear(i);
+        DiGraphNode<N, Branch> curNode = components.nodes.get(i);
+        joinInputs(curNode);
+        if (flow(curNode)) {
+          for (DiGraphNode<N, Branch> nextNode
+              : components.getNextNodes(curNode)) {
+            Integer position = components.positions.get(nextNode);
+            if (position != null && position >= start && position < end) {
+              workSet.set(position);
+            }
+          }
+        }
+        stepCount++;
+      }
+      start = end;
+    }
+  }
+
+  private void checkStepCount(int maxSteps) {
+    if (stepCount > maxSteps) {
+      throw new MaxIterationsExceededException(
+        "Analysis did not terminate after " + maxSteps + " iterations");
     }
   }
 
@@ -374,6 +472,163 @@ abstract class DataFlowAnalysis<N, L extends LatticeElement> {
     }
   }
 
+  /**
+   * The nodes of a control flow graph other than the implicit return, grouped
+   * by strongly connected component in topological order of the flow, and in
+   * reverse postorder within each component. The components are found with
+   * an iterative version of Tarjan's algorithm, so that large functions do
+   * not overflow the stack.
+   *
+   * <p>When the graph has a node comparator, the search visits the successors
+   * of a node last to first, so that the reverse postorder agrees with the
+   * comparator where the flow allows, for instance on the arms of an IF.
+   * Some analyses, such as the type inference, are sensitive to that order.
+   */
+  private static final class ComponentOrder<N> {
+    private final ControlFlowGraph<N> cfg;
+    private final boolean isForward;
+    private final Comparator<DiGraphNode<N, Branch>> nodeComparator;
+
+    /** The ordered nodes. */
+    final List<DiGraphNode<N, Branch>> nodes;
+
+    /** The position in {@link #nodes} after the end of each component. */
+    final List<Integer> ends = new ArrayList<>();
+
+    /** The position of each node in {@link #nodes}. */
+    final Map<DiGraphNode<N, Branch>, Integer> positions = new HashMap<>();
+
+    ComponentOrder(ControlFlowGraph<N> cfg, boolean isForward) {
+      this.cfg = cfg;
+      this.isForward = isForward;
+      this.nodeComparator = cfg.getOptionalNodeComparator(isForward);
+
+      // The nodes in the order they are discovered, the successors of each
+      // and the position of the next successor to visit.
+      List<DiGraphNode<N, Branch>> discovered = new ArrayList<>();
+      List<List<DiGraphNode<N, Branch>>> successors = new ArrayList<>();
+      Map<DiGraphNode<N, Branch>, Integer> discoveryIndex = new HashMap<>();
+      int nodeCount = cfg.getNodes().size();
+      int[] nextSuccessor = new int[nodeCount];
+      int[] lowLink = new int[nodeCount];
+      int[] component = new int[nodeCount];
+      int[] postorder = new int[nodeCount];
+      int finished = 0;
+      int componentCount = 0;
+      BitSet onStack = new BitSet(nodeCount);
+      int[] componentStack = new int[nodeCount];
+      int componentStackSize = 0;
+      int[] callStack = new int[nodeCount];
+
+      // Start from where the flow starts, then from any node left over.
+      List<DiGraphNode<N, Branch>> roots = new ArrayList<>();
+      roots.add(isForward ? cfg.getEntry() : cfg.getImplicitReturn());
+      Iterables.addAll(roots, cfg.getDirectedGraphNodes());
+      for (DiGraphNode<N, Branch> root : roots) {
+        if (discoveryIndex.containsKey(root)) {
+          continue;
+        }
+        int callStackSize = 0;
+        DiGraphNode<N, Branch> toDiscover = root;
+        while (true) {
+          if (toDiscover != null) {
+            int v = discovered.size();
+            discovered.add(toDiscover);
+            successors.add(getSearchOrder(getNextNodes(toDiscover)));
+            discoveryIndex.put(toDiscover, v);
+            lowLink[v] = v;
+            onStack.set(v);
+            componentStack[componentStackSize++] = v;
+            callStack[callStackSize++] = v;
+            toDiscover = null;
+          }
+          if (callStackSize == 0) {
+            break;
+          }
+          int v = callStack[callStackSize - 1];
+          List<DiGraphNode<N, Branch>> next = successors.get(v);
+          if (nextSuccessor[v] < next.size()) {
+            DiGraphNode<N, Branch> w = next.get(nextSuccessor[v]++);
+            Integer wIndex = discoveryIndex.get(w);
+            if (wIndex == null) {
+              toDiscover = w;
+            } else if (onStack.get(wIndex)) {
+              lowLink[v] = Math.min(lowLink[v], wIndex);
+            }
+            continue;
+          }
+
+          // All the successors of v are visited.
+          callStackSize--;
+          postorder[finished++] = v;
+          if (callStackSize > 0) {
+            int parent = callStack[callStackSize - 1];
+            lowLink[parent] = Math.min(lowLink[parent], lowLink[v]);
+          }
+          if (lowLink[v] == v) {
+            int w;
+            do {
+              w = componentStack[--componentStackSize];
+              onStack.clear(w);
+              component[w] = componentCount;
+            } while (w != v);
+            componentCount++;
+          }
+        }
+      }
+
+      // Tarjan's algorithm finds the components in reverse topological
+      // order. Bucket the nodes by component in reverse postorder.
+      int[] componentSizes = new int[componentCount];
+      DiGraphNode<N, Branch> implicitReturn = cfg.getImplicitReturn();
+      for (int v = 0; v < nodeCount; v++) {
+        if (discovered.get(v) != implicitReturn) {
+          componentSizes[componentCount - 1 - component[v]]++;
+        }
+      }
+      int[] componentStarts = new int[componentCount];
+      int position = 0;
+      for (int c = 0; c < componentCount; c++) {
+        componentStarts[c] = position;
+        position += componentSizes[c];
+        if (componentSizes[c] > 0) {
+          ends.add(position);
+        }
+      }
+      List<DiGraphNode<N, Branch>> ordered = new ArrayList<>(position);
+      for (int i = 0; i < position; i++) {
+        ordered.add(null);
+      }
+      for (int i = nodeCount - 1; i >= 0; i--) {
+        int v = postorder[i];
+        DiGraphNode<N, Branch> node = discovered.get(v);
+        if (node != implicitReturn) {
+          int nodePosition =
+              componentStarts[componentCount - 1 - component[v]]++;
+          ordered.set(nodePosition, node);
+          positions.put(node, nodePosition);
+        }
+      }
+      this.nodes = ordered;
+    }
+
+    private List<DiGraphNode<N, Branch>> getSearchOrder(
+        List<DiGraphNode<N, Branch>> nextNodes) {
+      if (nodeComparator == null || nextNodes.size() < 2) {
+        return nextNodes;
+      }
+      List<DiGraphNode<N, Branch>> ordered = new ArrayList<>(nextNodes);
+      Collections.sort(ordered, Collections.reverseOrder(nodeComparator));
+      return ordered;
+    }
+
+    /** Returns the nodes that the flow goes to from {@code node}. */
+    List<DiGraphNode<N, Branch>> getNextNodes(DiGraphNode<N, Branch> node) {
+      return isForward
+          ? cfg.getDirectedSuccNodes(node) : cfg.getDirectedPredNodes(node);
+    }
+  }
+
   /**
    * The exception to be thrown if the analysis has been running for a long
    * number of iterations. Chances are the analysis is not monotonic, a
@@ -520,6 +775,125 @@ abstract class DataFlowAnalysis<N, L extends LatticeElement> {
     }
   }
 
+  /**
+   * A lattice element whose state is kept in bit sets or primitive arrays
+   * indexed by a dense numbering, such as {@link Var#index} for the variables
+   * of a scope, so that it can be overwritten and joined in place.
+   *
+   * @param <L> The lattice element type itself.
+   */
+  interface InPlaceLattice<L extends InPlaceLattice<L>>
+      extends LatticeElement {
+
+    /** Overwrites the state of this element with the state of {@code other}. */
+    void copyFrom(L other);
+
+    /** Overwrites the state of this element with its join with {@code other}. */
+    void joinWith(L other);
+  }
+
+  /**
+   * A data flow analysis over {@link InPlaceLattice} elements. Every node owns
+   * its input and output elements for the whole analysis, and the joins and
+   * flow functions overwrite them, so a step of the analysis allocates no
+   * lattice elements however large the function is.
+   */
+  abstract static class InPlaceDataFlowAnalysis
+      <N, L extends InPlaceLattice<L>> extends DataFlowAnalysis<N, L> {
+
+    private L entryLattice;
+
+    /** The element the next flow function result is written to. */
+    private L scratch;
+
+    InPlaceDataFlowAnalysis(ControlFlowGraph<N> targetCfg, JoinOp<L> joinOp) {
+      super(targetCfg, joinOp);
+    }
+
+    /**
+     * Computes the output state for a given node and input state.
+     *
+     * @param node The node.
+     * @param input Input lattice that should be read-only.
+     * @param output The lattice the output is written to. Its previous state
+     *     must be ignored.
+     */
+    abstract void flowThrough(N node, L input, L output);
+
+    @Override
+    final L flowThrough(N node, L input) {
+      L output = createInitialEstimateLattice();
+      flowThrough(node, input, output);
+      return output;
+    }
+
+    @Override
+    protected void initialize() {
+      super.initialize();
+      entryLattice = createEntryLattice();
+      scratch = createInitialEstimateLattice();
+    }
+
+    @Override
+    protected final boolean flow(DiGraphNode<N, Branch> node) {
+      FlowState<L> state = node.getAnnotation();
+      if (isForward()) {
+        flowThrough(node.getValue(), state.in, scratch);
+        if (scratch.equals(state.out)) {
+          return false;
+        }
+        L previous = state.out;
+        state.out = scratch;
+        scratch = previous;
+      } else {
+        flowThrough(node.getValue(), state.out, scratch);
+        if (scratch.equals(state.in)) {
+          return false;
+        }
+        L previous = state.in;
+        state.in = scratch;
+        scratch = previous;
+      }
+      return true;
+    }
+
+    @Override
+    protected final void joinInputs(DiGraphNode<N, Branch> node) {
+      FlowState<L> state = node.getAnnotation();
+      ControlFlowGraph<N> cfg = getCfg();
+      if (isForward()) {
+        if (cfg.getEntry() == node) {
+          state.in.copyFrom(entryLattice);
+          return;
+        }
+        List<DiGraphNode<N, Branch>> inNodes = cfg.getDirectedPredNodes(node);
+        for (int i = 0; i < inNodes.size(); i++) {
+          FlowState<L> inNodeState = inNodes.get(i).getAnnotation();
+          joinInto(state.in, inNodeState.out, i);
+        }
+      } else {
+        List<DiGraphNode<N, Branch>> inNodes = cfg.getDirectedSuccNodes(node);
+        if (inNodes.size() == 1 && inNodes.get(0) == cfg.getImplicitReturn()) {
+          state.out.copyFrom(entryLattice);
+          return;
+        }
+        for (int i = 0; i < inNodes.size(); i++) {
+          FlowState<L> inNodeState = inNodes.get(i).getAnnotation();
+          joinInto(state.out, inNodeState.in, i);
+        }
+      }
+    }
+
+    private static <L extends InPlaceLattice<L>> void joinInto(
+        L target, L value, int index) {
+      if (index == 0) {
+        target.copyFrom(value);
+      } else {
+        target.joinWith(value);
+      }
+    }
+  }
+
   /**
    * Compute set of escaped variables. When a variable is escaped in a
    * dataflow analysis, it can be reference outside of the code that we are
@@ -99,7 +99,7 @@ class DeadAssignmentsElimination extends AbstractPostOrderCallback implements
     // Computes liveness information first.
     ControlFlowGraph<Node> cfg = t.getControlFlowGraph();
     liveness = new LiveVariablesAnalysis(cfg, scope, compiler);
-    liveness.analyze();
+    liveness.analyze(compiler);
     tryRemoveDeadAssignments(t, cfg);
   }
 
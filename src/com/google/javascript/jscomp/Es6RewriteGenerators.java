@@ -58,7 +58,7 @@ public final class Es6RewriteGenerators extends NodeTraversal.AbstractPostOrderC
   // The beginning state is 0 and the end state is -1.
   private static final String GENERATOR_STATE = "$jscomp$generator$state";
 
-  private static int generatorCaseCount;
+  private int generatorCaseCount;
 
   private static final String GENERATOR_DO_WHILE_INITIAL = "$jscomp$generator$first$do";
 
@@ -852,7 +852,7 @@ public final class Es6RewriteGenerators extends NodeTraversal.AbstractPostOrderC
             : IR.name("undefined"), true)));
   }
 
-  private static Node createStateUpdate() {
+  private Node createStateUpdate() {
     return IR.exprResult(
         IR.assign(IR.name(GENERATOR_STATE), IR.number(generatorCaseCount)));
   }
@@ -874,7 +874,7 @@ public final class Es6RewriteGenerators extends NodeTraversal.AbstractPostOrderC
     return breakNode;
   }
 
-  private static Node createFinallyJumpBlock(Node finallyName, int finallyStartState) {
+  private Node createFinallyJumpBlock(Node finallyName, int finallyStartState) {
     int jumpPoint = generatorCaseCount++;
     Node setReturnState =  IR.exprResult(
         IR.assign(finallyName.cloneTree(), IR.number(jumpPoint)));
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.javascript.jscomp.parsing.Config;
+import com.google.javascript.jscomp.parsing.ParserRunner;
+import com.google.javascript.jscomp.parsing.parser.trees.Comment;
+import com.google.javascript.rhino.ErrorReporter;
+import com.google.javascript.rhino.Node;
+import com.google.javascript.rhino.NodeSerializer;
+import com.google.javascript.rhino.StaticSourceFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The parsed externs of a program, for processes that run many compilations
+ * against the same externs. Give it to each compilation with
+ * {@link CompilerOptions#setExternsSnapshot}, and the externs it holds are
+ * not parsed again.
+ *
+ * <p>The externs of a snapshot never change, so compilations on several
+ * threads may share it; the only state it updates is an atomic count of the
+ * externs it provided. It keeps the serialized form of each AST, and each
+ * compilation gets its own copy, which its passes are free to change. An
+ * extern is parsed again if its code differs from the snapshot's or if the
+ * compilation parses externs with another configuration (language mode,
+ * annotation names). Externs that had parse diagnostics are left out, so
+ * that the diagnostics are still reported. The types of the externs are
+ * still built by each compilation, since every compilation has its own type
+ * registry.
+ */
+public final class ExternsSnapshot {
+
+  private final String configFingerprint;
+  private final ImmutableMap<String, Entry> entries;
+
+  private final AtomicInteger hitCount = new AtomicInteger();
+
+  private ExternsSnapshot(
+      String configFingerprint, ImmutableMap<String, Entry> entries) {
+    this.configFingerprint = configFingerprint;
+    this.entries = entries;
+  }
+
+  /**
+   * Parses the given externs as the given compiler would. The compiler's
+   * options must have been set, with {@link Compiler#initOptions} for
+   * instance.
+   */
+  public static ExternsSnapshot create(
+      List<? extends SourceFile> externs, Compiler compiler)
+      throws IOException {
+    Preconditions.checkState(compiler.getOptions() != null,
+        "The compiler's options must be set");
+    Config config =
+        compiler.getParserConfig(AbstractCompiler.ConfigContext.EXTERNS);
+    Map<String, Entry> entries = new LinkedHashMap<>();
+    for (SourceFile file : externs) {
+      if (entries.containsKey(file.getName())) {
+        continue;
+      }
+      String code = file.getCode();
+      DiagnosticDetector detector = new DiagnosticDetector();
+      Node root = ParserRunner.parse(file, code, config, detector).ast;
+      if (root == null || detector.found) {
+        continue;
+      }
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      NodeSerializer.serialize(root, file, out);
+      entries.put(file.getName(), new Entry(code, out.toByteArray()));
+    }
+    return new ExternsSnapshot(
+        config.getFingerprint(), ImmutableMap.copyOf(entries));
+  }
+
+  /** Returns the number of externs in the snapshot. */
+  public int size() {
+    return entries.size();
+  }
+
+  /** Returns the number of externs the snapshot provided to compilations. */
+  @VisibleForTesting
+  int getHitCount() {
+    return hitCount.get();
+  }
+
+  /**
+   * Returns a copy of the AST of the given extern, or null if the snapshot
+   * does not have it for the given code and parser configuration.
+   */
+  ParserRunner.ParseResult parse(
+      StaticSourceFile sourceFile, String code, Config config) {
+    Entry entry = entries.get(sourceFile.getName());
+    if (entry == null || !entry.code.equals(code)
+        || !configFingerprint.equals(config.getFingerprint())) {
+      return null;
+    }
+    try {
+      Node root = NodeSerializer.deserialize(
+          new ByteArrayInputStream(entry.ast), sourceFile);
+      hitCount.incrementAndGet();
+      return new ParserRunner.ParseResult(root, ImmutableList.<Comment>of());
+    } catch (IOException e) {
+      // The entry was written by this process and is never changed.
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static class Entry {
+    final String code;
+    final byte[] ast;
+
+    Entry(String code, byte[] ast) {
+      this.code = code;
+      this.ast = ast;
+    }
+  }
+
+  /** Records whether any diagnostic was reported. */
+  private static class DiagnosticDetector implements ErrorReporter {
+    boolean found = false;
+
+    @Override
+    public void warning(
+        String message, String sourceName, int line, int lineOffset) {
+      found = true;
+    }
+
+    @Override
+    public void error(
+        String message, String sourceName, int line, int lineOffset) {
+      found = true;
+    }
+  }
+}
@@ -137,7 +137,7 @@ class FlowSensitiveInlineVariables extends AbstractPostOrderCallback
     cfa.process(null, t.getScopeRoot().getLastChild());
     cfg = cfa.getCfg();
     reachingDef = new MustBeReachingVariableDef(cfg, t.getScope(), compiler);
-    reachingDef.analyze();
+    reachingDef.analyze(compiler);
     candidates = new LinkedList<>();
 
     // Using the forward reaching definition search to find all the inline
@@ -147,7 +147,7 @@ class FlowSensitiveInlineVariables extends AbstractPostOrderCallback
 
     // Compute the backward reaching use. The CFG can be reused.
     reachingUses = new MaybeReachingVariableUse(cfg, t.getScope(), compiler);
-    reachingUses.analyze();
+    reachingUses.analyze(compiler);
     for (Candidate c : candidates) {
       if (c.canInline(t.getScope())) {
         c.inlineVariable();
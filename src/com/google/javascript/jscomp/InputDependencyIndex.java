@@ -0,0 +1,189 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.base.Predicates;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.SetMultimap;
+import com.google.javascript.rhino.JSDocInfo;
+import com.google.javascript.rhino.Node;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Records, for each input, the global qualified names it declares and the
+ * qualified names and type names it uses, so that when an input changes only
+ * the inputs that depend on it need to be checked again.
+ *
+ * <p>The index is syntactic: an input depends on a name if it mentions the
+ * name, or a name under it, in its code or JSDoc. Properties that are declared
+ * on instances (like {@code this.x} in a constructor) are attributed to the
+ * type, which users of the property usually name as well. Since the types of
+ * the names an input declares may be inferred from the names it uses, an
+ * input also depends on the names declared by the inputs it depends on.
+ *
+ */
+final class InputDependencyIndex {
+
+  private final Map<String, Set<String>> declaredNames = new HashMap<>();
+  private final Map<String, Set<String>> usedNames = new HashMap<>();
+
+  /** The inputs that use each name, indexed by every prefix of the name. */
+  private final SetMultimap<String, String> usersByName =
+      HashMultimap.create();
+
+  /**
+   * Records the names declared and used by the given input, replacing what
+   * was recorded for it before.
+   */
+  void index(String inputName, Node script) {
+    Set<String> oldUses = usedNames.get(inputName);
+    if (oldUses != null) {
+      for (String name : oldUses) {
+        usersByName.remove(name, inputName);
+      }
+    }
+    Set<String> declared = new LinkedHashSet<>();
+    Set<String> used = new LinkedHashSet<>();
+    collect(script, declared, used);
+    declaredNames.put(inputName, declared);
+    usedNames.put(inputName, used);
+    for (String name : used) {
+      usersByName.put(name, inputName);
+    }
+  }
+
+  /** Returns the global names the given input declares. */
+  Set<String> getDeclaredNames(String inputName) {
+    Set<String> declared = declaredNames.get(inputName);
+    return declared == null ? ImmutableSet.<String>of() : declared;
+  }
+
+  /**
+   * Returns the inputs that use one of the given names, or a name under it,
+   * and in turn the inputs that use the names those inputs declare, leaving
+   * out the excluded inputs.
+   */
+  Set<String> getDependents(
+      Iterable<String> names, Collection<String> excluded) {
+    Set<String> dependents = new HashSet<>();
+    Set<String> seen = new HashSet<>();
+    Deque<String> worklist = new ArrayDeque<>();
+    for (String name : names) {
+      worklist.add(name);
+    }
+    while (!worklist.isEmpty()) {
+      String name = worklist.remove();
+      if (!seen.add(name)) {
+        continue;
+      }
+      for (String user : usersByName.get(name)) {
+        if (!excluded.contains(user) && dependents.add(user)) {
+          worklist.addAll(getDeclaredNames(user));
+        }
+      }
+    }
+    return dependents;
+  }
+
+  /**
+   * Walks the script in pre-order with an explicit stack, so that deeply
+   * nested code does not overflow the Java stack.
+   */
+  private static void collect(
+      Node script, Set<String> declared, Set<String> used) {
+    Deque<Node> nodes = new ArrayDeque<>();
+    Deque<Boolean> inGlobalScopes = new ArrayDeque<>();
+    nodes.push(script);
+    inGlobalScopes.push(true);
+    while (!nodes.isEmpty()) {
+      Node n = nodes.pop();
+      boolean inGlobalScope = inGlobalScopes.pop();
+      if (n != script && n.getNext() != null) {
+        nodes.push(n.getNext());
+        inGlobalScopes.push(inGlobalScope);
+      }
+      visit(n, inGlobalScope, declared, used);
+      if (n.hasChildren()) {
+        nodes.push(n.getFirstChild());
+        inGlobalScopes.push(inGlobalScope && !n.isFunction());
+      }
+    }
+  }
+
+  private static void visit(Node n, boolean inGlobalScope,
+      Set<String> declared, Set<String> used) {
+    Node parent = n.getParent();
+    if (inGlobalScope) {
+      if (n.isName() && parent != null && NodeUtil.isNameDeclaration(parent)) {
+        declared.add(n.getString());
+      } else if (NodeUtil.isFunctionDeclaration(n)
+          || NodeUtil.isClassDeclaration(n)) {
+        declared.add(n.getFirstChild().getString());
+      } else if ((n.isAssign() || n.isExprResult())
+          && n.getFirstChild().isGetProp()
+          && n.getFirstChild().isQualifiedName()) {
+        // Assignments to and stub declarations of qualified names.
+        declared.add(n.getFirstChild().getQualifiedName());
+      }
+    }
+
+    // Only the longest qualified names; their prefixes are added with them.
+    boolean isPrefix = parent != null && parent.isGetProp()
+        && parent.getFirstChild() == n;
+    if (n.isQualifiedName() && !isPrefix) {
+      String name = n.getQualifiedName();
+      if (!name.equals("this") && !name.startsWith("this.")) {
+        addWithPrefixes(name, used);
+      }
+    }
+
+    JSDocInfo info = n.getJSDocInfo();
+    if (info != null) {
+      for (Node typeRoot : info.getTypeNodes()) {
+        collectTypeNames(typeRoot, used);
+      }
+    }
+  }
+
+  private static void collectTypeNames(Node typeRoot, final Set<String> used) {
+    NodeUtil.visitPreOrder(typeRoot, new NodeUtil.Visitor() {
+      @Override
+      public void visit(Node typeNode) {
+        if (typeNode.isString()) {
+          addWithPrefixes(typeNode.getString(), used);
+        }
+      }
+    }, Predicates.<Node>alwaysTrue());
+  }
+
+  /** Adds {@code a}, {@code a.b} and {@code a.b.c} for {@code a.b.c}. */
+  private static void addWithPrefixes(String name, Set<String> names) {
+    for (int i = name.indexOf('.'); i != -1; i = name.indexOf('.', i + 1)) {
+      names.add(name.substring(0, i));
+    }
+    names.add(name);
+  }
+}
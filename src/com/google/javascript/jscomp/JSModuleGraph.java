@@ -33,6 +33,7 @@ import com.google.javascript.jscomp.deps.SortedDependencies.CircularDependencyEx
 import com.google.javascript.jscomp.deps.SortedDependencies.MissingProvideException;
 import com.google.javascript.jscomp.graph.LinkedDirectedGraph;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
@@ -52,7 +53,8 @@ import java.util.TreeSet;
  * the module to a module with no dependencies.
  *
  */
-public final class JSModuleGraph {
+public final class JSModuleGraph implements Serializable {
+  private static final long serialVersionUID = 1L;
 
   private List<JSModule> modules;
 
@@ -498,7 +500,10 @@ public final class JSModuleGraph {
    * A module depth comparator that considers a deeper module to be "less than"
    * a shallower module. Uses module names to consistently break ties.
    */
-  private static class InverseDepthComparator implements Comparator<JSModule> {
+  private static class InverseDepthComparator
+      implements Comparator<JSModule>, Serializable {
+    private static final long serialVersionUID = 1L;
+
     @Override
     public int compare(JSModule m1, JSModule m2) {
       return depthCompare(m2, m1);
@@ -17,12 +17,16 @@
 package com.google.javascript.jscomp;
 
 import com.google.common.base.Preconditions;
+import com.google.javascript.jscomp.parsing.Config;
 import com.google.javascript.jscomp.parsing.ParserRunner;
+import com.google.javascript.rhino.ErrorReporter;
 import com.google.javascript.rhino.IR;
 import com.google.javascript.rhino.InputId;
 import com.google.javascript.rhino.Node;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Generates an AST for a JavaScript source file.
@@ -31,11 +35,17 @@ import java.io.IOException;
 public class JsAst implements SourceAst {
   private static final long serialVersionUID = 1L;
 
-  private transient InputId inputId;
-  private transient SourceFile sourceFile;
+  private InputId inputId;
+  private SourceFile sourceFile;
   private String fileName;
   private Node root;
 
+  /**
+   * The result of a {@link #preParse} that has not yet been attached to the
+   * compiler by {@link #getAstRoot}.
+   */
+  private transient ParseOutcome preParsed;
+
   public JsAst(SourceFile sourceFile) {
     this.inputId = new InputId(sourceFile.getName());
     this.sourceFile = sourceFile;
@@ -51,9 +61,31 @@ public class JsAst implements SourceAst {
     return root;
   }
 
+  /**
+   * Parses the source without touching any compiler state, so that it may run
+   * on a thread other than the compiler thread. Diagnostics are recorded and
+   * replayed by the next call to {@link #getAstRoot}, which then finishes the
+   * AST exactly as a serial parse would have.
+   */
+  void preParse(Config config, ExternsSnapshot snapshot, AstCache cache) {
+    if (root != null || preParsed != null) {
+      return;
+    }
+    RecordingErrorReporter reporter = new RecordingErrorReporter();
+    try {
+      preParsed = parseSource(config, reporter, snapshot, cache);
+    } catch (RuntimeException e) {
+      // Leave the input unparsed; the compiler thread will parse it again
+      // and surface the failure in its usual place.
+      return;
+    }
+    preParsed.diagnostics = reporter;
+  }
+
   @Override
   public void clearAst() {
     root = null;
+    preParsed = null;
     // While we're at it, clear out any saved text in the source file on
     // the assumption that if we're dumping the parse tree, then we probably
     // assume regenerating everything else is a smart idea also.
@@ -78,19 +110,26 @@ public class JsAst implements SourceAst {
 
   private void parse(AbstractCompiler compiler) {
     int startErrorCount = compiler.getErrorManager().getErrorCount();
-    try {
-      ParserRunner.ParseResult result = ParserRunner.parse(
-          sourceFile,
-          sourceFile.getCode(),
+    ParseOutcome outcome = preParsed;
+    preParsed = null;
+    if (outcome == null) {
+      outcome = parseSource(
           compiler.getParserConfig(sourceFile.isExtern()
                         ? AbstractCompiler.ConfigContext.EXTERNS
                         : AbstractCompiler.ConfigContext.DEFAULT),
-          compiler.getDefaultErrorReporter());
-      root = result.ast;
+          compiler.getDefaultErrorReporter(),
+          compiler.getExternsSnapshot(),
+          compiler.getAstCache());
+    } else {
+      outcome.diagnostics.replay(compiler.getDefaultErrorReporter());
+    }
+
+    if (outcome.result != null) {
+      root = outcome.result.ast;
       if (compiler.isIdeMode()) {
-        compiler.addComments(sourceFile.getName(), result.comments);
+        compiler.addComments(sourceFile.getName(), outcome.result.comments);
       }
-    } catch (IOException e) {
+    } else {
       compiler.report(
           JSError.make(AbstractCompiler.READ_ERROR, sourceFile.getName()));
     }
@@ -110,5 +149,84 @@ public class JsAst implements SourceAst {
     // Set the source name so that the compiler passes can track
     // the source file and module.
     root.setStaticSourceFile(sourceFile);
+    sourceFile.releaseParsedSource();
+  }
+
+  private ParseOutcome parseSource(Config config, ErrorReporter reporter,
+      ExternsSnapshot snapshot, AstCache cache) {
+    ParseOutcome outcome = new ParseOutcome();
+    try {
+      String code = sourceFile.getCode();
+      if (snapshot != null && sourceFile.isExtern()) {
+        outcome.result = snapshot.parse(sourceFile, code, config);
+        if (outcome.result != null) {
+          return outcome;
+        }
+      }
+      outcome.result = cache == null
+          ? ParserRunner.parse(sourceFile, code, config, reporter)
+          : cache.parse(sourceFile, code, config, reporter);
+    } catch (IOException e) {
+      // Reported as a READ_ERROR once the outcome reaches the compiler.
+    }
+    return outcome;
+  }
+
+  /**
+   * The parse result of a file, or null if the file could not be read, along
+   * with any diagnostics that still need to be reported.
+   */
+  private static class ParseOutcome {
+    ParserRunner.ParseResult result;
+    RecordingErrorReporter diagnostics;
+  }
+
+  /**
+   * An error reporter that remembers everything reported to it, so that
+   * diagnostics found off the compiler thread can be reported in input order.
+   */
+  private static class RecordingErrorReporter implements ErrorReporter {
+    private final List<Diagnostic> diagnostics = new ArrayList<>();
+
+    @Override
+    public void warning(
+        String message, String sourceName, int line, int lineOffset) {
+      diagnostics.add(
+          new Diagnostic(false, message, sourceName, line, lineOffset));
+    }
+
+    @Override
+    public void error(
+        String message, String sourceName, int line, int lineOffset) {
+      diagnostics.add(
+          new Diagnostic(true, message, sourceName, line, lineOffset));
+    }
+
+    void replay(ErrorReporter reporter) {
+      for (Diagnostic d : diagnostics) {
+        if (d.isError) {
+          reporter.error(d.message, d.sourceName, d.line, d.lineOffset);
+        } else {
+          reporter.warning(d.message, d.sourceName, d.line, d.lineOffset);
+        }
+      }
+    }
+  }
+
+  private static class Diagnostic {
+    final boolean isError;
+    final String message;
+    final String sourceName;
+    final int line;
+    final int lineOffset;
+
+    Diagnostic(boolean isError, String message, String sourceName,
+        int line, int lineOffset) {
+      this.isError = isError;
+      this.message = message;
+      this.sourceName = sourceName;
+      this.line = line;
+      this.lineOffset = lineOffset;
+    }
   }
 }
@@ -23,6 +23,7 @@ import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
 import java.lang.management.MemoryPoolMXBean;
 import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
 import java.util.List;
 import java.util.StringTokenizer;
 
@@ -76,6 +77,61 @@ class JvmMetrics {
     }
   }
 
+  /**
+   * Returns the CPU time of the current thread in nanoseconds, or -1 if the
+   * JVM does not measure it.
+   */
+  static long getCurrentThreadCpuTime() {
+    ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    if (!threadBean.isCurrentThreadCpuTimeSupported()
+        || !threadBean.isThreadCpuTimeEnabled()) {
+      return -1;
+    }
+    return threadBean.getCurrentThreadCpuTime();
+  }
+
+  /**
+   * Returns the number of bytes the current thread has allocated, or -1 if
+   * the JVM does not measure it.
+   */
+  static long getCurrentThreadAllocatedBytes() {
+    ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    if (!(threadBean instanceof com.sun.management.ThreadMXBean)) {
+      return -1;
+    }
+    com.sun.management.ThreadMXBean sunThreadBean =
+        (com.sun.management.ThreadMXBean) threadBean;
+    if (!sunThreadBean.isThreadAllocatedMemorySupported()
+        || !sunThreadBean.isThreadAllocatedMemoryEnabled()) {
+      return -1;
+    }
+    return sunThreadBean.getThreadAllocatedBytes(
+        Thread.currentThread().getId());
+  }
+
+  /** Returns the number of garbage collections of all collectors. */
+  static long getGarbageCollectionCount() {
+    long collectionCount = 0;
+    for (GarbageCollectorMXBean gcBean
+        : ManagementFactory.getGarbageCollectorMXBeans()) {
+      collectionCount += Math.max(0, gcBean.getCollectionCount());
+    }
+    return collectionCount;
+  }
+
+  /**
+   * Returns the time, in milliseconds, that all collectors spent in garbage
+   * collection.
+   */
+  static long getGarbageCollectionTime() {
+    long collectionTime = 0;
+    for (GarbageCollectorMXBean gcBean
+        : ManagementFactory.getGarbageCollectorMXBeans()) {
+      collectionTime += Math.max(0, gcBean.getCollectionTime());
+    }
+    return collectionTime;
+  }
+
   private static void writeMetrics(
       PrintStream out, String type, boolean verbose, boolean pretty) {
 
@@ -19,7 +19,6 @@ package com.google.javascript.jscomp;
 import com.google.common.base.Preconditions;
 import com.google.javascript.jscomp.ControlFlowGraph.Branch;
 import com.google.javascript.jscomp.graph.DiGraph.DiGraphEdge;
-import com.google.javascript.jscomp.graph.LatticeElement;
 import com.google.javascript.rhino.Node;
 import com.google.javascript.rhino.Token;
 
@@ -44,8 +43,9 @@ import java.util.Set;
  * global and they can be retrieved with {@link #getEscapedLocals()}.
  *
  */
-class LiveVariablesAnalysis extends
-    DataFlowAnalysis<Node, LiveVariablesAnalysis.LiveVariableLattice> {
+class LiveVariablesAnalysis
+    extends DataFlowAnalysis.InPlaceDataFlowAnalysis<
+        Node, LiveVariablesAnalysis.LiveVariableLattice> {
 
   // 100 = ((# of original Power Rangers) ^
   //        (# years of Warren Harding in office)) *
@@ -60,7 +60,7 @@ class LiveVariablesAnalysis extends
     public LiveVariableLattice apply(List<LiveVariableLattice> in) {
       LiveVariableLattice result = new LiveVariableLattice(in.get(0));
       for (int i = 1; i < in.size(); i++) {
-        result.liveSet.or(in.get(i).liveSet);
+        result.joinWith(in.get(i));
       }
       return result;
     }
@@ -71,7 +71,8 @@ class LiveVariablesAnalysis extends
    * point in the program. The whole lattice is the power set of all local
    * variables and a variable is live if it is in the set.
    */
-  static class LiveVariableLattice implements LatticeElement {
+  static class LiveVariableLattice
+      implements DataFlowAnalysis.InPlaceLattice<LiveVariableLattice> {
     private final BitSet liveSet;
 
     /**
@@ -86,6 +87,17 @@ class LiveVariablesAnalysis extends
       this.liveSet = (BitSet) other.liveSet.clone();
     }
 
+    @Override
+    public void copyFrom(LiveVariableLattice other) {
+      liveSet.clear();
+      liveSet.or(other.liveSet);
+    }
+
+    @Override
+    public void joinWith(LiveVariableLattice other) {
+      liveSet.or(other.liveSet);
+    }
+
     @Override
     public boolean equals(Object other) {
       Preconditions.checkNotNull(other);
@@ -117,6 +129,11 @@ class LiveVariablesAnalysis extends
   private final Scope jsScope;
   private final Set<Var> escaped;
 
+  // The GEN and KILL sets of the node being flowed through, reused between
+  // nodes.
+  private final BitSet gen = new BitSet();
+  private final BitSet kill = new BitSet();
+
   LiveVariablesAnalysis(ControlFlowGraph<Node> cfg, Scope jsScope,
       AbstractCompiler compiler) {
     super(cfg, new LiveVariableJoinOp());
@@ -149,9 +166,10 @@ class LiveVariablesAnalysis extends
   }
 
   @Override
-  LiveVariableLattice flowThrough(Node node, LiveVariableLattice input) {
-    final BitSet gen = new BitSet(input.liveSet.size());
-    final BitSet kill = new BitSet(input.liveSet.size());
+  void flowThrough(
+      Node node, LiveVariableLattice input, LiveVariableLattice output) {
+    gen.clear();
+    kill.clear();
 
     // Make kills conditional if the node can end abruptly by an exception.
     boolean conditional = false;
@@ -162,11 +180,10 @@ class LiveVariablesAnalysis extends
       }
     }
     computeGenKill(node, gen, kill, conditional);
-    LiveVariableLattice result = new LiveVariableLattice(input);
     // L_in = L_out - Kill + Gen
-    result.liveSet.andNot(kill);
-    result.liveSet.or(gen);
-    return result;
+    output.copyFrom(input);
+    output.liveSet.andNot(kill);
+    output.liveSet.or(gen);
   }
 
   /**
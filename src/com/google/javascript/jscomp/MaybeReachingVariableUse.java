@@ -17,18 +17,19 @@
 package com.google.javascript.jscomp;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimap;
 import com.google.javascript.jscomp.ControlFlowGraph.Branch;
 import com.google.javascript.jscomp.graph.DiGraph.DiGraphEdge;
 import com.google.javascript.jscomp.graph.GraphNode;
-import com.google.javascript.jscomp.graph.LatticeElement;
 import com.google.javascript.rhino.Node;
 import com.google.javascript.rhino.Token;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -40,18 +41,38 @@ import java.util.Set;
  * the use on that path.
  *
  */
-class MaybeReachingVariableUse extends
-    DataFlowAnalysis<Node, MaybeReachingVariableUse.ReachingUses> {
+class MaybeReachingVariableUse
+    extends DataFlowAnalysis.InPlaceDataFlowAnalysis<
+        Node, MaybeReachingVariableUse.ReachingUses> {
 
   // The scope of the function that we are analyzing.
   private final Scope jsScope;
   private final Set<Var> escaped;
 
+  /**
+   * The CFG nodes of the uses, numbered in the order the uses are first seen.
+   * A use is a pair of a local variable and a CFG node that reads it.
+   */
+  private final List<Node> useNodes = new ArrayList<>();
+
+  /** The index of each use of each local variable, by {@link Var#index}. */
+  private final List<Map<Node, Integer>> useIndices;
+
+  /** The indices of the uses of each local variable, by {@link Var#index}. */
+  private final BitSet[] usesOfVar;
+
   MaybeReachingVariableUse(
       ControlFlowGraph<Node> cfg, Scope jsScope, AbstractCompiler compiler) {
     super(cfg, new ReachingUsesJoinOp());
     this.jsScope = jsScope;
     this.escaped = new HashSet<>();
+    int varCount = jsScope.getVarCount();
+    this.useIndices = new ArrayList<>(varCount);
+    this.usesOfVar = new BitSet[varCount];
+    for (int i = 0; i < varCount; i++) {
+      useIndices.add(new HashMap<Node, Integer>());
+      usesOfVar[i] = new BitSet();
+    }
 
     // TODO(user): Maybe compute it somewhere else and re-use the escape
     // local set here.
@@ -80,12 +101,16 @@ class MaybeReachingVariableUse extends
    * N_7: print(A);
    *
    * At N_3, reads of A in {N_4, N_5} are said to be upward exposed.
+   *
+   * <p>The element is the set of the indices of the upward exposed uses, so
+   * that it can be joined and copied without allocating.
    */
-  static final class ReachingUses implements LatticeElement {
-    final Multimap<Var, Node> mayUseMap;
+  static final class ReachingUses
+      implements DataFlowAnalysis.InPlaceLattice<ReachingUses> {
+    final BitSet mayUses;
 
     public ReachingUses() {
-      mayUseMap = HashMultimap.create();
+      mayUses = new BitSet();
     }
 
     /**
@@ -94,18 +119,29 @@ class MaybeReachingVariableUse extends
      * @param other The constructed object is a replicated copy of this element.
      */
     public ReachingUses(ReachingUses other) {
-      mayUseMap = HashMultimap.create(other.mayUseMap);
+      mayUses = (BitSet) other.mayUses.clone();
+    }
+
+    @Override
+    public void copyFrom(ReachingUses other) {
+      mayUses.clear();
+      mayUses.or(other.mayUses);
+    }
+
+    @Override
+    public void joinWith(ReachingUses other) {
+      mayUses.or(other.mayUses);
     }
 
     @Override
     public boolean equals(Object other) {
       return (other instanceof ReachingUses) &&
-          ((ReachingUses) other).mayUseMap.equals(this.mayUseMap);
+          ((ReachingUses) other).mayUses.equals(this.mayUses);
     }
 
     @Override
     public int hashCode() {
-      return mayUseMap.hashCode();
+      return mayUses.hashCode();
     }
   }
 
@@ -121,7 +157,7 @@ class MaybeReachingVariableUse extends
     public ReachingUses apply(List<ReachingUses> from) {
       ReachingUses result = new ReachingUses();
       for (ReachingUses uses : from) {
-        result.mayUseMap.putAll(uses.mayUseMap);
+        result.joinWith(uses);
       }
       return result;
     }
@@ -143,16 +179,14 @@ class MaybeReachingVariableUse extends
   }
 
   @Override
-  ReachingUses flowThrough(Node n, ReachingUses input) {
-    ReachingUses output = new ReachingUses(input);
+  void flowThrough(Node n, ReachingUses input, ReachingUses output) {
+    output.copyFrom(input);
 
     // If there's an ON_EX edge, this cfgNode may or may not get executed.
     // We can express this concisely by just pretending this happens in
     // a conditional.
     boolean conditional = hasExceptionHandler(n);
     computeMayUse(n, n, output, conditional);
-
-    return output;
   }
 
   private boolean hasExceptionHandler(Node cfgNode) {
@@ -263,7 +297,7 @@ class MaybeReachingVariableUse extends
       return;
     }
     if (!escaped.contains(var)) {
-      use.mayUseMap.put(var, node);
+      use.mayUses.set(getUseIndex(var, node));
     }
   }
 
@@ -278,8 +312,26 @@ class MaybeReachingVariableUse extends
       return;
     }
     if (!escaped.contains(var)) {
-      use.mayUseMap.removeAll(var);
+      use.mayUses.andNot(usesOfVar[var.index]);
+    }
+  }
+
+  /**
+   * Returns the index of the read of {@code var} at the CFG node
+   * {@code cfgNode}, numbering it if it was not seen before. A use that is
+   * not numbered yet cannot be in any lattice element, so the kill sets in
+   * {@link #usesOfVar} are complete whenever they are applied.
+   */
+  private int getUseIndex(Var var, Node cfgNode) {
+    Map<Node, Integer> indices = useIndices.get(var.index);
+    Integer index = indices.get(cfgNode);
+    if (index == null) {
+      index = useNodes.size();
+      useNodes.add(cfgNode);
+      indices.put(cfgNode, index);
+      usesOfVar[var.index].set(index);
     }
+    return index;
   }
 
   /**
@@ -296,6 +348,18 @@ class MaybeReachingVariableUse extends
     GraphNode<Node, Branch> n = getCfg().getNode(defNode);
     Preconditions.checkNotNull(n);
     FlowState<ReachingUses> state = n.getAnnotation();
-    return state.getOut().mayUseMap.get(jsScope.getVar(name));
+    Var var = jsScope.getVar(name);
+    List<Node> uses = new ArrayList<>();
+    if (var == null || var.scope != jsScope) {
+      return uses;
+    }
+    BitSet mayUses = state.getOut().mayUses;
+    BitSet varUses = usesOfVar[var.index];
+    for (int i = mayUses.nextSetBit(0); i >= 0; i = mayUses.nextSetBit(i + 1)) {
+      if (varUses.get(i)) {
+        uses.add(useNodes.get(i));
+      }
+    }
+    return uses;
   }
 }
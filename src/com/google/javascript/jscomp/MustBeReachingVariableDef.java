@@ -20,15 +20,16 @@ import com.google.common.base.Preconditions;
 import com.google.javascript.jscomp.ControlFlowGraph.AbstractCfgNodeTraversalCallback;
 import com.google.javascript.jscomp.ControlFlowGraph.Branch;
 import com.google.javascript.jscomp.graph.GraphNode;
-import com.google.javascript.jscomp.graph.LatticeElement;
 import com.google.javascript.rhino.Node;
 import com.google.javascript.rhino.Token;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 
 import javax.annotation.Nullable;
@@ -41,14 +42,28 @@ import javax.annotation.Nullable;
  * reaches that definition and it is the last definition before the use.
  *
  */
-final class MustBeReachingVariableDef extends
-    DataFlowAnalysis<Node, MustBeReachingVariableDef.MustDef> {
+final class MustBeReachingVariableDef
+    extends DataFlowAnalysis.InPlaceDataFlowAnalysis<
+        Node, MustBeReachingVariableDef.MustDef> {
 
   // The scope of the function that we are analyzing.
   private final Scope jsScope;
   private final AbstractCompiler compiler;
   private final Set<Var> escaped;
 
+  /** The definitions, numbered in the order they are first seen. */
+  private final List<Definition> definitions = new ArrayList<>();
+
+  /**
+   * The number of the definition made by each NAME node that is assigned to.
+   * A NAME node is in a single CFG node and is assigned a single r-value, so
+   * it identifies its definition.
+   */
+  private final Map<Node, Integer> definitionIndices = new HashMap<>();
+
+  /** The state on entry, where every variable has its initial definition. */
+  private final MustDef entryState;
+
   MustBeReachingVariableDef(
       ControlFlowGraph<Node> cfg, Scope jsScope, AbstractCompiler compiler) {
     super(cfg, new MustDefJoin());
@@ -56,6 +71,16 @@ final class MustBeReachingVariableDef extends
     this.compiler = compiler;
     this.escaped = new HashSet<>();
     computeEscaped(jsScope, escaped, compiler);
+
+    entryState = new MustDef(jsScope.getVarCount());
+    for (Iterator<Var> i = jsScope.getVars(); i.hasNext();) {
+      Var var = i.next();
+      // Every variable in the scope is defined once in the beginning of the
+      // function: all the declared variables are undefined, all functions
+      // have been assigned and all arguments has its value from the caller.
+      entryState.reachingDef[var.index] = definitions.size();
+      definitions.add(new Definition(var.scope.getRootNode()));
+    }
   }
 
   /**
@@ -112,29 +137,19 @@ final class MustBeReachingVariableDef extends
    *          (BOTTOM)
    *
    */
-  static final class MustDef implements LatticeElement {
+  static final class MustDef
+      implements DataFlowAnalysis.InPlaceLattice<MustDef> {
 
-    // TODO(user): Use bit vector instead of maps might get better
-    // performance. Change it after this is tested to be fully functional.
+    static final int TOP = -1;
+    static final int BOTTOM = -2;
 
-    // When a Var "A" = "TOP", "A" does not exist in reachingDef's keySet.
-    // When a Var "A" = Node N, "A" maps to that node.
-    // When a Var "A" = "BOTTOM", "A" maps to null.
-    final Map<Var, Definition> reachingDef;
+    // The state of each variable by Var#index: TOP, BOTTOM or the number of
+    // its definition.
+    final int[] reachingDef;
 
-    public MustDef() {
-      reachingDef = new HashMap<>();
-    }
-
-    public MustDef(Iterator<Var> vars) {
-      this();
-      while (vars.hasNext()) {
-        Var var = vars.next();
-        // Every variable in the scope is defined once in the beginning of the
-        // function: all the declared variables are undefined, all functions
-        // have been assigned and all arguments has its value from the caller.
-        reachingDef.put(var, new Definition(var.scope.getRootNode()));
-      }
+    MustDef(int varCount) {
+      reachingDef = new int[varCount];
+      Arrays.fill(reachingDef, TOP);
     }
 
     /**
@@ -142,62 +157,48 @@ final class MustBeReachingVariableDef extends
      *
      * @param other The constructed object is a replicated copy of this element.
      */
-    public MustDef(MustDef other) {
-      reachingDef = new HashMap<>(other.reachingDef);
+    MustDef(MustDef other) {
+      reachingDef = other.reachingDef.clone();
+    }
+
+    @Override
+    public void copyFrom(MustDef other) {
+      System.arraycopy(
+          other.reachingDef, 0, reachingDef, 0, reachingDef.length);
+    }
+
+    @Override
+    public void joinWith(MustDef other) {
+      for (int i = 0; i < reachingDef.length; i++) {
+        int def = reachingDef[i];
+        int otherDef = other.reachingDef[i];
+        if (def == TOP) {
+          reachingDef[i] = otherDef;
+        } else if (otherDef != TOP && otherDef != def) {
+          // More than one definition may reach, or one side already is
+          // BOTTOM.
+          reachingDef[i] = BOTTOM;
+        }
+      }
     }
 
     @Override
     public boolean equals(Object other) {
       return (other instanceof MustDef) &&
-          ((MustDef) other).reachingDef.equals(this.reachingDef);
+          Arrays.equals(((MustDef) other).reachingDef, this.reachingDef);
     }
 
     @Override
     public int hashCode() {
-      return reachingDef.hashCode();
+      return Arrays.hashCode(reachingDef);
     }
   }
 
   private static class MustDefJoin extends JoinOp.BinaryJoinOp<MustDef> {
     @Override
     public MustDef apply(MustDef a, MustDef b) {
-      MustDef result = new MustDef();
-      Map<Var, Definition> resultMap = result.reachingDef;
-
-      // Take the join of all variables that are not TOP in this.
-      for (Map.Entry<Var, Definition> varEntry : a.reachingDef.entrySet()) {
-        Var var = varEntry.getKey();
-        Definition aDef = varEntry.getValue();
-
-        if (aDef == null) {
-          // "a" is BOTTOM implies that the variable has more than one possible
-          // definition. We set the join of this to be BOTTOM regardless of what
-          // "b" might be.
-          resultMap.put(var, null);
-          continue;
-        }
-
-        if (b.reachingDef.containsKey(var)) {
-          Definition bDef = b.reachingDef.get(var);
-
-          if (aDef.equals(bDef)) {
-            resultMap.put(var, aDef);
-          } else {
-            resultMap.put(var, null);
-          }
-        } else {
-          resultMap.put(var, aDef);
-        }
-      }
-
-      // Take the join of all variables that are not TOP in other but it is TOP
-      // in this.
-      for (Map.Entry<Var, Definition> entry : b.reachingDef.entrySet()) {
-        Var var = entry.getKey();
-        if (!a.reachingDef.containsKey(var)) {
-          resultMap.put(var, entry.getValue());
-        }
-      }
+      MustDef result = new MustDef(a);
+      result.joinWith(b);
       return result;
     }
   }
@@ -209,24 +210,21 @@ final class MustBeReachingVariableDef extends
 
   @Override
   MustDef createEntryLattice() {
-    return new MustDef(jsScope.getVars());
+    return new MustDef(entryState);
   }
 
   @Override
   MustDef createInitialEstimateLattice() {
-    return new MustDef();
+    return new MustDef(jsScope.getVarCount());
   }
 
   @Override
-  MustDef flowThrough(Node n, MustDef input) {
-    // TODO(user): We are doing a straight copy from input to output. There
-    // might be some opportunities to cut down overhead.
-    MustDef output = new MustDef(input);
+  void flowThrough(Node n, MustDef input, MustDef output) {
+    output.copyFrom(input);
     // TODO(user): This must know about ON_EX edges but it should handle
     // it better than what we did in liveness. Because we are in a forward mode,
     // we can used the branched forward analysis.
     computeMustDef(n, n, output, false);
-    return output;
   }
 
   /**
@@ -261,7 +259,7 @@ final class MustBeReachingVariableDef extends
             lhs = lhs.getLastChild(); // for(var x in y) {...}
           }
           if (lhs.isName()) {
-            addToDefIfLocal(lhs.getString(), cfgNode, rhs, output);
+            addToDefIfLocal(lhs, cfgNode, rhs, output);
           }
         }
         return;
@@ -282,7 +280,7 @@ final class MustBeReachingVariableDef extends
         for (Node c = n.getFirstChild(); c != null; c = c.getNext()) {
           if (c.hasChildren()) {
             computeMustDef(c.getFirstChild(), cfgNode, output, conditional);
-            addToDefIfLocal(c.getString(), conditional ? null : cfgNode,
+            addToDefIfLocal(c, conditional ? null : cfgNode,
                 c.getFirstChild(), output);
           }
         }
@@ -293,7 +291,7 @@ final class MustBeReachingVariableDef extends
           if (n.getFirstChild().isName()) {
             Node name = n.getFirstChild();
             computeMustDef(name.getNext(), cfgNode, output, conditional);
-            addToDefIfLocal(name.getString(), conditional ? null : cfgNode,
+            addToDefIfLocal(name, conditional ? null : cfgNode,
               n.getLastChild(), output);
             return;
           } else if (NodeUtil.isGet(n.getFirstChild())) {
@@ -317,8 +315,7 @@ final class MustBeReachingVariableDef extends
         if (n.isDec() || n.isInc()) {
           Node target = n.getFirstChild();
           if (target.isName()) {
-            addToDefIfLocal(target.getString(),
-                conditional ? null : cfgNode, null, output);
+            addToDefIfLocal(target, conditional ? null : cfgNode, null, output);
             return;
           }
         }
@@ -333,12 +330,13 @@ final class MustBeReachingVariableDef extends
    * Set the variable lattice for the given name to the node value in the def
    * lattice. Do nothing if the variable name is one of the escaped variable.
    *
+   * @param name The NAME node that is assigned to.
    * @param node The CFG node where the definition should be record to.
    *     {@code null} if this is a conditional define.
    */
-  private void addToDefIfLocal(String name, @Nullable Node node,
+  private void addToDefIfLocal(Node name, @Nullable Node node,
       @Nullable Node rValue, MustDef def) {
-    Var var = jsScope.getVar(name);
+    Var var = jsScope.getVar(name.getString());
 
     // var might be null because the variable might be defined in the extern
     // that we might not traverse.
@@ -346,48 +344,63 @@ final class MustBeReachingVariableDef extends
       return;
     }
 
-    for (Var other : def.reachingDef.keySet()) {
-      Definition otherDef = def.reachingDef.get(other);
-      if (otherDef == null) {
-        continue;
-      }
-      if (otherDef.depends.contains(var)) {
-        def.reachingDef.put(other, null);
+    int[] reachingDef = def.reachingDef;
+    for (int i = 0; i < reachingDef.length; i++) {
+      int otherDef = reachingDef[i];
+      if (otherDef >= 0 && definitions.get(otherDef).depends.contains(var)) {
+        reachingDef[i] = MustDef.BOTTOM;
       }
     }
 
     if (!escaped.contains(var)) {
       if (node == null) {
-        def.reachingDef.put(var, null);
+        reachingDef[var.index] = MustDef.BOTTOM;
       } else {
-        Definition definition = new Definition(node);
-        if (rValue != null) {
-          computeDependence(definition, rValue);
-        }
-        def.reachingDef.put(var, definition);
+        reachingDef[var.index] = getDefinitionIndex(name, node, rValue);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of the definition made by {@code name}, creating the
+   * definition the first time, so that its dependences are only computed
+   * once however many times the analysis flows through it.
+   */
+  private int getDefinitionIndex(
+      Node name, Node node, @Nullable Node rValue) {
+    Integer index = definitionIndices.get(name);
+    if (index == null) {
+      Definition definition = new Definition(node);
+      if (rValue != null) {
+        computeDependence(definition, rValue);
       }
+      index = definitions.size();
+      definitions.add(definition);
+      definitionIndices.put(name, index);
     }
+    return index;
   }
 
   private void escapeParameters(MustDef output) {
+    int[] reachingDef = output.reachingDef;
     for (Iterator<Var> i = jsScope.getVars(); i.hasNext();) {
       Var v = i.next();
       if (isParameter(v)) {
         // Assume we no longer know where the parameter comes from
         // anymore.
-        output.reachingDef.put(v, null);
+        reachingDef[v.index] = MustDef.BOTTOM;
       }
     }
 
     // Also, assume we no longer know anything that depends on a parameter.
-    for (Entry<Var, Definition> pair : output.reachingDef.entrySet()) {
-      Definition value = pair.getValue();
-      if (value == null) {
+    for (int i = 0; i < reachingDef.length; i++) {
+      if (reachingDef[i] < 0) {
         continue;
       }
-      for (Var dep : value.depends) {
+      for (Var dep : definitions.get(reachingDef[i]).depends) {
         if (isParameter(dep)) {
-          output.reachingDef.put(pair.getKey(), null);
+          reachingDef[i] = MustDef.BOTTOM;
+          break;
         }
       }
     }
@@ -430,7 +443,12 @@ final class MustBeReachingVariableDef extends
     Preconditions.checkArgument(getCfg().hasNode(useNode));
     GraphNode<Node, Branch> n = getCfg().getNode(useNode);
     FlowState<MustDef> state = n.getAnnotation();
-    return state.getIn().reachingDef.get(jsScope.getVar(name));
+    Var var = jsScope.getVar(name);
+    if (var == null || var.scope != jsScope) {
+      return null;
+    }
+    int def = state.getIn().reachingDef[var.index];
+    return def >= 0 ? definitions.get(def) : null;
   }
 
   Node getDefNode(String name, Node useNode) {
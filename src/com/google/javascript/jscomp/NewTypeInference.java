@@ -18,6 +18,8 @@ package com.google.javascript.jscomp;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.LinkedHashMultimap;
@@ -50,6 +52,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * New type inference algorithm.
@@ -245,7 +254,17 @@ final class NewTypeInference implements CompilerPass {
 
   public static class WarningReporter {
     AbstractCompiler compiler;
-    WarningReporter(AbstractCompiler compiler) { this.compiler = compiler; }
+    // When not null, the warnings are kept here until they are flushed.
+    private final List<JSError> buffer;
+
+    WarningReporter(AbstractCompiler compiler) {
+      this(compiler, false);
+    }
+
+    private WarningReporter(AbstractCompiler compiler, boolean buffered) {
+      this.compiler = compiler;
+      this.buffer = buffered ? new ArrayList<JSError>() : null;
+    }
 
     void add(JSError warning) {
       // We check the file name to avoid some warnings in code generated
@@ -255,7 +274,18 @@ final class NewTypeInference implements CompilerPass {
           || JSType.mockToString) {
         return;
       }
-      compiler.report(warning);
+      if (buffer != null) {
+        buffer.add(warning);
+      } else {
+        compiler.report(warning);
+      }
+    }
+
+    private void flush() {
+      for (JSError warning : buffer) {
+        compiler.report(warning);
+      }
+      buffer.clear();
     }
   }
 
@@ -282,6 +312,7 @@ final class NewTypeInference implements CompilerPass {
   private final Map<String, AssertionFunctionSpec> assertionFunctionsMap;
   private static final QualifiedName NUMERIC_INDEX = new QualifiedName("0");
   private final boolean isClosurePassOn;
+  private final int threadCount;
 
   // Used only for development
   private static boolean showDebuggingPrints = false;
@@ -303,6 +334,26 @@ final class NewTypeInference implements CompilerPass {
       assertionFunctionsMap.put(assertionFunction.getFunctionName(),
           assertionFunction);
     }
+    this.threadCount = compiler.getOptions().typeInferenceThreadCount;
+  }
+
+  /**
+   * Creates an analyzer for a single scope, which shares the summaries of
+   * {@code parent} and keeps its warnings and deferred checks to itself.
+   */
+  private NewTypeInference(NewTypeInference parent) {
+    this.warnings = new WarningReporter(parent.compiler, true);
+    this.compiler = parent.compiler;
+    this.convention = parent.convention;
+    this.envs = new LinkedHashMap<>();
+    this.summaries = parent.summaries;
+    this.deferredChecks = new LinkedHashMap<>();
+    this.isClosurePassOn = parent.isClosurePassOn;
+    this.ABSTRACT_METHOD_NAME = parent.ABSTRACT_METHOD_NAME;
+    this.assertionFunctionsMap = parent.assertionFunctionsMap;
+    this.symbolTable = parent.symbolTable;
+    this.commonTypes = parent.commonTypes;
+    this.threadCount = 1;
   }
 
   @VisibleForTesting // Only used from tests
@@ -316,9 +367,13 @@ final class NewTypeInference implements CompilerPass {
     try {
       this.symbolTable = compiler.getSymbolTable();
       this.commonTypes = symbolTable.getTypesUtilObject();
-      for (Scope scope : symbolTable.getScopes()) {
-        analyzeFunction(scope);
-        envs.clear();
+      if (threadCount > 1) {
+        analyzeFunctionsInParallel();
+      } else {
+        for (Scope scope : symbolTable.getScopes()) {
+          analyzeFunction(scope);
+          envs.clear();
+        }
       }
       for (DeferredCheck check : deferredChecks.values()) {
         check.runCheck(summaries, warnings);
@@ -335,6 +390,85 @@ final class NewTypeInference implements CompilerPass {
     }
   }
 
+  /**
+   * Analyzes the scopes on a pool of threads. The scopes come inner to outer,
+   * and a scope reads the summaries of the functions defined in it, so each
+   * scope is analyzed once the scopes nested in it are done. Calls to other
+   * functions are checked against their summaries by the deferred checks,
+   * which run after all scopes. The warnings and deferred checks of each scope
+   * are applied in the serial order, so the result does not depend on how the
+   * analyses are scheduled.
+   */
+  private void analyzeFunctionsInParallel() throws Exception {
+    List<Scope> scopes = ImmutableList.copyOf(symbolTable.getScopes());
+    Map<Scope, Integer> pendingInnerScopes = new LinkedHashMap<>();
+    for (Scope scope : scopes) {
+      pendingInnerScopes.put(scope, 0);
+    }
+    for (Scope scope : scopes) {
+      Scope outer = scope.getParent();
+      if (outer != null && pendingInnerScopes.containsKey(outer)) {
+        pendingInnerScopes.put(outer, pendingInnerScopes.get(outer) + 1);
+      }
+    }
+
+    this.summaries = new ConcurrentHashMap<>();
+    Map<Scope, NewTypeInference> analyzers = new LinkedHashMap<>();
+    Map<Future<NewTypeInference>, Scope> running = new LinkedHashMap<>();
+    ExecutorService executor = Compiler.newWorkerPool(
+        "jscompiler-nti", Math.min(threadCount, scopes.size()));
+    try {
+      CompletionService<NewTypeInference> completionService =
+          new ExecutorCompletionService<>(executor);
+      for (Scope scope : scopes) {
+        if (pendingInnerScopes.get(scope) == 0) {
+          running.put(submitAnalysis(completionService, scope), scope);
+        }
+      }
+      while (!running.isEmpty()) {
+        Future<NewTypeInference> done = completionService.take();
+        Scope scope = running.remove(done);
+        try {
+          analyzers.put(scope, done.get());
+        } catch (ExecutionException e) {
+          this.currentScope = scope;
+          Throwables.propagateIfInstanceOf(e.getCause(), Exception.class);
+          throw Throwables.propagate(e.getCause());
+        }
+        Scope outer = scope.getParent();
+        if (outer != null && pendingInnerScopes.containsKey(outer)) {
+          int pending = pendingInnerScopes.get(outer) - 1;
+          pendingInnerScopes.put(outer, pending);
+          if (pending == 0) {
+            running.put(submitAnalysis(completionService, outer), outer);
+          }
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    for (Scope scope : scopes) {
+      NewTypeInference analyzer = analyzers.get(scope);
+      analyzer.warnings.flush();
+      deferredChecks.putAll(analyzer.deferredChecks);
+    }
+  }
+
+  private Future<NewTypeInference> submitAnalysis(
+      CompletionService<NewTypeInference> completionService,
+      final Scope scope) {
+    final NewTypeInference analyzer = new NewTypeInference(this);
+    return completionService.submit(new Callable<NewTypeInference>() {
+      @Override
+      public NewTypeInference call() {
+        analyzer.analyzeFunction(scope);
+        analyzer.envs.clear();
+        return analyzer;
+      }
+    });
+  }
+
   static void updatePeakMem() {
     Runtime rt = Runtime.getRuntime();
     long currentUsedMem = (rt.totalMemory() - rt.freeMemory()) / (1024 * 1024);
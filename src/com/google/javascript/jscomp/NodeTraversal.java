@@ -25,6 +25,7 @@ import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -513,12 +514,26 @@ public class NodeTraversal {
    * places where this happens unless a bug is triggered.
    * Passes that do cross-scope modifications call
    * Compiler.reportChangeToEnclosingScope(Node n).
+   *
+   * <p>Inside optimization loops the changed scopes are looked up in the
+   * index kept by the PhaseOptimizer, and visited in the order they changed,
+   * instead of walking the whole AST.
    */
   public static void traverseChangedFunctions(
       AbstractCompiler compiler, FunctionCallback callback) {
     final AbstractCompiler comp = compiler;
     final FunctionCallback cb = callback;
     final Node jsRoot = comp.getJsRoot();
+    List<Node> changedRoots = comp.getChangedScopeRoots();
+    if (changedRoots != null) {
+      for (Node root : changedRoots) {
+        // An earlier callback may have removed the function.
+        if (NodeUtil.isDescendantOf(root, jsRoot)) {
+          cb.visit(comp, root);
+        }
+      }
+      return;
+    }
     NodeTraversal t = new NodeTraversal(comp, new AbstractPreOrderCallback() {
         @Override
         public final boolean shouldTraverse(NodeTraversal t, Node n, Node p) {
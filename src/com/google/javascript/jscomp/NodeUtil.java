@@ -3941,6 +3941,16 @@ public final class NodeUtil {
         Predicates.<Node>alwaysTrue());
   }
 
+  /** Whether {@code ancestor} is {@code n} or one of its ancestors. */
+  static boolean isDescendantOf(Node n, Node ancestor) {
+    for (; n != null; n = n.getParent()) {
+      if (n == ancestor) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   static int countAstSizeUpToLimit(Node n, final int limit) {
     // Java doesn't allow accessing mutable local variables from another class.
     final int[] wrappedSize = {0};
@@ -16,14 +16,30 @@
 
 package com.google.javascript.jscomp;
 
+import com.google.common.base.Predicates;
+import com.google.common.base.Throwables;
+import com.google.javascript.jscomp.AbstractPeepholeOptimization.ThreadReport;
 import com.google.javascript.jscomp.NodeTraversal.AbstractShallowCallback;
 import com.google.javascript.jscomp.NodeTraversal.FunctionCallback;
 import com.google.javascript.rhino.Node;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
 /**
  * A compiler pass to run various peephole optimizations (e.g. constant folding,
  * some useless code removal, some minimizations).
  *
+ * <p>The optimizations only look at and change the function they run on, so
+ * when {@link CompilerOptions#peepholeThreadCount} is above one, the changed
+ * functions are optimized on several threads.
+ *
  * @author dcc@google.com (Devin Coughlin)
  */
 class PeepholeOptimizationsPass implements CompilerPass {
@@ -53,6 +69,11 @@ class PeepholeOptimizationsPass implements CompilerPass {
 
   @Override
   public void process(Node externs, Node root) {
+    int threadCount = compiler.getOptions().peepholeThreadCount;
+    if (threadCount > 1) {
+      processInParallel(threadCount);
+      return;
+    }
     compiler.addChangeHandler(handler);
     beginTraversal();
     NodeTraversal.traverseChangedFunctions(compiler, new FunctionCallback() {
@@ -71,6 +92,126 @@ class PeepholeOptimizationsPass implements CompilerPass {
     compiler.removeChangeHandler(handler);
   }
 
+  /**
+   * Optimizes the changed functions on a pool of threads. The functions are
+   * taken in waves by the number of changed functions around them, so that the
+   * functions of a wave are disjoint subtrees and outer functions are done
+   * before inner ones. The changes and errors of each function are reported on
+   * the compiler thread after its wave, in the order the functions changed.
+   */
+  private void processInParallel(int threadCount) {
+    final Node jsRoot = compiler.getJsRoot();
+    List<Node> roots = compiler.getChangedScopeRoots();
+    if (roots == null) {
+      roots = getAllScopeRoots(jsRoot);
+    }
+    if (roots.isEmpty()) {
+      return;
+    }
+    Set<Node> rootSet = new HashSet<>(roots);
+    List<List<Node>> waves = new ArrayList<>();
+    for (Node root : roots) {
+      int depth = 0;
+      for (Node n = root.getParent(); n != null; n = n.getParent()) {
+        if (rootSet.contains(n)) {
+          depth++;
+        }
+      }
+      while (waves.size() <= depth) {
+        waves.add(new ArrayList<Node>());
+      }
+      waves.get(depth).add(root);
+    }
+
+    ThreadLocal<ThreadReport> threadReports = new ThreadLocal<>();
+    for (AbstractPeepholeOptimization optimization : peepholeOptimizations) {
+      optimization.beginTraversal(compiler, threadReports);
+    }
+    ExecutorService executor = Compiler.newWorkerPool(
+        "jscompiler-peephole", Math.min(threadCount, roots.size()));
+    try {
+      for (List<Node> wave : waves) {
+        List<Node> started = new ArrayList<>();
+        List<Future<ThreadReport>> reports = new ArrayList<>();
+        for (Node root : wave) {
+          // An outer function of an earlier wave may have removed it.
+          if (NodeUtil.isDescendantOf(root, jsRoot)) {
+            started.add(root);
+            reports.add(executor.submit(
+                new OptimizeScope(root, threadReports)));
+          }
+        }
+        for (int i = 0; i < started.size(); i++) {
+          ThreadReport report;
+          try {
+            report = reports.get(i).get();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+          } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+          }
+          for (JSError error : report.errors) {
+            compiler.report(error);
+          }
+          if (report.codeChanged) {
+            Node root = started.get(i);
+            compiler.reportChangeToEnclosingScope(
+                root.isFunction() ? root.getLastChild() : root);
+          }
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+      endTraversal();
+    }
+  }
+
+  /** Returns the root of the source tree and all its functions, in order. */
+  private static List<Node> getAllScopeRoots(Node jsRoot) {
+    final List<Node> roots = new ArrayList<>();
+    roots.add(jsRoot);
+    NodeUtil.visitPreOrder(jsRoot, new NodeUtil.Visitor() {
+      @Override
+      public void visit(Node n) {
+        if (n.isFunction()) {
+          roots.add(n);
+        }
+      }
+    }, Predicates.<Node>alwaysTrue());
+    return roots;
+  }
+
+  /** Optimizes one scope on a worker thread. */
+  private class OptimizeScope implements Callable<ThreadReport> {
+    private final Node root;
+    private final ThreadLocal<ThreadReport> threadReports;
+
+    OptimizeScope(Node root, ThreadLocal<ThreadReport> threadReports) {
+      this.root = root;
+      this.threadReports = threadReports;
+    }
+
+    @Override
+    public ThreadReport call() {
+      ThreadReport report = new ThreadReport();
+      threadReports.set(report);
+      try {
+        Node body = root.isFunction() ? root.getLastChild() : root;
+        boolean codeChanged = false;
+        do {
+          report.codeChanged = false;
+          NodeTraversal.traverse(compiler, body, new PeepCallback());
+          codeChanged |= report.codeChanged;
+        } while (retraverseOnChange && report.codeChanged);
+        report.codeChanged = codeChanged;
+        return report;
+      } finally {
+        threadReports.remove();
+      }
+    }
+  }
+
   private class PeepCallback extends AbstractShallowCallback {
     @Override
     public void visit(NodeTraversal t, Node n, Node parent) {
@@ -20,9 +20,14 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
 import com.google.javascript.jscomp.CompilerOptions.TracerMode;
+import com.google.javascript.jscomp.CompilerOptions.TracerOutputFormat;
 import com.google.javascript.rhino.Node;
+import com.google.javascript.rhino.jstype.JSTypeRegistry;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -37,19 +42,40 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.GZIPOutputStream;
 
+import javax.annotation.Nullable;
+
 /**
  * A PerformanceTracker collects statistics about the runtime of each pass, and
  * how much a pass impacts the size of the compiled output, before and after
  * gzip.
  *
+ * <p>It also records the CPU time and the bytes allocated by the thread that
+ * runs each pass, and the garbage collections that happened while the pass
+ * ran. These are -1 when the JVM does not measure them. It records how many
+ * steps the data flow analyses of each pass took, and logs the analyses that
+ * took the most steps with the function they ran on. Once the type registry
+ * is known, it also records how many of the subtyping questions each pass
+ * asked were answered from the registry's cache. The statistics can be
+ * reported as text, as JSON or in the Prometheus text exposition format,
+ * see {@link TracerOutputFormat}.
+ *
  * @author dimvar@google.com (Dimitris Vardoulakis)
  */
 public final class PerformanceTracker {
 
   private static final int DEFAULT_WHEN_SIZE_UNTRACKED = -1;
 
+  private static final String PROMETHEUS_PREFIX = "closure_compiler_pass_";
+
+  /** The number of data flow analyses kept in the data flow log. */
+  @VisibleForTesting
+  static final int MAX_DATA_FLOW_LOG_SIZE = 100;
+
   private final Node jsRoot;
   private final boolean trackSize;
   private final boolean trackGzSize;
@@ -62,10 +88,20 @@ public final class PerformanceTracker {
   private int initGzCodeSize = DEFAULT_WHEN_SIZE_UNTRACKED;
 
   private int runtime = 0;
+  private long cpuTime = 0;
+  private long allocatedBytes = 0;
+  private long gcCount = 0;
+  private long gcTime = 0;
   private int runs = 0;
   private int changes = 0;
   private int loopRuns = 0;
   private int loopChanges = 0;
+  private long subtypeCacheHits = 0;
+  private long subtypeCacheMisses = 0;
+  private long dataFlowSteps = 0;
+
+  // The registry whose subtype cache is tracked, or null.
+  private JSTypeRegistry typeRegistry;
 
   // The following fields for tracking size changes are just estimates.
   // They do not take into account preserved license blocks, newline padding,
@@ -78,6 +114,9 @@ public final class PerformanceTracker {
 
   private final Deque<Stats> currentPass = new ArrayDeque<>();
 
+  /** The resource usage when each pass in {@code currentPass} started. */
+  private final Deque<ResourceUsage> currentPassStart = new ArrayDeque<>();
+
   /** Summary stats by pass name. */
   private final Map<String, Stats> summary = new HashMap<>();
 
@@ -87,6 +126,16 @@ public final class PerformanceTracker {
   /** Stats for each run of a compiler pass. */
   private final List<Stats> log = new ArrayList<>();
 
+  // Whether the most expensive data flow analyses are logged.
+  private boolean logDataFlow = true;
+
+  /**
+   * The {@link #MAX_DATA_FLOW_LOG_SIZE} data flow analyses that took the most
+   * steps, cheapest first. The steps of all of them are in the pass stats.
+   */
+  private final PriorityQueue<DataFlowStats> dataFlowLog = new PriorityQueue<>(
+      MAX_DATA_FLOW_LOG_SIZE, DataFlowStats.BY_STEPS);
+
   PerformanceTracker(Node jsRoot, TracerMode mode) {
     this.jsRoot = jsRoot;
     switch (mode) {
@@ -116,9 +165,53 @@ public final class PerformanceTracker {
     return codeChange;
   }
 
-  void recordPassStart(String passName, boolean isOneTime) {
+  /**
+   * Sets the type registry whose subtype cache is tracked. The passes that
+   * run before it is set ask no subtyping questions.
+   */
+  void setTypeRegistry(JSTypeRegistry typeRegistry) {
+    this.typeRegistry = typeRegistry;
+  }
+
+  /**
+   * Sets whether the data flow analyses that took the most steps are logged.
+   * Only the JSON report prints them.
+   */
+  synchronized void setLogDataFlow(boolean logDataFlow) {
+    this.logDataFlow = logDataFlow;
+    if (!logDataFlow) {
+      dataFlowLog.clear();
+    }
+  }
+
+  /**
+   * Records the number of steps a data flow analysis of the code at
+   * {@code root} took, as part of the pass that is running. The analyses of
+   * a pass may run on several threads.
+   */
+  synchronized void recordDataFlowSteps(
+      String analysis, @Nullable Node root, int steps) {
+    Stats pass = currentPass.peek();
+    if (pass != null) {
+      pass.dataFlowSteps += steps;
+    }
+    if (!logDataFlow) {
+      return;
+    }
+    if (dataFlowLog.size() == MAX_DATA_FLOW_LOG_SIZE) {
+      if (dataFlowLog.peek().steps >= steps) {
+        return;
+      }
+      dataFlowLog.poll();
+    }
+    dataFlowLog.add(new DataFlowStats(pass == null ? null : pass.pass,
+        analysis, root, steps));
+  }
+
+  synchronized void recordPassStart(String passName, boolean isOneTime) {
     currentPass.push(new Stats(passName, isOneTime));
     codeChange.reset();
+    currentPassStart.push(ResourceUsage.now(typeRegistry));
   }
 
   /**
@@ -128,7 +221,9 @@ public final class PerformanceTracker {
    * @param passName short name of the pass
    * @param runtime execution time in milliseconds
    */
-  void recordPassStop(String passName, long runtime) {
+  synchronized void recordPassStop(String passName, long runtime) {
+    ResourceUsage stop = ResourceUsage.now(typeRegistry);
+    ResourceUsage start = currentPassStart.pop();
     Stats logStats = currentPass.pop();
     Preconditions.checkState(passName.equals(logStats.pass));
 
@@ -155,6 +250,25 @@ public final class PerformanceTracker {
     logStats.runs = 1;
     summaryStats.runtime += runtime;
     summaryStats.runs += 1;
+    logStats.cpuTime = stop.cpuTime < 0 || start.cpuTime < 0
+        ? -1 : TimeUnit.NANOSECONDS.toMillis(stop.cpuTime - start.cpuTime);
+    logStats.allocatedBytes =
+        stop.allocatedBytes < 0 || start.allocatedBytes < 0
+        ? -1 : stop.allocatedBytes - start.allocatedBytes;
+    logStats.gcCount = stop.gcCount - start.gcCount;
+    logStats.gcTime = stop.gcTime - start.gcTime;
+    summaryStats.cpuTime = addMeasured(summaryStats.cpuTime, logStats.cpuTime);
+    summaryStats.allocatedBytes =
+        addMeasured(summaryStats.allocatedBytes, logStats.allocatedBytes);
+    summaryStats.gcCount += logStats.gcCount;
+    summaryStats.gcTime += logStats.gcTime;
+    logStats.subtypeCacheHits =
+        stop.subtypeCacheHits - start.subtypeCacheHits;
+    logStats.subtypeCacheMisses =
+        stop.subtypeCacheMisses - start.subtypeCacheMisses;
+    summaryStats.subtypeCacheHits += logStats.subtypeCacheHits;
+    summaryStats.subtypeCacheMisses += logStats.subtypeCacheMisses;
+    summaryStats.dataFlowSteps += logStats.dataFlowSteps;
     if (codeChange.hasCodeChanged()) {
       logStats.changes = 1;
       summaryStats.changes += 1;
@@ -193,6 +307,18 @@ public final class PerformanceTracker {
     return runtime;
   }
 
+  /** Returns the CPU time of all passes in milliseconds, or -1. */
+  public long getCpuTime() {
+    calcTotalStats();
+    return cpuTime;
+  }
+
+  /** Returns the bytes allocated by all passes, or -1. */
+  public long getAllocatedBytes() {
+    calcTotalStats();
+    return allocatedBytes;
+  }
+
   public int getSize() {
     calcTotalStats();
     return codeSize;
@@ -227,6 +353,16 @@ public final class PerformanceTracker {
     return loopRuns;
   }
 
+  /**
+   * Returns the data flow analyses that took the most steps, most expensive
+   * first. At most {@link #MAX_DATA_FLOW_LOG_SIZE} of them are kept.
+   */
+  public synchronized ImmutableList<DataFlowStats> getDataFlowStats() {
+    List<DataFlowStats> stats = new ArrayList<>(dataFlowLog);
+    Collections.sort(stats, Collections.reverseOrder(DataFlowStats.BY_STEPS));
+    return ImmutableList.copyOf(stats);
+  }
+
   public ImmutableMap<String, Stats> getStats() {
     calcTotalStats();
     return summaryCopy;
@@ -241,6 +377,13 @@ public final class PerformanceTracker {
     for (Entry<String, Stats> entry : summary.entrySet()) {
       Stats stats = entry.getValue();
       runtime += stats.runtime;
+      cpuTime = addMeasured(cpuTime, stats.cpuTime);
+      allocatedBytes = addMeasured(allocatedBytes, stats.allocatedBytes);
+      gcCount += stats.gcCount;
+      gcTime += stats.gcTime;
+      subtypeCacheHits += stats.subtypeCacheHits;
+      subtypeCacheMisses += stats.subtypeCacheMisses;
+      dataFlowSteps += stats.dataFlowSteps;
       runs += stats.runs;
       changes += stats.changes;
       if (!stats.isOneTime) {
@@ -255,6 +398,27 @@ public final class PerformanceTracker {
         || initGzCodeSize == gzDiff + gzCodeSize);
   }
 
+  /** Adds two measurements, either of which may be -1 for unmeasured. */
+  private static long addMeasured(long total, long value) {
+    return total < 0 || value < 0 ? -1 : total + value;
+  }
+
+  /** Prints the statistics in the given format. */
+  public void outputReport(PrintStream pstr, TracerOutputFormat format) {
+    switch (format) {
+      case JSON:
+        outputJsonReport(pstr);
+        break;
+      case PROMETHEUS:
+        outputPrometheusReport(pstr);
+        break;
+      case TEXT:
+      default:
+        outputTracerReport(pstr);
+        break;
+    }
+  }
+
   /**
    * Prints a summary, which contains aggregate stats for all runs of each pass
    * and a log, which contains stats for each individual run.
@@ -305,6 +469,219 @@ public final class PerformanceTracker {
     }
   }
 
+  /**
+   * Prints the totals, the summary, the log and the data flow analyses as a
+   * single JSON object. Times are in milliseconds and sizes in bytes.
+   */
+  public void outputJsonReport(PrintStream pstr) {
+    calcTotalStats();
+    JsonObject report = new JsonObject();
+    report.addProperty("runtime", runtime);
+    report.addProperty("cpuTime", cpuTime);
+    report.addProperty("allocatedBytes", allocatedBytes);
+    report.addProperty("gcCount", gcCount);
+    report.addProperty("gcTime", gcTime);
+    report.addProperty("subtypeCacheHits", subtypeCacheHits);
+    report.addProperty("subtypeCacheMisses", subtypeCacheMisses);
+    report.addProperty("dataFlowSteps", dataFlowSteps);
+    report.addProperty("runs", runs);
+    report.addProperty("changingRuns", changes);
+    report.addProperty("loopableRuns", loopRuns);
+    report.addProperty("changingLoopableRuns", loopChanges);
+    report.addProperty("reduction", diff);
+    report.addProperty("gzReduction", gzDiff);
+    report.addProperty("size", codeSize);
+    report.addProperty("gzSize", gzCodeSize);
+
+    JsonArray summaryArray = new JsonArray();
+    for (Stats stats : getSortedSummary()) {
+      summaryArray.add(toJson(stats));
+    }
+    report.add("summary", summaryArray);
+
+    JsonArray logArray = new JsonArray();
+    for (Stats stats : log) {
+      JsonObject run = toJson(stats);
+      run.addProperty("size", stats.size);
+      run.addProperty("gzSize", stats.gzSize);
+      logArray.add(run);
+    }
+    report.add("log", logArray);
+
+    JsonArray dataFlowArray = new JsonArray();
+    for (DataFlowStats stats : getDataFlowStats()) {
+      JsonObject analysis = new JsonObject();
+      analysis.addProperty("pass", stats.pass);
+      analysis.addProperty("analysis", stats.analysis);
+      analysis.addProperty("function", stats.function);
+      analysis.addProperty("location", stats.location);
+      analysis.addProperty("steps", stats.steps);
+      dataFlowArray.add(analysis);
+    }
+    report.add("dataFlow", dataFlowArray);
+
+    pstr.println(report);
+    pstr.flush();
+  }
+
+  /** Returns the summary stats ordered by pass name. */
+  private Iterable<Stats> getSortedSummary() {
+    return new TreeMap<>(summary).values();
+  }
+
+  private static JsonObject toJson(Stats stats) {
+    JsonObject json = new JsonObject();
+    json.addProperty("pass", stats.pass);
+    json.addProperty("isOneTime", stats.isOneTime);
+    json.addProperty("runtime", stats.runtime);
+    json.addProperty("cpuTime", stats.cpuTime);
+    json.addProperty("allocatedBytes", stats.allocatedBytes);
+    json.addProperty("gcCount", stats.gcCount);
+    json.addProperty("gcTime", stats.gcTime);
+    json.addProperty("subtypeCacheHits", stats.subtypeCacheHits);
+    json.addProperty("subtypeCacheMisses", stats.subtypeCacheMisses);
+    json.addProperty("dataFlowSteps", stats.dataFlowSteps);
+    json.addProperty("runs", stats.runs);
+    json.addProperty("changingRuns", stats.changes);
+    json.addProperty("reduction", stats.diff);
+    json.addProperty("gzReduction", stats.gzDiff);
+    return json;
+  }
+
+  /**
+   * Prints the summary in the Prometheus text exposition format, with one
+   * sample per pass for each metric. Metrics that the JVM does not measure
+   * are left out.
+   */
+  public void outputPrometheusReport(PrintStream pstr) {
+    calcTotalStats();
+    StringBuilder sb = new StringBuilder();
+    appendPrometheusMetric(sb, "runtime_seconds_total", "counter",
+        "Wall time spent in the pass.", new StatsValue() {
+          @Override
+          public Number get(Stats stats) {
+            return stats.runtime / 1000.0;
+          }
+        });
+    if (cpuTime >= 0) {
+      appendPrometheusMetric(sb, "cpu_seconds_total", "counter",
+          "CPU time of the thread that ran the pass.", new StatsValue() {
+            @Override
+            public Number get(Stats stats) {
+              return stats.cpuTime / 1000.0;
+            }
+          });
+    }
+    if (allocatedBytes >= 0) {
+      appendPrometheusMetric(sb, "allocated_bytes_total", "counter",
+          "Bytes allocated by the thread that ran the pass.",
+          new StatsValue() {
+            @Override
+            public Number get(Stats stats) {
+              return stats.allocatedBytes;
+            }
+          });
+    }
+    appendPrometheusMetric(sb, "gc_collections_total", "counter",
+        "Garbage collections while the pass ran.", new StatsValue() {
+          @Override
+          public Number get(Stats stats) {
+            return stats.gcCount;
+          }
+        });
+    appendPrometheusMetric(sb, "gc_seconds_total", "counter",
+        "Time spent in garbage collection while the pass ran.",
+        new StatsValue() {
+          @Override
+          public Number get(Stats stats) {
+            return stats.gcTime / 1000.0;
+          }
+        });
+    if (typeRegistry != null) {
+      appendPrometheusMetric(sb, "subtype_cache_hits_total", "counter",
+          "Subtyping questions answered from the type registry's cache.",
+          new StatsValue() {
+            @Override
+            public Number get(Stats stats) {
+              return stats.subtypeCacheHits;
+            }
+          });
+      appendPrometheusMetric(sb, "subtype_cache_misses_total", "counter",
+          "Subtyping questions the type registry had to compute.",
+          new StatsValue() {
+            @Override
+            public Number get(Stats stats) {
+              return stats.subtypeCacheMisses;
+            }
+          });
+    }
+    appendPrometheusMetric(sb, "data_flow_steps_total", "counter",
+        "Nodes visited by the data flow analyses of the pass.",
+        new StatsValue() {
+          @Override
+          public Number get(Stats stats) {
+            return stats.dataFlowSteps;
+          }
+        });
+    appendPrometheusMetric(sb, "runs_total", "counter",
+        "Number of times the pass ran.", new StatsValue() {
+          @Override
+          public Number get(Stats stats) {
+            return stats.runs;
+          }
+        });
+    appendPrometheusMetric(sb, "changing_runs_total", "counter",
+        "Number of runs of the pass that changed the AST.", new StatsValue() {
+          @Override
+          public Number get(Stats stats) {
+            return stats.changes;
+          }
+        });
+    if (trackSize) {
+      appendPrometheusMetric(sb, "reduction_bytes", "gauge",
+          "Estimated reduction of the code size by the pass.",
+          new StatsValue() {
+            @Override
+            public Number get(Stats stats) {
+              return stats.diff;
+            }
+          });
+    }
+    if (trackGzSize) {
+      appendPrometheusMetric(sb, "gz_reduction_bytes", "gauge",
+          "Estimated reduction of the gzipped code size by the pass.",
+          new StatsValue() {
+            @Override
+            public Number get(Stats stats) {
+              return stats.gzDiff;
+            }
+          });
+    }
+    pstr.print(sb);
+    pstr.flush();
+  }
+
+  private interface StatsValue {
+    Number get(Stats stats);
+  }
+
+  private void appendPrometheusMetric(StringBuilder sb, String name,
+      String type, String help, StatsValue value) {
+    String metric = PROMETHEUS_PREFIX + name;
+    sb.append("# HELP ").append(metric).append(' ').append(help).append('\n');
+    sb.append("# TYPE ").append(metric).append(' ').append(type).append('\n');
+    for (Stats stats : getSortedSummary()) {
+      sb.append(metric).append("{pass=\"")
+          .append(escapePrometheusLabel(stats.pass)).append("\"} ")
+          .append(value.get(stats)).append('\n');
+    }
+  }
+
+  private static String escapePrometheusLabel(String label) {
+    return label.replace("\\", "\\\\").replace("\"", "\\\"")
+        .replace("\n", "\\n");
+  }
+
   /**
    * A Stats object contains statistics about a pass run, such as running time,
    * size changes, etc
@@ -317,6 +694,19 @@ public final class PerformanceTracker {
     public final String pass;
     public final boolean isOneTime;
     public long runtime = 0;
+    /** CPU time in milliseconds, or -1 if it is not measured. */
+    public long cpuTime = 0;
+    /** Allocated bytes, or -1 if they are not measured. */
+    public long allocatedBytes = 0;
+    public long gcCount = 0;
+    /** Garbage collection time in milliseconds. */
+    public long gcTime = 0;
+    /** Subtyping questions answered from the type registry's cache. */
+    public long subtypeCacheHits = 0;
+    /** Subtyping questions the type registry had to compute. */
+    public long subtypeCacheMisses = 0;
+    /** Nodes visited by the data flow analyses of the pass. */
+    public long dataFlowSteps = 0;
     public int runs = 0;
     public int changes = 0;
     public int diff = 0;
@@ -325,6 +715,73 @@ public final class PerformanceTracker {
     public int gzSize;
   }
 
+  /** The steps a data flow analysis of one function took. */
+  public static final class DataFlowStats {
+    static final Comparator<DataFlowStats> BY_STEPS =
+        new Comparator<DataFlowStats>() {
+          @Override
+          public int compare(DataFlowStats a, DataFlowStats b) {
+            return Integer.compare(a.steps, b.steps);
+          }
+        };
+
+    /** The pass that ran the analysis, or null if no pass was running. */
+    public final String pass;
+    public final String analysis;
+    /** The name of the function, {@code <anonymous>} or {@code <global>}. */
+    public final String function;
+    /** The source file and line of the function. */
+    public final String location;
+    public final int steps;
+
+    DataFlowStats(
+        String pass, String analysis, @Nullable Node root, int steps) {
+      this.pass = pass;
+      this.analysis = analysis;
+      this.steps = steps;
+      Node function = root;
+      if (function != null && !function.isFunction()
+          && function.getParent() != null
+          && function.getParent().isFunction()) {
+        // The analysis ran on the body of the function.
+        function = function.getParent();
+      }
+      if (function == null || !function.isFunction()) {
+        this.function = "<global>";
+      } else {
+        String name = NodeUtil.getNearestFunctionName(function);
+        this.function = name == null ? "<anonymous>" : name;
+      }
+      this.location = root == null || root.getSourceFileName() == null
+          ? "" : root.getSourceFileName() + ":" + root.getLineno();
+    }
+  }
+
+  /** The resources used by the compiler at one point in time. */
+  private static final class ResourceUsage {
+    final long cpuTime;
+    final long allocatedBytes;
+    final long gcCount;
+    final long gcTime;
+    final long subtypeCacheHits;
+    final long subtypeCacheMisses;
+
+    private ResourceUsage(JSTypeRegistry typeRegistry) {
+      this.cpuTime = JvmMetrics.getCurrentThreadCpuTime();
+      this.allocatedBytes = JvmMetrics.getCurrentThreadAllocatedBytes();
+      this.gcCount = JvmMetrics.getGarbageCollectionCount();
+      this.gcTime = JvmMetrics.getGarbageCollectionTime();
+      this.subtypeCacheHits = typeRegistry == null
+          ? 0 : typeRegistry.getSubtypeCacheHitCount();
+      this.subtypeCacheMisses = typeRegistry == null
+          ? 0 : typeRegistry.getSubtypeCacheMissCount();
+    }
+
+    static ResourceUsage now(JSTypeRegistry typeRegistry) {
+      return new ResourceUsage(typeRegistry);
+    }
+  }
+
   /** An object to get a gzsize estimate; it doesn't generate code. */
   private final class CodeSizeEstimatePrinter extends CodeConsumer {
     private int size = 0;
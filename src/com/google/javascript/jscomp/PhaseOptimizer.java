@@ -24,6 +24,8 @@ import com.google.javascript.rhino.Node;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -43,6 +45,7 @@ class PhaseOptimizer implements CompilerPass {
   private final PerformanceTracker tracker;
   private final List<CompilerPass> passes;
   private boolean inLoop;
+  private Thread loopThread;
   private PassFactory sanityCheck;
   private boolean printAstHashcodes = false;
 
@@ -58,6 +61,10 @@ class PhaseOptimizer implements CompilerPass {
   // For each pass, remember the time at the end of the pass's last run.
   private Map<NamedPass, Integer> lastRuns;
   private Node currentScope;
+  // The scope roots changed during the current loop, ordered by the time of
+  // their last change. Lets passes that only look at changed functions find
+  // them without walking the whole AST.
+  private final Set<Node> changedScopeRoots = new LinkedHashSet<>();
   // Starts at 0, increases as "interesting" things happen.
   // Nothing happens at time START_TIME, the first pass starts at time 1.
   // The correctness of scope-change tracking relies on Node/getIntProp
@@ -178,6 +185,28 @@ class PhaseOptimizer implements CompilerPass {
     return loop;
   }
 
+  /**
+   * Drops the passes that come before the pass with the given name, so that
+   * processing resumes there. Used when continuing a compilation from a
+   * state saved by {@link Compiler#saveState}. If the pass is part of a
+   * fixed point loop, the whole loop is run.
+   *
+   * @throws IllegalArgumentException if no pass has the given name
+   */
+  void resumeAt(String passName) {
+    for (int i = 0; i < passes.size(); i++) {
+      CompilerPass pass = passes.get(i);
+      boolean found = pass instanceof NamedPass
+          ? ((NamedPass) pass).name.equals(passName)
+          : ((Loop) pass).myNames.contains(passName);
+      if (found) {
+        passes.subList(0, i).clear();
+        return;
+      }
+    }
+    throw new IllegalArgumentException("No pass named " + passName);
+  }
+
   /**
    * Adds a sanity checker to be run after every pass. Intended for development.
    */
@@ -317,7 +346,9 @@ class PhaseOptimizer implements CompilerPass {
 
   void setScope(Node n) {
     // NodeTraversal causes setScope calls outside loops; ignore them.
-    if (inLoop) {
+    // Passes that traverse functions on worker threads report the changes to
+    // those functions themselves; ignore their calls too.
+    if (inLoop && Thread.currentThread() == loopThread) {
       // Find the top-level node in the scope.
       currentScope = n.isFunction() ? n : getEnclosingScope(n);
     }
@@ -334,6 +365,68 @@ class PhaseOptimizer implements CompilerPass {
         || n.getChangeTime() > timeOfLastRun;
   }
 
+  /**
+   * Returns the scope roots that changed since the current pass last ran,
+   * ordered by the time of their last change, or null if the pass must look
+   * at all scopes.
+   */
+  List<Node> getChangedScopeRoots() {
+    if (!inLoop) {
+      return null;
+    }
+    int timeOfLastRun = lastRuns.get(currentPass);
+    if (timeOfLastRun == START_TIME) {
+      return null;
+    }
+    Set<Node> roots = new LinkedHashSet<>();
+    for (Node root : changedScopeRoots) {
+      if (root.getChangeTime() > timeOfLastRun
+          && NodeUtil.isDescendantOf(root, jsRoot)) {
+        roots.add(root);
+      }
+    }
+    // Cloned functions carry the change time of the original, but only the
+    // scope they were added to is reported as changed.
+    for (Node root : ImmutableList.copyOf(roots)) {
+      addChangedInnerFunctions(root, timeOfLastRun, roots);
+    }
+    return ImmutableList.copyOf(roots);
+  }
+
+  private void addChangedInnerFunctions(Node n, int since, Set<Node> roots) {
+    for (Node child = n.getFirstChild(); child != null;
+         child = child.getNext()) {
+      if (!child.isFunction()) {
+        addChangedInnerFunctions(child, since, roots);
+      } else if (child.getChangeTime() > since && roots.add(child)) {
+        addChangedInnerFunctions(child, since, roots);
+      }
+    }
+  }
+
+  private void markChanged(Node scopeRoot) {
+    lastChange = timestamp;
+    scopeRoot.setChangeTime(timestamp);
+    changedScopeRoots.remove(scopeRoot);
+    changedScopeRoots.add(scopeRoot);
+    // Every code change happens at a different time
+    timestamp++;
+  }
+
+  /**
+   * Forgets the changes that every pass of the current loop has already seen.
+   */
+  private void pruneChangedScopeRoots() {
+    int oldestRun = Integer.MAX_VALUE;
+    for (int time : lastRuns.values()) {
+      oldestRun = Math.min(oldestRun, time);
+    }
+    Iterator<Node> it = changedScopeRoots.iterator();
+    while (it.hasNext() && it.next().getChangeTime() <= oldestRun) {
+      it.remove();
+    }
+  }
+
   private Node getEnclosingScope(Node n) {
     while (n != jsRoot && n.getParent() != null) {
       n = n.getParent();
@@ -345,10 +438,7 @@ class PhaseOptimizer implements CompilerPass {
   }
 
   void reportChangeToEnclosingScope(Node n) {
-    lastChange = timestamp;
-    getEnclosingScope(n).setChangeTime(timestamp);
-    // Every code change happens at a different time
-    timestamp++;
+    markChanged(getEnclosingScope(n));
   }
 
   /**
@@ -382,10 +472,7 @@ class PhaseOptimizer implements CompilerPass {
         // do nothing.
         return;
       }
-      lastChange = timestamp;
-      currentScope.setChangeTime(timestamp);
-      // Every code change happens at a different time
-      timestamp++;
+      markChanged(currentScope);
     }
 
     private boolean hasCodeChangedSinceLastCall() {
@@ -422,6 +509,7 @@ class PhaseOptimizer implements CompilerPass {
     public void process(Node externs, Node root) {
       Preconditions.checkState(!inLoop, "Nested loops are forbidden");
       inLoop = true;
+      loopThread = Thread.currentThread();
       optimizePasses();
 
       // Set up function-change tracking
@@ -458,6 +546,7 @@ class PhaseOptimizer implements CompilerPass {
               pass.process(externs, root);
               runInPrevIter.add(pass);
               lastRuns.put(pass, timestamp);
+              pruneChangedScopeRoots();
               if (hasHaltingErrors()) {
                 return;
               } else if (scopeHandler.hasCodeChangedSinceLastCall()) {
@@ -485,6 +574,8 @@ class PhaseOptimizer implements CompilerPass {
         }
       } finally {
         inLoop = false;
+        loopThread = null;
+        changedScopeRoots.clear();
         compiler.removeChangeHandler(scopeHandler);
       }
     }
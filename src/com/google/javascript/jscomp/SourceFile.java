@@ -30,8 +30,12 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.Serializable;
 import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 
 /**
@@ -170,6 +174,20 @@ public class SourceFile implements StaticSourceFile, Serializable {
     return code != null;
   }
 
+  /**
+   * Called once the code has been parsed. Source files that can get the code
+   * again cheaply may drop it here; by default it is kept.
+   */
+  void releaseParsedSource() {}
+
+  /**
+   * Returns the length of the code, or of the file it is read from if it is
+   * not in memory, so that measuring a file does not read it.
+   */
+  long getSizeHint() throws IOException {
+    return getCode().length();
+  }
+
   /** Returns a unique name for the source file. */
   @Override
   public String getName() {
@@ -265,8 +283,7 @@ public class SourceFile implements StaticSourceFile, Serializable {
       return null;
     }
     int pos = 0;
-    int startLine = Math.max(1,
-        lineNumber - (SOURCE_EXCERPT_REGION_LENGTH + 1) / 2 + 1);
+    int startLine = getRegionStartLine(lineNumber);
     for (int n = 1; n < startLine; n++) {
       int nextpos = js.indexOf('\n', pos);
       if (nextpos == -1) {
@@ -274,6 +291,20 @@ public class SourceFile implements StaticSourceFile, Serializable {
       }
       pos = nextpos + 1;
     }
+    return getRegion(js, pos, startLine, lineNumber);
+  }
+
+  private static int getRegionStartLine(int lineNumber) {
+    return Math.max(1,
+        lineNumber - (SOURCE_EXCERPT_REGION_LENGTH + 1) / 2 + 1);
+  }
+
+  /**
+   * Gets the region around the given line number from the code, where
+   * {@code pos} is the offset in the code of the region's first line.
+   */
+  private static Region getRegion(
+      String js, int pos, int startLine, int lineNumber) {
     int end = pos;
     int endLine = startLine;
     for (int n = 0; n < SOURCE_EXCERPT_REGION_LENGTH; n++, endLine++) {
@@ -320,6 +351,15 @@ public class SourceFile implements StaticSourceFile, Serializable {
     return builder().buildFromFile(file);
   }
 
+  /**
+   * Creates a source file whose code is memory-mapped rather than read into
+   * the heap, and dropped once it has been parsed. The file must not change
+   * during the compilation.
+   */
+  public static SourceFile fromMappedFile(String fileName, Charset c) {
+    return builder().withCharset(c).buildFromMappedFile(new File(fileName));
+  }
+
   public static SourceFile fromCode(String fileName, String code) {
     return builder().buildFromCode(fileName, code);
   }
@@ -379,6 +419,10 @@ public class SourceFile implements StaticSourceFile, Serializable {
       return new OnDisk(file, originalPath, charset);
     }
 
+    public SourceFile buildFromMappedFile(File file) {
+      return new Mapped(file, originalPath, charset);
+    }
+
     public SourceFile buildFromCode(String fileName, String code) {
       return new Preloaded(fileName, originalPath, code);
     }
@@ -505,6 +549,11 @@ public class SourceFile implements StaticSourceFile, Serializable {
       super.setCode(null);
     }
 
+    @Override
+    long getSizeHint() throws IOException {
+      return hasSourceInMemory() ? super.getSizeHint() : file.length();
+    }
+
     /**
      * Store the Charset specification as the string version of the name,
      * rather than the Charset itself.  This allows us to serialize the
@@ -525,4 +574,185 @@ public class SourceFile implements StaticSourceFile, Serializable {
       return Charset.forName(inputCharset);
     }
   }
+
+  /**
+   * A source file that is memory-mapped rather than read into the heap. The
+   * code is decoded for parsing and dropped once the AST exists. The lines
+   * shown in error messages are then decoded from the mapping one at a time,
+   * through an index of the byte offset of each line.
+   */
+  static class Mapped extends SourceFile {
+    private static final long serialVersionUID = 1L;
+    private final File file;
+
+    // Stored as a String so that the class can be serialized, like in OnDisk.
+    private final String inputCharset;
+
+    private transient MappedByteBuffer mapping = null;
+
+    // The offset in bytes of each line, if the charset allows the lines to be
+    // found without decoding the code.
+    private int[] lineByteOffsets = null;
+
+    Mapped(File file, String originalPath, Charset c) {
+      super(file.getPath());
+      this.file = file;
+      this.inputCharset = c.name();
+      super.setOriginalPath(originalPath);
+    }
+
+    @Override
+    public synchronized String getCode() throws IOException {
+      String cachedCode = super.getCode();
+
+      if (cachedCode == null) {
+        cachedCode = decode(0, getMapping().limit());
+        super.setCode(cachedCode);
+      }
+      return cachedCode;
+    }
+
+    @Override
+    public Reader getCodeReader() throws IOException {
+      if (hasSourceInMemory()) {
+        return super.getCodeReader();
+      } else {
+        return Files.newReader(file, getCharset());
+      }
+    }
+
+    @Override
+    public void clearCachedSource() {
+      super.setCode(null);
+    }
+
+    @Override
+    long getSizeHint() throws IOException {
+      return hasSourceInMemory() ? super.getSizeHint() : file.length();
+    }
+
+    @Override
+    synchronized void releaseParsedSource() {
+      if (!hasSourceInMemory()) {
+        return;
+      }
+      // The line offsets of the code are kept, for the source positions.
+      getNumLines();
+      try {
+        if (getLineByteOffsets() != null) {
+          clearCachedSource();
+        }
+      } catch (IOException e) {
+        // Keep the code, as the lines cannot be read from the file.
+      }
+    }
+
+    @Override
+    public String getLine(int lineNumber) {
+      if (hasSourceInMemory()) {
+        return super.getLine(lineNumber);
+      }
+      try {
+        int[] offsets = getLineByteOffsets();
+        if (offsets == null) {
+          return super.getLine(lineNumber);
+        }
+        if (lineNumber > offsets.length) {
+          return null;
+        }
+        if (lineNumber < 1) {
+          lineNumber = 1;
+        }
+        int start = offsets[lineNumber - 1];
+        if (lineNumber < offsets.length) {
+          return decode(start, offsets[lineNumber] - 1);
+        }
+        int end = getMapping().limit();
+        return start >= end ? null : decode(start, end);
+      } catch (IOException e) {
+        return null;
+      }
+    }
+
+    @Override
+    public Region getRegion(int lineNumber) {
+      if (hasSourceInMemory()) {
+        return super.getRegion(lineNumber);
+      }
+      try {
+        int[] offsets = getLineByteOffsets();
+        if (offsets == null) {
+          return super.getRegion(lineNumber);
+        }
+        int startLine = getRegionStartLine(lineNumber);
+        if (startLine > offsets.length) {
+          return null;
+        }
+        // Decode the lines of the region and the line break that ends the
+        // last of them, which are all that the region is made of.
+        int lastLine = startLine - 1 + SOURCE_EXCERPT_REGION_LENGTH;
+        int end = lastLine < offsets.length
+            ? offsets[lastLine] : getMapping().limit();
+        return SourceFile.getRegion(
+            decode(offsets[startLine - 1], end), 0, startLine, lineNumber);
+      } catch (IOException e) {
+        return null;
+      }
+    }
+
+    /**
+     * Returns the byte offset of each line, or null if the lines cannot be
+     * found without decoding the code in this file's charset.
+     */
+    private synchronized int[] getLineByteOffsets() throws IOException {
+      if (lineByteOffsets == null && isAsciiCompatible(getCharset())) {
+        ByteBuffer bytes = getMapping();
+        int count = 1;
+        for (int i = 0; i < bytes.limit(); i++) {
+          if (bytes.get(i) == '\n') {
+            count++;
+          }
+        }
+        int[] offsets = new int[count];
+        for (int i = 0, line = 1; i < bytes.limit(); i++) {
+          if (bytes.get(i) == '\n') {
+            offsets[line++] = i + 1;
+          }
+        }
+        lineByteOffsets = offsets;
+      }
+      return lineByteOffsets;
+    }
+
+    /**
+     * Whether a newline byte is always a newline character in the charset,
+     * and never part of the encoding of another character.
+     */
+    private static boolean isAsciiCompatible(Charset c) {
+      return c.equals(UTF_8) || c.equals(StandardCharsets.US_ASCII)
+          || c.equals(StandardCharsets.ISO_8859_1);
+    }
+
+    private String decode(int start, int end) throws IOException {
+      ByteBuffer bytes = getMapping().duplicate();
+      bytes.position(start);
+      bytes.limit(end);
+      return getCharset().decode(bytes).toString();
+    }
+
+    private synchronized MappedByteBuffer getMapping() throws IOException {
+      if (mapping == null) {
+        try (FileChannel channel =
+            FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+          mapping = channel.map(
+              FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+      }
+      return mapping;
+    }
+
+    public Charset getCharset() {
+      return Charset.forName(inputCharset);
+    }
+  }
 }
@@ -117,7 +117,7 @@ class TypeInferencePass implements CompilerPass {
             compiler, computeCfg(n), reverseInterpreter, scope,
             assertionFunctionsMap);
     try {
-      typeInference.analyze();
+      typeInference.analyze(compiler);
 
       // Resolve any new type names found during the inference.
       compiler.getTypeRegistry().resolveTypesInScope(scope);
@@ -30,6 +30,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.io.Serializable;
 import java.io.Writer;
 import java.text.ParseException;
 import java.util.Comparator;
@@ -40,7 +41,8 @@ import java.util.Map.Entry;
  * Stores the mapping from original variable name to new variable names.
  * @see RenameVars
  */
-public final class VariableMap {
+public final class VariableMap implements Serializable {
+  private static final long serialVersionUID = 1L;
 
   private static final char SEPARATOR = ':';
 
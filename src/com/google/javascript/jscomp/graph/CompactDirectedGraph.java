@@ -0,0 +1,744 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp.graph;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * A directed graph that numbers its nodes and edges in the order they are
+ * added, and stores the edges and the annotations in arrays indexed by those
+ * numbers.
+ * <p>
+ * A node is a single object, and an edge object is only created the first
+ * time the edge is asked for. The out and in edges of all the nodes are kept
+ * in compressed sparse row form: those of a node are a slice of one array of
+ * edge numbers. That index is rebuilt by the first query that follows a
+ * change, so the graph is cheapest when it is built first and queried after,
+ * like a control flow graph. While it is built, the out edges of each node
+ * are also chained through an array, which answers
+ * {@link #isConnectedInDirection} without rebuilding the index.
+ * <p>
+ * Unlike {@link LinkedDirectedGraph}, nodes are iterated in the order they
+ * were created and the edges of a node in the order they were connected.
+ *
+ * @param <N> Value type that the graph node stores.
+ * @param <E> Value type that the graph edge stores.
+ */
+public class CompactDirectedGraph<N, E>
+    extends DiGraph<N, E> implements GraphvizGraph {
+
+  private static final int NONE = -1;
+
+  private static final int INITIAL_CAPACITY = 8;
+
+  private final boolean useNodeAnnotations;
+  private final boolean useEdgeAnnotations;
+
+  private final Map<N, CompactDirectedGraphNode> nodeIndex = new HashMap<>();
+  private final List<CompactDirectedGraphNode> nodes = new ArrayList<>();
+
+  /** Indexed by node number. The annotations are created on first use. */
+  private Annotation[] nodeAnnotations = null;
+  private int[] firstOutEdge;
+  private int[] lastOutEdge;
+
+  private int edgeCount = 0;
+
+  /**
+   * Indexed by edge number. The annotations and edge objects are created on
+   * first use.
+   */
+  private int[] edgeSources;
+  private int[] edgeDestinations;
+  private Object[] edgeValues;
+  private int[] nextOutEdge;
+  private Annotation[] edgeAnnotations = null;
+  private CompactDirectedGraphEdge[] edgeObjects = null;
+
+  /** The numbers of the edges that were disconnected, if any. */
+  private BitSet removedEdges = null;
+
+  /**
+   * The out edges of node {@code i} are
+   * {@code outEdges[outStarts[i]..outStarts[i + 1]]}, and likewise for the
+   * in edges. Null when the index must be rebuilt.
+   */
+  private int[] outStarts;
+  private int[] outEdges;
+  private int[] inStarts;
+  private int[] inEdges;
+
+  public static <N, E> CompactDirectedGraph<N, E> createWithoutAnnotations() {
+    return new CompactDirectedGraph<>(false, false);
+  }
+
+  public static <N, E> CompactDirectedGraph<N, E> create() {
+    return new CompactDirectedGraph<>(true, true);
+  }
+
+  protected CompactDirectedGraph(
+      boolean useNodeAnnotations, boolean useEdgeAnnotations) {
+    this.useNodeAnnotations = useNodeAnnotations;
+    this.useEdgeAnnotations = useEdgeAnnotations;
+    firstOutEdge = new int[INITIAL_CAPACITY];
+    lastOutEdge = new int[INITIAL_CAPACITY];
+    edgeSources = new int[INITIAL_CAPACITY];
+    edgeDestinations = new int[INITIAL_CAPACITY];
+    edgeValues = new Object[INITIAL_CAPACITY];
+    nextOutEdge = new int[INITIAL_CAPACITY];
+  }
+
+  @Override
+  public SubGraph<N, E> newSubGraph() {
+    return new SimpleSubGraph<>(this);
+  }
+
+  /**
+   * Returns the number of the given node, which is between zero and the
+   * number of nodes in the graph.
+   */
+  protected final int getNodeIndex(DiGraphNode<N, E> node) {
+    return toCompactNode(node).index;
+  }
+
+  @Override
+  public DiGraphNode<N, E> createDirectedGraphNode(N nodeValue) {
+    CompactDirectedGraphNode node = nodeIndex.get(nodeValue);
+    if (node == null) {
+      int index = nodes.size();
+      if (index == firstOutEdge.length) {
+        int capacity = index * 2;
+        firstOutEdge = Arrays.copyOf(firstOutEdge, capacity);
+        lastOutEdge = Arrays.copyOf(lastOutEdge, capacity);
+      }
+      firstOutEdge[index] = NONE;
+      lastOutEdge[index] = NONE;
+      node = new CompactDirectedGraphNode(index, nodeValue);
+      nodes.add(node);
+      nodeIndex.put(nodeValue, node);
+      outStarts = null;
+    }
+    return node;
+  }
+
+  @Override
+  public GraphNode<N, E> createNode(N value) {
+    return createDirectedGraphNode(value);
+  }
+
+  @Override
+  public void connect(N srcValue, E edgeValue, N destValue) {
+    addEdge(indexOf(srcValue), edgeValue, indexOf(destValue));
+  }
+
+  /**
+   * DiGraphNode look ups can be expensive for a large graph operation, prefer
+   * this method if you have the DiGraphNode available.
+   */
+  public void connect(
+      DiGraphNode<N, E> src, E edgeValue, DiGraphNode<N, E> dest) {
+    addEdge(toCompactNode(src).index, edgeValue, toCompactNode(dest).index);
+  }
+
+  /**
+   * Connects the two nodes unless an edge with the given value already
+   * connects them in either direction, like
+   * {@link #connectIfNotFound(Object, Object, Object)}.
+   */
+  public void connectIfNotFound(
+      DiGraphNode<N, E> n1, E edgeValue, DiGraphNode<N, E> n2) {
+    int src = toCompactNode(n1).index;
+    int dest = toCompactNode(n2).index;
+    if (!hasEdge(src, edgeValue, dest) && !hasEdge(dest, edgeValue, src)) {
+      addEdge(src, edgeValue, dest);
+    }
+  }
+
+  private boolean hasEdge(int src, E value, int dest) {
+    for (int edge = firstOutEdge[src]; edge != NONE;
+         edge = nextOutEdge[edge]) {
+      if (edgeDestinations[edge] == dest
+          && Objects.equals(edgeValues[edge], value)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void addEdge(int src, E value, int dest) {
+    int edge = edgeCount++;
+    if (edge == edgeSources.length) {
+      int capacity = edge * 2;
+      edgeSources = Arrays.copyOf(edgeSources, capacity);
+      edgeDestinations = Arrays.copyOf(edgeDestinations, capacity);
+      edgeValues = Arrays.copyOf(edgeValues, capacity);
+      nextOutEdge = Arrays.copyOf(nextOutEdge, capacity);
+    }
+    edgeSources[edge] = src;
+    edgeDestinations[edge] = dest;
+    edgeValues[edge] = value;
+    nextOutEdge[edge] = NONE;
+    if (lastOutEdge[src] == NONE) {
+      firstOutEdge[src] = edge;
+    } else {
+      nextOutEdge[lastOutEdge[src]] = edge;
+    }
+    lastOutEdge[src] = edge;
+    outStarts = null;
+  }
+
+  @Override
+  public void disconnect(N n1, N n2) {
+    disconnectInDirection(n1, n2);
+    disconnectInDirection(n2, n1);
+  }
+
+  @Override
+  public void disconnectInDirection(N srcValue, N destValue) {
+    int src = indexOf(srcValue);
+    int dest = indexOf(destValue);
+    int previous = NONE;
+    for (int edge = firstOutEdge[src]; edge != NONE;
+         edge = nextOutEdge[edge]) {
+      if (edgeDestinations[edge] != dest) {
+        previous = edge;
+        continue;
+      }
+      if (previous == NONE) {
+        firstOutEdge[src] = nextOutEdge[edge];
+      } else {
+        nextOutEdge[previous] = nextOutEdge[edge];
+      }
+      if (lastOutEdge[src] == edge) {
+        lastOutEdge[src] = previous;
+      }
+      if (removedEdges == null) {
+        removedEdges = new BitSet(edgeCount);
+      }
+      removedEdges.set(edge);
+      outStarts = null;
+    }
+  }
+
+  /** Rebuilds the index of the out and in edges, if it is out of date. */
+  private void index() {
+    if (outStarts != null) {
+      return;
+    }
+    int nodeCount = nodes.size();
+    int[] newOutStarts = new int[nodeCount + 1];
+    int[] newInStarts = new int[nodeCount + 1];
+    for (int edge = 0; edge < edgeCount; edge++) {
+      if (!isRemoved(edge)) {
+        newOutStarts[edgeSources[edge] + 1]++;
+        newInStarts[edgeDestinations[edge] + 1]++;
+      }
+    }
+    for (int i = 0; i < nodeCount; i++) {
+      newOutStarts[i + 1] += newOutStarts[i];
+      newInStarts[i + 1] += newInStarts[i];
+    }
+    int liveEdgeCount = newOutStarts[nodeCount];
+    outEdges = new int[liveEdgeCount];
+    inEdges = new int[liveEdgeCount];
+    // Filling the slices in edge order keeps each one in connection order.
+    int[] outFill = Arrays.copyOf(newOutStarts, nodeCount);
+    int[] inFill = Arrays.copyOf(newInStarts, nodeCount);
+    for (int edge = 0; edge < edgeCount; edge++) {
+      if (!isRemoved(edge)) {
+        outEdges[outFill[edgeSources[edge]]++] = edge;
+        inEdges[inFill[edgeDestinations[edge]]++] = edge;
+      }
+    }
+    inStarts = newInStarts;
+    outStarts = newOutStarts;
+  }
+
+  private boolean isRemoved(int edge) {
+    return removedEdges != null && removedEdges.get(edge);
+  }
+
+  @SuppressWarnings("unchecked")
+  private CompactDirectedGraphEdge getEdge(int edge) {
+    if (edgeObjects == null || edgeObjects.length < edgeCount) {
+      CompactDirectedGraphEdge[] newEdgeObjects = (CompactDirectedGraphEdge[])
+          new CompactDirectedGraph.CompactDirectedGraphEdge[
+              edgeSources.length];
+      if (edgeObjects != null) {
+        System.arraycopy(edgeObjects, 0, newEdgeObjects, 0, edgeObjects.length);
+      }
+      edgeObjects = newEdgeObjects;
+    }
+    CompactDirectedGraphEdge edgeObject = edgeObjects[edge];
+    if (edgeObject == null) {
+      edgeObject = new CompactDirectedGraphEdge(edge);
+      edgeObjects[edge] = edgeObject;
+    }
+    return edgeObject;
+  }
+
+  private int indexOf(N nodeValue) {
+    CompactDirectedGraphNode node = getNodeOrFail(nodeValue);
+    return node.index;
+  }
+
+  private CompactDirectedGraphNode toCompactNode(DiGraphNode<N, E> node) {
+    Preconditions.checkNotNull(node);
+    CompactDirectedGraphNode compactNode = (CompactDirectedGraphNode) node;
+    Preconditions.checkArgument(nodes.get(compactNode.index) == node);
+    return compactNode;
+  }
+
+  @Override
+  public Iterable<DiGraphNode<N, E>> getDirectedGraphNodes() {
+    return Collections.<DiGraphNode<N, E>>unmodifiableList(nodes);
+  }
+
+  @Override
+  public Collection<DiGraphNode<N, E>> getNodes() {
+    return Collections.<DiGraphNode<N, E>>unmodifiableList(nodes);
+  }
+
+  @Override
+  public DiGraphNode<N, E> getDirectedGraphNode(N nodeValue) {
+    return nodeIndex.get(nodeValue);
+  }
+
+  @Override
+  public GraphNode<N, E> getNode(N nodeValue) {
+    return getDirectedGraphNode(nodeValue);
+  }
+
+  @Override
+  public List<DiGraphEdge<N, E>> getOutEdges(N nodeValue) {
+    CompactDirectedGraphNode node = getNodeOrFail(nodeValue);
+    return node.getOutEdges();
+  }
+
+  @Override
+  public List<DiGraphEdge<N, E>> getInEdges(N nodeValue) {
+    CompactDirectedGraphNode node = getNodeOrFail(nodeValue);
+    return node.getInEdges();
+  }
+
+  @Override
+  public List<DiGraphNode<N, E>> getDirectedPredNodes(N nodeValue) {
+    return getDirectedPredNodes(getDirectedGraphNode(nodeValue));
+  }
+
+  @Override
+  public List<DiGraphNode<N, E>> getDirectedSuccNodes(N nodeValue) {
+    return getDirectedSuccNodes(getDirectedGraphNode(nodeValue));
+  }
+
+  @Override
+  public List<DiGraphNode<N, E>> getDirectedPredNodes(
+      DiGraphNode<N, E> dNode) {
+    return toCompactNode(dNode).getPredNodes();
+  }
+
+  @Override
+  public List<DiGraphNode<N, E>> getDirectedSuccNodes(
+      DiGraphNode<N, E> dNode) {
+    return toCompactNode(dNode).getSuccNodes();
+  }
+
+  @Override
+  public List<DiGraphEdge<N, E>> getDirectedGraphEdges(N n1, N n2) {
+    int src = indexOf(n1);
+    int dest = indexOf(n2);
+    List<DiGraphEdge<N, E>> edges = new ArrayList<>();
+    for (int edge = firstOutEdge[src]; edge != NONE;
+         edge = nextOutEdge[edge]) {
+      if (edgeDestinations[edge] == dest) {
+        edges.add(getEdge(edge));
+      }
+    }
+    return edges;
+  }
+
+  @Override
+  public List<DiGraphEdge<N, E>> getEdges(N n1, N n2) {
+    // Since this is a method from a generic graph, edges from both
+    // directions must be added to the returning list.
+    List<DiGraphEdge<N, E>> edges = getDirectedGraphEdges(n1, n2);
+    edges.addAll(getDirectedGraphEdges(n2, n1));
+    return edges;
+  }
+
+  @Override
+  public GraphEdge<N, E> getFirstEdge(N n1, N n2) {
+    List<DiGraphEdge<N, E>> edges = getEdges(n1, n2);
+    return edges.isEmpty() ? null : edges.get(0);
+  }
+
+  @Override
+  public List<DiGraphEdge<N, E>> getEdges() {
+    index();
+    List<DiGraphEdge<N, E>> result = new ArrayList<>(outEdges.length);
+    for (int edge : outEdges) {
+      result.add(getEdge(edge));
+    }
+    return Collections.unmodifiableList(result);
+  }
+
+  @Override
+  public boolean isConnectedInDirection(N n1, N n2) {
+    return isConnectedInDirection(n1, Predicates.<E>alwaysTrue(), n2);
+  }
+
+  @Override
+  public boolean isConnectedInDirection(N n1, E edgeValue, N n2) {
+    return hasEdge(indexOf(n1), edgeValue, indexOf(n2));
+  }
+
+  private boolean isConnectedInDirection(
+      N n1, Predicate<E> edgeMatcher, N n2) {
+    CompactDirectedGraphNode dNode1 = getNodeOrFail(n1);
+    CompactDirectedGraphNode dNode2 = getNodeOrFail(n2);
+    return isConnectedInDirection(dNode1, edgeMatcher, dNode2);
+  }
+
+  /**
+   * DiGraphNode look ups can be expensive for a large graph operation, prefer
+   * this method if you have the DiGraphNodes available.
+   */
+  @SuppressWarnings("unchecked")
+  public boolean isConnectedInDirection(
+      DiGraphNode<N, E> dNode1,
+      Predicate<E> edgeMatcher,
+      DiGraphNode<N, E> dNode2) {
+    int dest = toCompactNode(dNode2).index;
+    for (int edge = firstOutEdge[toCompactNode(dNode1).index]; edge != NONE;
+         edge = nextOutEdge[edge]) {
+      if (edgeDestinations[edge] == dest
+          && edgeMatcher.apply((E) edgeValues[edge])) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public List<GraphNode<N, E>> getNeighborNodes(N value) {
+    CompactDirectedGraphNode node = getNodeOrFail(value);
+    List<GraphNode<N, E>> result = new ArrayList<>();
+    result.addAll(getDirectedPredNodes(node));
+    result.addAll(getDirectedSuccNodes(node));
+    return result;
+  }
+
+  @Override
+  public int getNodeDegree(N value) {
+    int node = indexOf(value);
+    index();
+    return outStarts[node + 1] - outStarts[node]
+        + inStarts[node + 1] - inStarts[node];
+  }
+
+  @Override
+  public List<GraphvizEdge> getGraphvizEdges() {
+    List<GraphvizEdge> edgeList = new ArrayList<>();
+    for (DiGraphEdge<N, E> edge : getEdges()) {
+      edgeList.add((CompactDirectedGraphEdge) edge);
+    }
+    return edgeList;
+  }
+
+  @Override
+  public List<GraphvizNode> getGraphvizNodes() {
+    return new ArrayList<GraphvizNode>(nodes);
+  }
+
+  @Override
+  public String getName() {
+    return "CompactGraph";
+  }
+
+  @Override
+  public boolean isDirected() {
+    return true;
+  }
+
+  /**
+   * An unmodifiable view of the out or in edges of a node, which follows the
+   * changes to the graph.
+   */
+  private abstract class AdjacencyList<T> extends AbstractList<T>
+      implements RandomAccess {
+    final int node;
+    final boolean out;
+
+    AdjacencyList(int node, boolean out) {
+      this.node = node;
+      this.out = out;
+    }
+
+    int getEdgeNumber(int i) {
+      Preconditions.checkElementIndex(i, size());
+      return out
+          ? outEdges[outStarts[node] + i]
+          : inEdges[inStarts[node] + i];
+    }
+
+    @Override
+    public int size() {
+      index();
+      return out
+          ? outStarts[node + 1] - outStarts[node]
+          : inStarts[node + 1] - inStarts[node];
+    }
+  }
+
+  /** The out or in edges of a node. */
+  private final class EdgeList extends AdjacencyList<DiGraphEdge<N, E>> {
+    EdgeList(int node, boolean out) {
+      super(node, out);
+    }
+
+    @Override
+    public DiGraphEdge<N, E> get(int i) {
+      return getEdge(getEdgeNumber(i));
+    }
+  }
+
+  /** The successors or predecessors of a node. */
+  private final class NodeList extends AdjacencyList<DiGraphNode<N, E>> {
+    NodeList(int node, boolean out) {
+      super(node, out);
+    }
+
+    @Override
+    public DiGraphNode<N, E> get(int i) {
+      int edge = getEdgeNumber(i);
+      return nodes.get(out ? edgeDestinations[edge] : edgeSources[edge]);
+    }
+  }
+
+  /**
+   * A node of the graph. Its edges and annotation are kept by the graph.
+   */
+  final class CompactDirectedGraphNode
+      implements DiGraphNode<N, E>, GraphvizNode {
+    private final int index;
+    private final N value;
+    private EdgeList outEdgeList = null;
+    private EdgeList inEdgeList = null;
+    private NodeList succNodeList = null;
+    private NodeList predNodeList = null;
+
+    CompactDirectedGraphNode(int index, N value) {
+      this.index = index;
+      this.value = value;
+    }
+
+    @Override
+    public N getValue() {
+      return value;
+    }
+
+    @Override
+    public List<DiGraphEdge<N, E>> getOutEdges() {
+      if (outEdgeList == null) {
+        outEdgeList = new EdgeList(index, true);
+      }
+      return outEdgeList;
+    }
+
+    @Override
+    public List<DiGraphEdge<N, E>> getInEdges() {
+      if (inEdgeList == null) {
+        inEdgeList = new EdgeList(index, false);
+      }
+      return inEdgeList;
+    }
+
+    List<DiGraphNode<N, E>> getSuccNodes() {
+      if (succNodeList == null) {
+        succNodeList = new NodeList(index, true);
+      }
+      return succNodeList;
+    }
+
+    List<DiGraphNode<N, E>> getPredNodes() {
+      if (predNodeList == null) {
+        predNodeList = new NodeList(index, false);
+      }
+      return predNodeList;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <A extends Annotation> A getAnnotation() {
+      if (!useNodeAnnotations) {
+        throw new UnsupportedOperationException(
+            "Graph initialized with node annotations turned off");
+      }
+      return nodeAnnotations == null || index >= nodeAnnotations.length
+          ? null : (A) nodeAnnotations[index];
+    }
+
+    @Override
+    public void setAnnotation(Annotation data) {
+      if (!useNodeAnnotations) {
+        throw new UnsupportedOperationException(
+            "Graph initialized with node annotations turned off");
+      }
+      if (nodeAnnotations == null || index >= nodeAnnotations.length) {
+        nodeAnnotations = nodeAnnotations == null
+            ? new Annotation[nodes.size()]
+            : Arrays.copyOf(nodeAnnotations, nodes.size());
+      }
+      nodeAnnotations[index] = data;
+    }
+
+    @Override
+    public String getColor() {
+      return "white";
+    }
+
+    @Override
+    public String getId() {
+      return "CDN" + index;
+    }
+
+    @Override
+    public String getLabel() {
+      return String.valueOf(value);
+    }
+
+    @Override
+    public String toString() {
+      return getLabel();
+    }
+  }
+
+  /**
+   * An edge of the graph, created the first time it is asked for. Its
+   * endpoints, value and annotation are kept by the graph.
+   */
+  final class CompactDirectedGraphEdge
+      implements DiGraphEdge<N, E>, GraphvizEdge {
+    private final int index;
+
+    CompactDirectedGraphEdge(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public DiGraphNode<N, E> getSource() {
+      return nodes.get(edgeSources[index]);
+    }
+
+    @Override
+    public DiGraphNode<N, E> getDestination() {
+      return nodes.get(edgeDestinations[index]);
+    }
+
+    @Override
+    public void setSource(DiGraphNode<N, E> node) {
+      throw new UnsupportedOperationException(
+          "The edges of a compact graph cannot be moved");
+    }
+
+    @Override
+    public void setDestination(DiGraphNode<N, E> node) {
+      throw new UnsupportedOperationException(
+          "The edges of a compact graph cannot be moved");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public E getValue() {
+      return (E) edgeValues[index];
+    }
+
+    @Override
+    public GraphNode<N, E> getNodeA() {
+      return getSource();
+    }
+
+    @Override
+    public GraphNode<N, E> getNodeB() {
+      return getDestination();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <A extends Annotation> A getAnnotation() {
+      if (!useEdgeAnnotations) {
+        throw new UnsupportedOperationException(
+            "Graph initialized with edge annotations turned off");
+      }
+      return edgeAnnotations == null || index >= edgeAnnotations.length
+          ? null : (A) edgeAnnotations[index];
+    }
+
+    @Override
+    public void setAnnotation(Annotation data) {
+      if (!useEdgeAnnotations) {
+        throw new UnsupportedOperationException(
+            "Graph initialized with edge annotations turned off");
+      }
+      if (edgeAnnotations == null || index >= edgeAnnotations.length) {
+        edgeAnnotations = edgeAnnotations == null
+            ? new Annotation[edgeCount]
+            : Arrays.copyOf(edgeAnnotations, edgeCount);
+      }
+      edgeAnnotations[index] = data;
+    }
+
+    @Override
+    public String getColor() {
+      return "black";
+    }
+
+    @Override
+    public String getLabel() {
+      return String.valueOf(getValue());
+    }
+
+    @Override
+    public String getNode1Id() {
+      return "CDN" + edgeSources[index];
+    }
+
+    @Override
+    public String getNode2Id() {
+      return "CDN" + edgeDestinations[index];
+    }
+
+    @Override
+    public String toString() {
+      return getSource() + " -> " + getDestination();
+    }
+  }
+}
@@ -1341,7 +1341,7 @@ class MaskType extends JSType {
 }
 
 final class ObjsType extends JSType {
-  private ImmutableSet<ObjectType> objs;
+  private final ImmutableSet<ObjectType> objs;
 
   ObjsType(ImmutableSet<ObjectType> objs) {
     this.objs = Preconditions.checkNotNull(objs);
@@ -1365,7 +1365,7 @@ final class ObjsType extends JSType {
 }
 
 final class NullableObjsType extends JSType {
-  private ImmutableSet<ObjectType> objs;
+  private final ImmutableSet<ObjectType> objs;
 
   NullableObjsType(ImmutableSet<ObjectType> objs) {
     this.objs = Preconditions.checkNotNull(objs);
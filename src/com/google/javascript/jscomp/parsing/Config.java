@@ -16,7 +16,9 @@
 
 package com.google.javascript.jscomp.parsing;
 
+import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Ordering;
 
 import java.util.Map;
 import java.util.Set;
@@ -79,6 +81,19 @@ public final class Config {
     this.languageMode = languageMode;
   }
 
+  /**
+   * Returns a string that identifies every setting affecting the ASTs built
+   * with this config, so that ASTs can be cached across compilations.
+   */
+  public String getFingerprint() {
+    return Joiner.on('|').join(
+        languageMode,
+        isIdeMode,
+        parseJsDocDocumentation,
+        Ordering.natural().sortedCopy(annotationNames.keySet()),
+        Ordering.natural().sortedCopy(suppressionNames));
+  }
+
   /**
    * Create the annotation names from the user-specified
    * annotation whitelist.
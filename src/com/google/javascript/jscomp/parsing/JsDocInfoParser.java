@@ -55,7 +55,7 @@ public final class JsDocInfoParser {
 
   // Use a template node for properties set on all nodes to minimize the
   // memory footprint associated with these (similar to IRFactory).
-  private final Node templateNode;
+  private Node templateNode;
 
   private class ErrorReporterParser {
     void addParserWarning(String messageId, String messageArg, int lineno,
@@ -119,6 +119,15 @@ public final class JsDocInfoParser {
     this.fileOverviewJSDocInfo = fileOverviewJSDocInfo;
   }
 
+  /**
+   * Sets the node whose properties, e.g. the source file, the nodes of the
+   * parsed types start from. Sharing the template of the file's AST lets the
+   * nodes of all its comments share their properties.
+   */
+  void setTemplateNode(Node templateNode) {
+    this.templateNode = templateNode;
+  }
+
   private enum State {
     SEARCHING_ANNOTATION,
     SEARCHING_NEWLINE,
@@ -38,9 +38,9 @@ public class LineNumberTable {
   }
 
   private static int[] computeLineStartOffsets(String source) {
-    // TODO(johnlenz): do this more efficiently.
-    ArrayList<Integer> lineStartOffsets = new ArrayList<>();
-    lineStartOffsets.add(0);
+    int[] lineStartOffsets = new int[countLineTerminators(source) + 2];
+    int line = 0;
+    lineStartOffsets[line++] = 0;
     for (int index = 0; index < source.length(); index++) {
       char ch = source.charAt(index);
       if (isLineTerminator(ch)) {
@@ -48,11 +48,27 @@ public class LineNumberTable {
             && source.charAt(index + 1) == '\n') {
           index++;
         }
-        lineStartOffsets.add(index + 1);
+        lineStartOffsets[line++] = index + 1;
       }
     }
-    lineStartOffsets.add(Integer.MAX_VALUE);
-    return toIntArray(lineStartOffsets);
+    lineStartOffsets[line] = Integer.MAX_VALUE;
+    return lineStartOffsets;
+  }
+
+  /** Counts the line terminators, taking "\r\n" as one. */
+  private static int countLineTerminators(String source) {
+    int count = 0;
+    for (int index = 0; index < source.length(); index++) {
+      char ch = source.charAt(index);
+      if (isLineTerminator(ch)) {
+        if (index + 1 < source.length() && ch == '\r'
+            && source.charAt(index + 1) == '\n') {
+          index++;
+        }
+        count++;
+      }
+    }
+    return count;
   }
 
   public static int[] toIntArray(ArrayList<Integer> integers) {
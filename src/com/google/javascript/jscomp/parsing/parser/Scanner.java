@@ -21,7 +21,7 @@ import com.google.javascript.jscomp.parsing.parser.util.ErrorReporter;
 import com.google.javascript.jscomp.parsing.parser.util.SourcePosition;
 import com.google.javascript.jscomp.parsing.parser.util.SourceRange;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 
 /**
  * Scans javascript source code into tokens. All entrypoints assume the
@@ -33,7 +33,9 @@ import java.util.LinkedList;
 public class Scanner {
   private final ErrorReporter errorReporter;
   private final SourceFile source;
-  private final LinkedList<Token> currentTokens = new LinkedList<>();
+  // The lookahead holds a few tokens at most, so an array list, whose
+  // removal from the front is a short copy, allocates less than a linked one.
+  private final ArrayList<Token> currentTokens = new ArrayList<>();
   private int index;
   private final CommentRecorder commentRecorder;
   private int typeParameterLevel;
@@ -84,7 +86,7 @@ public class Scanner {
 
   public Token nextToken() {
     peekToken();
-    return currentTokens.remove();
+    return currentTokens.remove(0);
   }
 
   private void clearTokenLookahead() {
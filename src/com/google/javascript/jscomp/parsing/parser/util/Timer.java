@@ -19,6 +19,7 @@ package com.google.javascript.jscomp.parsing.parser.util;
 import com.google.javascript.jscomp.parsing.parser.util.format.SimpleFormat;
 
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.HashMap;
 
 // TODO: stack timers to get inclusive/exclusive times
@@ -50,15 +51,17 @@ public class Timer {
     }
   }
 
+  // Parsers on several threads log their times here, so the entries are
+  // guarded by the class lock.
   private static final HashMap<String, Entry> entries = new HashMap<>();
 
-  public static void logTime(String name, long elapsedTime) {
+  public static synchronized void logTime(String name, long elapsedTime) {
     Entry entry = getEntry(name);
     entry.count++;
     entry.elapsedTime += elapsedTime;
   }
 
-  private static Entry getEntry(String name) {
+  private static synchronized Entry getEntry(String name) {
     Entry entry;
     if (!entries.containsKey(name)) {
       entry = new Entry(name);
@@ -69,15 +72,15 @@ public class Timer {
     return entry;
   }
 
-  public static Iterable<Entry> getEntries() {
-    return entries.values();
+  public static synchronized Iterable<Entry> getEntries() {
+    return new ArrayList<>(entries.values());
   }
 
-  public static void clearEntries() {
+  public static synchronized void clearEntries() {
     entries.clear();
   }
 
-  public static void dumpEntries(PrintStream out) {
+  public static synchronized void dumpEntries(PrintStream out) {
     for (Entry entry : getEntries()) {
       out.println(SimpleFormat.format(
           "Time '%s'(%d): %fms",
@@ -46,6 +46,8 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
+import java.io.IOException;
+import java.io.NotSerializableException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -1905,4 +1907,110 @@ public class JSDocInfo implements Serializable {
   void setOriginalCommentPosition(int position) {
     originalCommentPosition = position;
   }
+
+  /**
+   * Writes this JSDocInfo for {@link NodeSerializer}. Documentation is not
+   * written, so this fails if the documentation was parsed.
+   */
+  void serialize(NodeSerializer.Writer out) throws IOException {
+    if (documentation != null) {
+      throw new NotSerializableException(
+          "JSDoc documentation cannot be serialized");
+    }
+    out.writeVarint(bitset);
+    out.writeVarint(visibility == null ? 0 : visibility.ordinal() + 1);
+    out.writeTypeExpression(type);
+    out.writeTypeExpression(thisType);
+    out.writeBoolean(inlineType);
+    out.writeBoolean(includeDocumentation);
+    out.writeSignedVarint(originalCommentPosition);
+
+    out.writeBoolean(info != null);
+    if (info == null) {
+      return;
+    }
+    out.writeTypeExpression(info.baseType);
+    out.writeTypeExpressions(info.extendedInterfaces);
+    out.writeTypeExpressions(info.implementedInterfaces);
+    out.writeStrings(info.parameters == null ? null : info.parameters.keySet());
+    out.writeTypeExpressions(
+        info.parameters == null ? null : info.parameters.values());
+    out.writeTypeExpressions(info.thrownTypes);
+    out.writeStrings(info.templateTypeNames);
+    out.writeStrings(info.disposedParameters);
+    out.writeStrings(info.typeTransformations == null
+        ? null : info.typeTransformations.keySet());
+    if (info.typeTransformations != null) {
+      for (Node transformation : info.typeTransformations.values()) {
+        out.writeTree(transformation);
+      }
+    }
+    out.writeString(info.description);
+    out.writeString(info.meaning);
+    out.writeString(info.deprecated);
+    out.writeString(info.license);
+    out.writeStrings(info.suppressions);
+    out.writeStrings(info.modifies);
+    out.writeString(info.lendsName);
+    out.writeVarint(info.propertyBitField);
+  }
+
+  /** Reads a JSDocInfo written by {@link #serialize}. */
+  static JSDocInfo deserialize(NodeSerializer.Reader in) throws IOException {
+    JSDocInfo jsdoc = new JSDocInfo();
+    jsdoc.bitset = in.readVarint();
+    int visibility = in.readVarint();
+    jsdoc.visibility =
+        visibility == 0 ? null : Visibility.values()[visibility - 1];
+    jsdoc.type = in.readTypeExpression();
+    jsdoc.thisType = in.readTypeExpression();
+    jsdoc.inlineType = in.readBoolean();
+    jsdoc.includeDocumentation = in.readBoolean();
+    jsdoc.originalCommentPosition = in.readSignedVarint();
+
+    if (!in.readBoolean()) {
+      return jsdoc;
+    }
+    LazilyInitializedInfo info = new LazilyInitializedInfo();
+    jsdoc.info = info;
+    info.baseType = in.readTypeExpression();
+    info.extendedInterfaces = in.readTypeExpressions();
+    info.implementedInterfaces = in.readTypeExpressions();
+    List<String> parameterNames = in.readStrings();
+    List<JSTypeExpression> parameterTypes = in.readTypeExpressions();
+    if (parameterNames != null) {
+      info.parameters = new LinkedHashMap<>();
+      for (int i = 0; i < parameterNames.size(); i++) {
+        info.parameters.put(parameterNames.get(i), parameterTypes.get(i));
+      }
+    }
+    info.thrownTypes = in.readTypeExpressions();
+    info.templateTypeNames = in.readStrings();
+    List<String> disposedParameters = in.readStrings();
+    if (disposedParameters != null) {
+      info.disposedParameters = new HashSet<>(disposedParameters);
+    }
+    List<String> transformationNames = in.readStrings();
+    if (transformationNames != null) {
+      info.typeTransformations = new LinkedHashMap<>();
+      for (String name : transformationNames) {
+        info.typeTransformations.put(name, in.readTree());
+      }
+    }
+    info.description = in.readString();
+    info.meaning = in.readString();
+    info.deprecated = in.readString();
+    info.license = in.readString();
+    List<String> suppressions = in.readStrings();
+    if (suppressions != null) {
+      info.suppressions = ImmutableSet.copyOf(suppressions);
+    }
+    List<String> modifies = in.readStrings();
+    if (modifies != null) {
+      info.modifies = ImmutableSet.copyOf(modifies);
+    }
+    info.lendsName = in.readString();
+    info.propertyBitField = in.readVarint();
+    return jsdoc;
+  }
 }
@@ -123,6 +123,11 @@ public final class JSTypeExpression implements Serializable {
     return root;
   }
 
+  /** Returns the name of the source file containing this type expression. */
+  String getSourceName() {
+    return sourceName;
+  }
+
   @Override
   public String toString() {
     return "type: " + root.toString();
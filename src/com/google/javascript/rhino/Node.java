@@ -46,8 +46,9 @@ import com.google.common.base.Preconditions;
 import com.google.javascript.rhino.jstype.JSType;
 
 import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
@@ -365,103 +366,305 @@ public class Node implements Serializable {
     }
   }
 
-  // PropListItems must be immutable so that they can be shared.
-  private interface PropListItem {
-    int getType();
-    PropListItem getNext();
-    PropListItem chain(PropListItem next);
-    Object getObjectValue();
-    int getIntValue();
-  }
-
-  private abstract static class AbstractPropListItem
-      implements PropListItem, Serializable {
+  /**
+   * The properties of a node, packed by property type: a bitset of the int
+   * properties whose value is 1, which include all the boolean properties, and
+   * bitsets of the other int properties and of the object properties, whose
+   * values are stored in arrays in the order of their types. A property is
+   * looked up with a bit test, plus a bit count to find its value.
+   *
+   * <p>PropSets are immutable, so that they can be shared between a node and
+   * its clones. Changing a property creates a new PropSet, which shares the
+   * value array that did not change. Adding an int property to a set that
+   * nodes share with their template, such as a FREE_CALL flag or the LENGTH
+   * of a type name in JSDoc, usually gives the set that an earlier node got
+   * for the same property and value.
+   */
+  private static final class PropSet implements Serializable {
     private static final long serialVersionUID = 1L;
 
-    private final PropListItem next;
-    private final int propType;
+    private static final int[] NO_INTS = new int[0];
+    private static final Object[] NO_OBJECTS = new Object[0];
+
+    // The property types are numbered from JSDOC_INFO_PROP, and there must be
+    // at most 64 of them so that they fit in the bitsets.
+    private static final int FIRST_PROP_TYPE = JSDOC_INFO_PROP;
+
+    private static final long SOURCE_INFO = bitOf(ORIGINALNAME_PROP)
+        | bitOf(STATIC_SOURCE_FILE) | bitOf(LENGTH);
+
+    private final long ones;
+    private final long ints;
+    private final long objects;
+    private final int[] intValues;
+    private final Object[] objectValues;
 
-    AbstractPropListItem(int propType, PropListItem next) {
-      this.propType = propType;
-      this.next = next;
+    // The sets last made by adding an int property to this one, so that the
+    // nodes given the same property share a set, as they shared the tail of
+    // a property list. It holds either one set or, once a second one is
+    // made, an array of DERIVED_CACHE_SIZE of them indexed by property type
+    // and value. It is only a cache, so races between threads are benign:
+    // sets are immutable and their fields are final.
+    private transient Object derived;
+
+    private PropSet(long ones, long ints, long objects,
+        int[] intValues, Object[] objectValues) {
+      this.ones = ones;
+      this.ints = ints;
+      this.objects = objects;
+      this.intValues = intValues;
+      this.objectValues = objectValues;
     }
 
-    @Override
-    public int getType() {
-      return propType;
+    /**
+     * Returns the bit of the given property type, which is out of the bitsets
+     * for types that are not property types.
+     */
+    private static long bitOf(int propType) {
+      int index = propType - FIRST_PROP_TYPE;
+      return index >= 0 && index < Long.SIZE ? 1L << index : 0;
     }
 
-    @Override
-    public PropListItem getNext() {
-      return next;
+    /** Returns the index of the value of the property with the given bit. */
+    private static int indexOf(long bits, long bit) {
+      return Long.bitCount(bits & (bit - 1));
     }
 
-    @Override
-    public abstract PropListItem chain(PropListItem next);
-  }
+    boolean has(int propType) {
+      return ((ones | ints | objects) & bitOf(propType)) != 0;
+    }
 
-  // A base class for Object storing props
-  private static class ObjectPropListItem
-      extends AbstractPropListItem {
-    private static final long serialVersionUID = 1L;
+    boolean isInt(int propType) {
+      return ((ones | ints) & bitOf(propType)) != 0;
+    }
 
-    private final Object objectValue;
+    /** Returns the int value of the property, which must be set. */
+    int getInt(int propType) {
+      long bit = bitOf(propType);
+      if ((ones & bit) != 0) {
+        return 1;
+      }
+      if ((ints & bit) != 0) {
+        return intValues[indexOf(ints, bit)];
+      }
+      throw new UnsupportedOperationException();
+    }
 
-    ObjectPropListItem(int propType, Object objectValue, PropListItem next) {
-      super(propType, next);
-      this.objectValue = objectValue;
+    /** Returns the object value of the property, which must be set. */
+    Object getObject(int propType) {
+      long bit = bitOf(propType);
+      if ((objects & bit) == 0) {
+        throw new UnsupportedOperationException();
+      }
+      return objectValues[indexOf(objects, bit)];
+    }
+
+    /** Returns the set with the given property removed, or null if empty. */
+    PropSet remove(int propType) {
+      long bit = bitOf(propType);
+      if ((ones & bit) != 0) {
+        return create(ones & ~bit, ints, objects, intValues, objectValues);
+      } else if ((ints & bit) != 0) {
+        return create(ones, ints & ~bit, objects,
+            removeInt(intValues, indexOf(ints, bit)), objectValues);
+      } else if ((objects & bit) != 0) {
+        return create(ones, ints, objects & ~bit,
+            intValues, removeObject(objectValues, indexOf(objects, bit)));
+      }
+      return this;
     }
 
-    @Override
-    public int getIntValue() {
-      throw new UnsupportedOperationException();
+    /**
+     * Returns the given set, which may be null, with the given int property
+     * set to a value other than 0.
+     */
+    static PropSet withInt(PropSet set, int propType, int value) {
+      long bit = checkedBitOf(propType);
+      if (set != null && set.isInt(propType) && set.getInt(propType) == value) {
+        return set;
+      }
+      set = set == null ? null : set.remove(propType);
+      if (set == null) {
+        return value == 1
+            ? new PropSet(bit, 0, 0, NO_INTS, NO_OBJECTS)
+            : new PropSet(0, bit, 0, new int[] {value}, NO_OBJECTS);
+      }
+      PropSet result = set.getDerived(bit, value);
+      if (result == null) {
+        result = (value == 1)
+            ? new PropSet(set.ones | bit, set.ints, set.objects,
+                set.intValues, set.objectValues)
+            : new PropSet(set.ones, set.ints | bit, set.objects,
+                insertInt(set.intValues, indexOf(set.ints, bit), value),
+                set.objectValues);
+        set.putDerived(bit, value, result);
+      }
+      return result;
     }
 
-    @Override
-    public Object getObjectValue() {
-      return objectValue;
+    private static final int DERIVED_CACHE_SIZE = 64;
+
+    private static int derivedIndex(long bit, int value) {
+      return (Long.numberOfTrailingZeros(bit) * 7 + value)
+          & (DERIVED_CACHE_SIZE - 1);
     }
 
-    @Override
-    public String toString() {
-      return String.valueOf(objectValue);
+    /**
+     * Returns the cached set made by adding the int property with the given
+     * bit and value to this one, which does not have it, or null.
+     */
+    private PropSet getDerived(long bit, int value) {
+      Object cached = derived;
+      PropSet candidate = cached instanceof PropSet[]
+          ? ((PropSet[]) cached)[derivedIndex(bit, value)]
+          : (PropSet) cached;
+      return candidate != null && candidate.isDerivedFrom(this, bit, value)
+          ? candidate : null;
+    }
+
+    private void putDerived(long bit, int value, PropSet result) {
+      Object cached = derived;
+      if (cached == null) {
+        derived = result;
+        return;
+      }
+      PropSet[] cache;
+      if (cached instanceof PropSet[]) {
+        cache = (PropSet[]) cached;
+      } else {
+        PropSet previous = (PropSet) cached;
+        cache = new PropSet[DERIVED_CACHE_SIZE];
+        long previousBit = (previous.ones | previous.ints) & ~(ones | ints);
+        cache[derivedIndex(previousBit, previous.getInt(
+            FIRST_PROP_TYPE + Long.numberOfTrailingZeros(previousBit)))] =
+            previous;
+      }
+      cache[derivedIndex(bit, value)] = result;
+      derived = cache;
     }
 
-    @Override
-    public PropListItem chain(PropListItem next) {
-      return new ObjectPropListItem(getType(), objectValue, next);
+    /**
+     * Whether this set is the given one with the int property with the given
+     * bit and value added.
+     */
+    private boolean isDerivedFrom(PropSet base, long bit, int value) {
+      if (objects != base.objects || objectValues != base.objectValues) {
+        return false;
+      }
+      if (value == 1) {
+        return ones == (base.ones | bit) && ints == base.ints
+            && intValues == base.intValues;
+      }
+      if (ones != base.ones || ints != (base.ints | bit)) {
+        return false;
+      }
+      int index = indexOf(ints, bit);
+      if (intValues[index] != value) {
+        return false;
+      }
+      for (int i = 0; i < base.intValues.length; i++) {
+        if (base.intValues[i] != intValues[i < index ? i : i + 1]) {
+          return false;
+        }
+      }
+      return true;
     }
-  }
 
-  // A base class for int storing props
-  private static class IntPropListItem extends AbstractPropListItem {
-    private static final long serialVersionUID = 1L;
+    /**
+     * Returns the given set, which may be null, with the given object
+     * property set to a non-null value.
+     */
+    static PropSet withObject(PropSet set, int propType, Object value) {
+      long bit = checkedBitOf(propType);
+      if (set != null && (set.objects & bit) != 0
+          && set.getObject(propType) == value) {
+        return set;
+      }
+      set = set == null ? null : set.remove(propType);
+      if (set == null) {
+        return new PropSet(0, 0, bit, NO_INTS, new Object[] {value});
+      }
+      return new PropSet(set.ones, set.ints, set.objects | bit,
+          set.intValues,
+          insertObject(set.objectValues, indexOf(set.objects, bit), value));
+    }
 
-    final int intValue;
+    /**
+     * Whether the given set, which may be null, holds no properties other
+     * than the source information copied by useSourceInfoFrom.
+     */
+    static boolean hasOnlySourceInfo(PropSet set) {
+      return set == null
+          || ((set.ones | set.ints | set.objects) & ~SOURCE_INFO) == 0;
+    }
+
+    /** Returns the property types of the set in sorted order. */
+    int[] getSortedTypes() {
+      long all = ones | ints | objects;
+      int[] types = new int[Long.bitCount(all)];
+      for (int i = 0; i < types.length; i++) {
+        types[i] = Long.numberOfTrailingZeros(all) + FIRST_PROP_TYPE;
+        all &= all - 1;
+      }
+      return types;
+    }
 
-    IntPropListItem(int propType, int intValue, PropListItem next) {
-      super(propType, next);
-      this.intValue = intValue;
+    /** Returns the value of the property, which must be set, as a string. */
+    String valueToString(int propType) {
+      return isInt(propType)
+          ? String.valueOf(getInt(propType))
+          : String.valueOf(getObject(propType));
     }
 
-    @Override
-    public int getIntValue() {
-      return intValue;
+    private static long checkedBitOf(int propType) {
+      long bit = bitOf(propType);
+      if (bit == 0) {
+        throw new IllegalArgumentException("unexpected prop id " + propType);
+      }
+      return bit;
     }
 
-    @Override
-    public Object getObjectValue() {
-      throw new UnsupportedOperationException();
+    private static PropSet create(long ones, long ints, long objects,
+        int[] intValues, Object[] objectValues) {
+      return (ones | ints | objects) == 0
+          ? null : new PropSet(ones, ints, objects, intValues, objectValues);
     }
 
-    @Override
-    public String toString() {
-      return String.valueOf(intValue);
+    private static int[] insertInt(int[] values, int index, int value) {
+      int[] result = new int[values.length + 1];
+      System.arraycopy(values, 0, result, 0, index);
+      result[index] = value;
+      System.arraycopy(values, index, result, index + 1, values.length - index);
+      return result;
     }
 
-    @Override
-    public PropListItem chain(PropListItem next) {
-      return new IntPropListItem(getType(), intValue, next);
+    private static int[] removeInt(int[] values, int index) {
+      if (values.length == 1) {
+        return NO_INTS;
+      }
+      int[] result = new int[values.length - 1];
+      System.arraycopy(values, 0, result, 0, index);
+      System.arraycopy(values, index + 1, result, index, result.length - index);
+      return result;
+    }
+
+    private static Object[] insertObject(
+        Object[] values, int index, Object value) {
+      Object[] result = new Object[values.length + 1];
+      System.arraycopy(values, 0, result, 0, index);
+      result[index] = value;
+      System.arraycopy(values, index, result, index + 1, values.length - index);
+      return result;
+    }
+
+    private static Object[] removeObject(Object[] values, int index) {
+      if (values.length == 1) {
+        return NO_OBJECTS;
+      }
+      Object[] result = new Object[values.length - 1];
+      System.arraycopy(values, 0, result, 0, index);
+      System.arraycopy(values, index + 1, result, index, result.length - index);
+      return result;
     }
   }
 
@@ -871,13 +1074,10 @@ public class Node implements Serializable {
     child.parent = null;
   }
 
+  /** Whether the given property is set. */
   @VisibleForTesting
-  PropListItem lookupProperty(int propType) {
-    PropListItem x = propListHead;
-    while (x != null && propType != x.getType()) {
-      x = x.getNext();
-    }
-    return x;
+  boolean hasProp(int propType) {
+    return props != null && props.has(propType);
   }
 
   /**
@@ -888,50 +1088,32 @@ public class Node implements Serializable {
    * @return this node.
    */
   public Node clonePropsFrom(Node other) {
-    Preconditions.checkState(this.propListHead == null,
+    Preconditions.checkState(this.props == null,
         "Node has existing properties.");
-    this.propListHead = other.propListHead;
+    this.props = other.props;
     return this;
   }
 
   public void removeProp(int propType) {
-    PropListItem result = removeProp(propListHead, propType);
-    if (result != propListHead) {
-      propListHead = result;
+    if (props != null) {
+      props = props.remove(propType);
     }
   }
 
   public boolean hasProps() {
-    return propListHead != null;
+    return props != null;
   }
 
-  /**
-   * @param item The item to inspect
-   * @param propType The property to look for
-   * @return The replacement list if the property was removed, or
-   *   'item' otherwise.
-   */
-  private PropListItem removeProp(PropListItem item, int propType) {
-    if (item == null) {
-      return null;
-    } else if (item.getType() == propType) {
-      return item.getNext();
-    } else {
-      PropListItem result = removeProp(item.getNext(), propType);
-      if (result != item.getNext()) {
-        return item.chain(result);
-      } else {
-        return item;
-      }
-    }
+  /** Whether the given property is set and holds an int value. */
+  boolean isIntProp(int propType) {
+    return props != null && props.isInt(propType);
   }
 
   public Object getProp(int propType) {
-    PropListItem item = lookupProperty(propType);
-    if (item == null) {
+    if (!hasProp(propType)) {
       return null;
     }
-    return item.getObjectValue();
+    return props.getObject(propType);
   }
 
   public boolean getBooleanProp(int propType) {
@@ -943,25 +1125,24 @@ public class Node implements Serializable {
    * is not defined.
    */
   public int getIntProp(int propType) {
-    PropListItem item = lookupProperty(propType);
-    if (item == null) {
+    if (!hasProp(propType)) {
       return 0;
     }
-    return item.getIntValue();
+    return props.getInt(propType);
   }
 
   public int getExistingIntProp(int propType) {
-    PropListItem item = lookupProperty(propType);
-    if (item == null) {
+    if (!hasProp(propType)) {
       throw new IllegalStateException("missing prop: " + propType);
     }
-    return item.getIntValue();
+    return props.getInt(propType);
   }
 
   public void putProp(int propType, Object value) {
-    removeProp(propType);
     if (value != null) {
-      propListHead = createProp(propType, value, propListHead);
+      props = PropSet.withObject(props, propType, value);
+    } else {
+      removeProp(propType);
     }
   }
 
@@ -970,9 +1151,10 @@ public class Node implements Serializable {
   }
 
   public void putIntProp(int propType, int value) {
-    removeProp(propType);
     if (value != 0) {
-      propListHead = createProp(propType, value, propListHead);
+      props = PropSet.withInt(props, propType, value);
+    } else {
+      removeProp(propType);
     }
   }
 
@@ -992,14 +1174,6 @@ public class Node implements Serializable {
     return (TypeDeclarationNode) getProp(DECLARED_TYPE_EXPR);
   }
 
-  PropListItem createProp(int propType, Object value, PropListItem next) {
-    return new ObjectPropListItem(propType, value, next);
-  }
-
-  PropListItem createProp(int propType, int value, PropListItem next) {
-    return new IntPropListItem(propType, value, next);
-  }
-
   /**
    * Returns the type of this node before casting. This annotation will only exist on the first
    * child of a CAST node after type checking.
@@ -1009,20 +1183,8 @@ public class Node implements Serializable {
   }
 
   // Gets all the property types, in sorted order.
-  private int[] getSortedPropTypes() {
-    int count = 0;
-    for (PropListItem x = propListHead; x != null; x = x.getNext()) {
-      count++;
-    }
-
-    int[] keys = new int[count];
-    for (PropListItem x = propListHead; x != null; x = x.getNext()) {
-      count--;
-      keys[count] = x.getType();
-    }
-
-    Arrays.sort(keys);
-    return keys;
+  int[] getSortedPropTypes() {
+    return props == null ? new int[0] : props.getSortedTypes();
   }
 
   /** Can only be called when <tt>getType() == TokenStream.NUMBER</tt> */
@@ -1120,14 +1282,13 @@ public class Node implements Serializable {
       int[] keys = getSortedPropTypes();
       for (int i = 0; i < keys.length; i++) {
         int type = keys[i];
-        PropListItem x = lookupProperty(type);
         sb.append(" [");
         sb.append(propToString(type));
         sb.append(": ");
         String value;
         switch (type) {
           default:
-            value = x.toString();
+            value = props.valueToString(type);
             break;
         }
         sb.append(value);
@@ -1179,18 +1340,19 @@ public class Node implements Serializable {
     }
   }
 
-  int type;              // type of the node; Token.NAME for example
-  Node next;             // next sibling
-  private Node first;    // first element of a linked list of children
-  private Node last;     // last element of a linked list of children
+  // The tree links are transient: writeObject writes the children of a node
+  // itself, so that serializing a long list of siblings does not recurse
+  // once per sibling, and readObject rebuilds the parent links from them.
+  int type;                        // type of the node; Token.NAME for example
+  transient Node next;             // next sibling
+  private transient Node first;    // first element of a linked list of children
+  private transient Node last;     // last element of a linked list of children
 
   /**
-   * Linked list of properties. Since vast majority of nodes would have
-   * no more then 2 properties, linked list saves memory and provides
-   * fast lookup. If this does not holds, propListHead can be replaced
-   * by UintMap.
+   * The properties of the node, or null if it has none. Nodes created from
+   * the same template share them until one of them changes a property.
    */
-  private PropListItem propListHead;
+  private PropSet props;
 
   /**
    * COLUMN_BITS represents how many of the lower-order bits of
@@ -1226,7 +1388,32 @@ public class Node implements Serializable {
 
   private TypeI typei;
 
-  private Node parent;
+  private transient Node parent;
+
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    out.defaultWriteObject();
+    for (Node child = first; child != null; child = child.next) {
+      out.writeObject(child);
+    }
+    out.writeObject(null);
+  }
+
+  private void readObject(ObjectInputStream in)
+      throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    Node previous = null;
+    for (Node child = (Node) in.readObject(); child != null;
+         child = (Node) in.readObject()) {
+      if (previous == null) {
+        first = child;
+      } else {
+        previous.next = child;
+      }
+      child.parent = this;
+      previous = child;
+    }
+    last = previous;
+  }
 
   //==========================================================================
   // Source position management
@@ -1456,12 +1643,12 @@ public class Node implements Serializable {
   // ==========================================================================
   // Accessors
 
-  PropListItem getPropListHeadForTesting() {
-    return propListHead;
+  Object getPropsForTesting() {
+    return props;
   }
 
-  void setPropListHead(PropListItem propListHead) {
-    this.propListHead = propListHead;
+  void setProps(PropSet props) {
+    this.props = props;
   }
 
   public Node getParent() {
@@ -1965,7 +2152,7 @@ public class Node implements Serializable {
   <T extends Node> T copyNodeFields(T dst) {
     dst.setSourceEncodedPosition(this.sourcePosition);
     dst.setTypeI(this.typei);
-    dst.setPropListHead(this.propListHead);
+    dst.setProps(this.props);
     return dst;
   }
 
@@ -2029,10 +2216,17 @@ public class Node implements Serializable {
    * that of {@code other}.
    */
   public Node useSourceInfoFrom(Node other) {
-    putProp(ORIGINALNAME_PROP, other.getProp(ORIGINALNAME_PROP));
-    putProp(STATIC_SOURCE_FILE, other.getProp(STATIC_SOURCE_FILE));
+    if (PropSet.hasOnlySourceInfo(props)
+        && PropSet.hasOnlySourceInfo(other.props)) {
+      // All the properties are source information, so the node can share
+      // the other node's, as it would share its template's.
+      props = other.props;
+    } else {
+      putProp(ORIGINALNAME_PROP, other.getProp(ORIGINALNAME_PROP));
+      putProp(STATIC_SOURCE_FILE, other.getProp(STATIC_SOURCE_FILE));
+      setLength(other.getLength());
+    }
     sourcePosition = other.sourcePosition;
-    setLength(other.getLength());
     return this;
   }
 
@@ -2063,6 +2257,15 @@ public class Node implements Serializable {
    * that of {@code other} iff the source info is missing.
    */
   public Node useSourceInfoIfMissingFrom(Node other) {
+    if (getProp(ORIGINALNAME_PROP) == null
+        && getProp(STATIC_SOURCE_FILE) == null
+        && PropSet.hasOnlySourceInfo(props)
+        && PropSet.hasOnlySourceInfo(other.props)) {
+      props = other.props;
+      sourcePosition = other.sourcePosition;
+      return this;
+    }
+
     if (getProp(ORIGINALNAME_PROP) == null) {
       putProp(ORIGINALNAME_PROP, other.getProp(ORIGINALNAME_PROP));
     }
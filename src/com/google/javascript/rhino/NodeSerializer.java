@@ -0,0 +1,620 @@
+/*
+ *
+ * ***** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is Rhino code, released
+ * May 6, 1999.
+ *
+ * The Initial Developer of the Original Code is
+ * Netscape Communications Corporation.
+ * Portions created by the Initial Developer are Copyright (C) 1997-1999
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ *   Google Inc.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * the GNU General Public License Version 2 or later (the "GPL"), in which
+ * case the provisions of the GPL are applicable instead of those above. If
+ * you wish to allow use of your version of this file only under the terms of
+ * the GPL and not to allow others to use your version of this file under the
+ * MPL, indicate your decision by deleting the provisions above and replacing
+ * them with the notice and other provisions required by the GPL. If you do
+ * not delete the provisions above, a recipient may use your version of this
+ * file under either the MPL or the GPL.
+ *
+ * ***** END LICENSE BLOCK ***** */
+
+
+package com.google.javascript.rhino;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.base.Preconditions;
+import com.google.javascript.rhino.Node.TypeDeclarationNode;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads and writes {@link Node} trees in a compact binary form, much
+ * cheaper to load than re-parsing the source they came from.
+ *
+ * <p>Nodes are written in preorder. Each node records its token, its kind
+ * (plain, string, number or type declaration), its child count, its source
+ * position as a varint and its properties. Strings are written once and then
+ * referred to by their index in a string table. {@link JSDocInfo}, type
+ * expressions, enums and the other property values found in parsed ASTs have
+ * dedicated encodings; any other {@code Serializable} property value falls
+ * back to Java serialization.
+ *
+ * <p>References to the source file of the tree, and its name in the type
+ * expressions of the tree, are written as a marker and bound to the source
+ * file given when the tree is read back, so a tree can be loaded for any
+ * {@code StaticSourceFile} with the same code, whatever its name.
+ *
+ * <p>Types attached to nodes and JSDoc documentation are not written.
+ */
+public final class NodeSerializer {
+
+  private static final int MAGIC = 0x4A53_4E44;
+  private static final int FORMAT_VERSION = 3;
+
+  // Node kinds, stored in the low bits of the node flags.
+  private static final int KIND_NODE = 0;
+  private static final int KIND_STRING = 1;
+  private static final int KIND_NUMBER = 2;
+  private static final int KIND_TYPE_DECLARATION = 3;
+  private static final int KIND_MASK = 0x3;
+
+  /** Set if the node's STATIC_SOURCE_FILE is the file of the tree. */
+  private static final int FLAG_IN_SOURCE_FILE = 0x4;
+  /** Set if a TypeDeclarationNode has a string value. */
+  private static final int FLAG_HAS_STRING = 0x8;
+
+  // Tags for the values of properties.
+  private static final int PROP_INT = 0;
+  private static final int PROP_STRING = 1;
+  private static final int PROP_NODE = 2;
+  private static final int PROP_SOURCE_FILE = 3;
+  private static final int PROP_JSDOC = 4;
+  private static final int PROP_STRING_SET = 5;
+  private static final int PROP_ENUM = 6;
+  private static final int PROP_INPUT_ID = 7;
+  private static final int PROP_SERIALIZED = 8;
+
+  // Should never need to instantiate class of static methods.
+  private NodeSerializer() {}
+
+  /**
+   * Writes the tree rooted at {@code root} to {@code out}.
+   *
+   * @param sourceFile The file the tree was parsed from. References to it are
+   *     replaced by the file given to {@link #deserialize}.
+   */
+  public static void serialize(
+      Node root, StaticSourceFile sourceFile, OutputStream out)
+      throws IOException {
+    DataOutputStream data =
+        new DataOutputStream(new BufferedOutputStream(out));
+    data.writeInt(MAGIC);
+    data.writeInt(FORMAT_VERSION);
+    new Writer(data, sourceFile).writeTree(root);
+    data.flush();
+  }
+
+  /**
+   * Reads a tree written by {@link #serialize}. The stream is read one byte
+   * at a time, so callers should buffer it.
+   *
+   * @param sourceFile The file the tree belongs to.
+   * @throws IOException If the stream is unreadable or was written in a
+   *     different format.
+   */
+  public static Node deserialize(InputStream in, StaticSourceFile sourceFile)
+      throws IOException {
+    DataInputStream data = new DataInputStream(in);
+    if (data.readInt() != MAGIC || data.readInt() != FORMAT_VERSION) {
+      throw new IOException("Not a serialized AST of the expected version");
+    }
+    try {
+      return new Reader(data, sourceFile).readTree();
+    } catch (RuntimeException e) {
+      throw new IOException("Malformed serialized AST", e);
+    }
+  }
+
+  /**
+   * Stands in for the source file of the tree inside property values that
+   * are written with Java serialization.
+   */
+  private enum SourceFileMarker {
+    INSTANCE
+  }
+
+  /** The encoder. Package-private so that {@link JSDocInfo} can use it. */
+  static final class Writer {
+    private final DataOutputStream out;
+    private final StaticSourceFile sourceFile;
+    private final Map<String, Integer> strings = new HashMap<>();
+
+    private Writer(DataOutputStream out, StaticSourceFile sourceFile) {
+      this.out = out;
+      this.sourceFile = sourceFile;
+    }
+
+    void writeTree(Node root) throws IOException {
+      Node n = root;
+      while (true) {
+        writeNode(n);
+        if (n.hasChildren()) {
+          n = n.getFirstChild();
+          continue;
+        }
+        while (n != root && n.getNext() == null) {
+          n = n.getParent();
+        }
+        if (n == root) {
+          return;
+        }
+        n = n.getNext();
+      }
+    }
+
+    private void writeNode(Node n) throws IOException {
+      int flags;
+      if (n instanceof TypeDeclarationNode) {
+        flags = KIND_TYPE_DECLARATION;
+        if (n.getString() != null) {
+          flags |= FLAG_HAS_STRING;
+        }
+      } else if (n.getClass() == Node.class) {
+        flags = KIND_NODE;
+      } else if (n.getType() == Token.NUMBER) {
+        flags = KIND_NUMBER;
+      } else {
+        flags = KIND_STRING;
+      }
+      boolean inSourceFile = n.getProp(Node.STATIC_SOURCE_FILE) == sourceFile;
+      if (inSourceFile) {
+        flags |= FLAG_IN_SOURCE_FILE;
+      }
+
+      writeVarint(n.getType());
+      writeVarint(flags);
+      writeVarint(n.getChildCount());
+      writeVarint(n.getSourcePosition() + 1);
+
+      switch (flags & KIND_MASK) {
+        case KIND_STRING:
+          writeString(n.getString());
+          break;
+        case KIND_NUMBER:
+          out.writeDouble(n.getDouble());
+          break;
+        case KIND_TYPE_DECLARATION:
+          if ((flags & FLAG_HAS_STRING) != 0) {
+            writeString(n.getString());
+          }
+          break;
+        default:
+          break;
+      }
+
+      int[] propTypes = n.getSortedPropTypes();
+      writeVarint(inSourceFile ? propTypes.length - 1 : propTypes.length);
+      for (int propType : propTypes) {
+        if (propType == Node.STATIC_SOURCE_FILE && inSourceFile) {
+          continue;
+        }
+        writeVarint(propType);
+        writeProp(n, propType);
+      }
+    }
+
+    private void writeProp(Node n, int propType) throws IOException {
+      if (n.isIntProp(propType)) {
+        out.write(PROP_INT);
+        writeSignedVarint(n.getIntProp(propType));
+        return;
+      }
+      Object value = n.getProp(propType);
+      if (value instanceof String) {
+        out.write(PROP_STRING);
+        writeString((String) value);
+      } else if (value instanceof Node) {
+        out.write(PROP_NODE);
+        writeTree((Node) value);
+      } else if (value instanceof JSDocInfo) {
+        out.write(PROP_JSDOC);
+        ((JSDocInfo) value).serialize(this);
+      } else if (value instanceof StaticSourceFile) {
+        StaticSourceFile file = (StaticSourceFile) value;
+        out.write(PROP_SOURCE_FILE);
+        writeString(file.getName());
+        out.writeBoolean(file.isExtern());
+      } else if (value instanceof InputId) {
+        out.write(PROP_INPUT_ID);
+        writeString(((InputId) value).getIdName());
+      } else if (value instanceof Enum) {
+        out.write(PROP_ENUM);
+        writeString(((Enum<?>) value).getDeclaringClass().getName());
+        writeString(((Enum<?>) value).name());
+      } else if (isStringCollection(value)) {
+        out.write(PROP_STRING_SET);
+        @SuppressWarnings("unchecked")
+        Collection<String> strings = (Collection<String>) value;
+        writeStrings(strings);
+      } else {
+        out.write(PROP_SERIALIZED);
+        writeSerialized(value);
+      }
+    }
+
+    private static boolean isStringCollection(Object value) {
+      if (!(value instanceof Set)) {
+        return false;
+      }
+      for (Object element : (Collection<?>) value) {
+        if (!(element instanceof String)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private void writeSerialized(Object value) throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (ObjectOutputStream objects = new ObjectOutputStream(bytes) {
+        {
+          enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) {
+          return obj == sourceFile ? SourceFileMarker.INSTANCE : obj;
+        }
+      }) {
+        objects.writeObject(value);
+      }
+      writeVarint(bytes.size());
+      bytes.writeTo(out);
+    }
+
+    /** Writes a possibly null type expression. */
+    void writeTypeExpression(JSTypeExpression expr) throws IOException {
+      if (expr == null) {
+        out.writeBoolean(false);
+        return;
+      }
+      out.writeBoolean(true);
+      // Like STATIC_SOURCE_FILE, the name of the tree's file is not written,
+      // so that a tree cached for one file can be read for another.
+      boolean inSourceFile = sourceFile != null
+          && sourceFile.getName().equals(expr.getSourceName());
+      out.writeBoolean(inSourceFile);
+      if (!inSourceFile) {
+        writeString(expr.getSourceName());
+      }
+      writeTree(expr.getRoot());
+    }
+
+    /** Writes a possibly null collection of type expressions. */
+    void writeTypeExpressions(Collection<JSTypeExpression> exprs)
+        throws IOException {
+      writeVarint(exprs == null ? 0 : exprs.size() + 1);
+      if (exprs != null) {
+        for (JSTypeExpression expr : exprs) {
+          writeTypeExpression(expr);
+        }
+      }
+    }
+
+    /** Writes a possibly null collection of strings. */
+    void writeStrings(Collection<String> values) throws IOException {
+      writeVarint(values == null ? 0 : values.size() + 1);
+      if (values != null) {
+        for (String value : values) {
+          writeString(value);
+        }
+      }
+    }
+
+    /**
+     * Writes a possibly null string: 0 for null, 1 followed by the UTF-8
+     * bytes for the first occurrence of a string, and its index in the
+     * string table plus 2 for later occurrences.
+     */
+    void writeString(String s) throws IOException {
+      if (s == null) {
+        writeVarint(0);
+        return;
+      }
+      Integer index = strings.get(s);
+      if (index != null) {
+        writeVarint(index + 2);
+        return;
+      }
+      strings.put(s, strings.size());
+      byte[] bytes = s.getBytes(UTF_8);
+      writeVarint(1);
+      writeVarint(bytes.length);
+      out.write(bytes);
+    }
+
+    void writeBoolean(boolean value) throws IOException {
+      out.writeBoolean(value);
+    }
+
+    /** Writes an int as an unsigned LEB128 varint. */
+    void writeVarint(int value) throws IOException {
+      while ((value & ~0x7F) != 0) {
+        out.write((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      out.write(value);
+    }
+
+    /** Writes an int that may be negative as a zigzag-encoded varint. */
+    void writeSignedVarint(int value) throws IOException {
+      writeVarint((value << 1) ^ (value >> 31));
+    }
+  }
+
+  /** The decoder. Package-private so that {@link JSDocInfo} can use it. */
+  static final class Reader {
+    private final DataInputStream in;
+    private final StaticSourceFile sourceFile;
+    private final Node templateNode;
+    private final List<String> strings = new ArrayList<>();
+
+    private Reader(DataInputStream in, StaticSourceFile sourceFile) {
+      this.in = in;
+      this.sourceFile = sourceFile;
+      // As in IRFactory, nodes of the file share a single property list
+      // holding the source file.
+      this.templateNode = new Node(Token.SCRIPT);
+      templateNode.setStaticSourceFile(sourceFile);
+    }
+
+    Node readTree() throws IOException {
+      int[] childCount = new int[1];
+      Node root = readNode(childCount);
+      if (childCount[0] == 0) {
+        return root;
+      }
+
+      List<Node> parents = new ArrayList<>();
+      int[] remaining = new int[16];
+      parents.add(root);
+      remaining[0] = childCount[0];
+      while (!parents.isEmpty()) {
+        int top = parents.size() - 1;
+        Node child = readNode(childCount);
+        parents.get(top).addChildToBack(child);
+        remaining[top]--;
+        if (childCount[0] > 0) {
+          if (parents.size() == remaining.length) {
+            int[] grown = new int[remaining.length * 2];
+            System.arraycopy(remaining, 0, grown, 0, remaining.length);
+            remaining = grown;
+          }
+          parents.add(child);
+          remaining[parents.size() - 1] = childCount[0];
+        } else {
+          while (!parents.isEmpty() && remaining[parents.size() - 1] == 0) {
+            parents.remove(parents.size() - 1);
+          }
+        }
+      }
+      return root;
+    }
+
+    private Node readNode(int[] childCount) throws IOException {
+      int type = readVarint();
+      int flags = readVarint();
+      childCount[0] = readVarint();
+      int sourcePosition = readVarint() - 1;
+
+      Node n;
+      switch (flags & KIND_MASK) {
+        case KIND_STRING:
+          n = Node.newString(type, readString());
+          break;
+        case KIND_NUMBER:
+          Preconditions.checkState(type == Token.NUMBER);
+          n = Node.newNumber(in.readDouble());
+          break;
+        case KIND_TYPE_DECLARATION:
+          n = (flags & FLAG_HAS_STRING) != 0
+              ? new TypeDeclarationNode(type, readString())
+              : new TypeDeclarationNode(type);
+          break;
+        default:
+          n = new Node(type);
+          break;
+      }
+      n.setSourceEncodedPosition(sourcePosition);
+      if ((flags & FLAG_IN_SOURCE_FILE) != 0) {
+        n.clonePropsFrom(templateNode);
+      }
+
+      int propCount = readVarint();
+      for (int i = 0; i < propCount; i++) {
+        int propType = readVarint();
+        int tag = in.readUnsignedByte();
+        if (tag == PROP_INT) {
+          n.putIntProp(propType, readSignedVarint());
+        } else {
+          n.putProp(propType, readPropValue(tag));
+        }
+      }
+      return n;
+    }
+
+    private Object readPropValue(int tag) throws IOException {
+      switch (tag) {
+        case PROP_STRING:
+          return readString();
+        case PROP_NODE:
+          return readTree();
+        case PROP_JSDOC:
+          return JSDocInfo.deserialize(this);
+        case PROP_SOURCE_FILE:
+          return new SimpleSourceFile(readString(), in.readBoolean());
+        case PROP_INPUT_ID:
+          return new InputId(readString());
+        case PROP_ENUM:
+          return readEnum(readString(), readString());
+        case PROP_STRING_SET:
+          return new HashSet<>(readStrings());
+        case PROP_SERIALIZED:
+          return readSerialized();
+        default:
+          throw new IOException("Unknown property tag " + tag);
+      }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object readEnum(String className, String name)
+        throws IOException {
+      try {
+        Class<?> enumClass = Class.forName(
+            className, false, NodeSerializer.class.getClassLoader());
+        return Enum.valueOf((Class<? extends Enum>) enumClass, name);
+      } catch (ClassNotFoundException e) {
+        throw new IOException(e);
+      }
+    }
+
+    private Object readSerialized() throws IOException {
+      byte[] bytes = new byte[readVarint()];
+      in.readFully(bytes);
+      try (ObjectInputStream objects =
+          new ObjectInputStream(new ByteArrayInputStream(bytes)) {
+        {
+          enableResolveObject(true);
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) {
+          return obj == SourceFileMarker.INSTANCE ? sourceFile : obj;
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc)
+            throws IOException, ClassNotFoundException {
+          try {
+            return Class.forName(
+                desc.getName(), false, NodeSerializer.class.getClassLoader());
+          } catch (ClassNotFoundException e) {
+            return super.resolveClass(desc);
+          }
+        }
+      }) {
+        return objects.readObject();
+      } catch (ClassNotFoundException e) {
+        throw new IOException(e);
+      }
+    }
+
+    /** Reads a possibly null type expression. */
+    JSTypeExpression readTypeExpression() throws IOException {
+      if (!in.readBoolean()) {
+        return null;
+      }
+      String sourceName = in.readBoolean()
+          ? sourceFile.getName() : readString();
+      return new JSTypeExpression(readTree(), sourceName);
+    }
+
+    /** Reads a possibly null list of type expressions. */
+    List<JSTypeExpression> readTypeExpressions() throws IOException {
+      int size = readVarint() - 1;
+      if (size < 0) {
+        return null;
+      }
+      List<JSTypeExpression> exprs = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        exprs.add(readTypeExpression());
+      }
+      return exprs;
+    }
+
+    /** Reads a possibly null list of strings. */
+    List<String> readStrings() throws IOException {
+      int size = readVarint() - 1;
+      if (size < 0) {
+        return null;
+      }
+      List<String> values = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        values.add(readString());
+      }
+      return values;
+    }
+
+    /** Reads a possibly null string. */
+    String readString() throws IOException {
+      int index = readVarint();
+      if (index == 0) {
+        return null;
+      } else if (index > 1) {
+        return strings.get(index - 2);
+      }
+      byte[] bytes = new byte[readVarint()];
+      in.readFully(bytes);
+      String s = new String(bytes, UTF_8);
+      strings.add(s);
+      return s;
+    }
+
+    boolean readBoolean() throws IOException {
+      return in.readBoolean();
+    }
+
+    int readVarint() throws IOException {
+      int value = 0;
+      for (int shift = 0; shift < 35; shift += 7) {
+        int b = in.readUnsignedByte();
+        value |= (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new IOException("Malformed varint");
+    }
+
+    int readSignedVarint() throws IOException {
+      int value = readVarint();
+      return (value >>> 1) ^ -(value & 1);
+    }
+  }
+}
@@ -77,7 +77,7 @@ final class ArrowType extends JSType {
   }
 
   @Override
-  public boolean isSubtype(JSType other) {
+  boolean isSubtypeInternal(JSType other) {
     if (!(other instanceof ArrowType)) {
       return false;
     }
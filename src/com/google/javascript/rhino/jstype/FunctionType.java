@@ -486,6 +486,7 @@ public class FunctionType extends PrototypeObjectType implements FunctionTypeI {
       clearCachedValues();
     }
 
+    registry.getSubtypeCache().invalidate();
     return true;
   }
 
@@ -551,6 +552,7 @@ public class FunctionType extends PrototypeObjectType implements FunctionTypeI {
         typeOfThis.extendTemplateTypeMap(type.getTemplateTypeMap());
       }
       this.implementedInterfaces = ImmutableList.copyOf(implementedInterfaces);
+      registry.getSubtypeCache().invalidate();
     } else {
       throw new UnsupportedOperationException();
     }
@@ -604,6 +606,7 @@ public class FunctionType extends PrototypeObjectType implements FunctionTypeI {
         typeOfThis.extendTemplateTypeMap(
             extendedInterface.getTemplateTypeMap());
       }
+      registry.getSubtypeCache().invalidate();
     } else {
       throw new UnsupportedOperationException();
     }
@@ -1031,7 +1034,7 @@ public class FunctionType extends PrototypeObjectType implements FunctionTypeI {
    * the prototype chain.
    */
   @Override
-  public boolean isSubtype(JSType that) {
+  boolean isSubtypeInternal(JSType that) {
     if (JSType.isSubtypeHelper(this, that)) {
       return true;
     }
@@ -1098,6 +1101,7 @@ public class FunctionType extends PrototypeObjectType implements FunctionTypeI {
    */
   void setInstanceType(ObjectType instanceType) {
     typeOfThis = instanceType;
+    registry.getSubtypeCache().invalidate();
   }
 
   /**
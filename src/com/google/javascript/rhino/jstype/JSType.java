@@ -463,6 +463,7 @@ public abstract class JSType implements TypeI, Serializable {
    */
   public void extendTemplateTypeMap(TemplateTypeMap otherMap) {
     templateTypeMap = templateTypeMap.extend(otherMap);
+    registry.getSubtypeCache().invalidate();
   }
 
   /**
@@ -1250,9 +1251,22 @@ public abstract class JSType implements TypeI, Serializable {
    * pairwise subtypes.</li>
    * </ul>
    *
+   * <p>The answers are cached by the registry, see {@link SubtypeCache}, so
+   * this updates the registry's state and must only be called from the thread
+   * the registry is confined to.
+   *
    * @return <code>this &lt;: that</code>
    */
-  public boolean isSubtype(JSType that) {
+  public final boolean isSubtype(JSType that) {
+    return registry.getSubtypeCache().isSubtype(this, that);
+  }
+
+  /**
+   * Computes {@link #isSubtype}. Subclasses override this to refine the
+   * subtyping relation; the recursive checks should go through
+   * {@link #isSubtype}, so that their answers are cached too.
+   */
+  boolean isSubtypeInternal(JSType that) {
     return isSubtypeHelper(this, that);
   }
 
@@ -1370,7 +1384,13 @@ public abstract class JSType implements TypeI, Serializable {
       return resolveResult;
     }
     resolved = true;
-    resolveResult = resolveInternal(t, scope);
+    SubtypeCache subtypeCache = registry.getSubtypeCache();
+    subtypeCache.startResolve();
+    try {
+      resolveResult = resolveInternal(t, scope);
+    } finally {
+      subtypeCache.stopResolve();
+    }
     resolveResult.setResolvedTypeInternal(resolveResult);
     return resolveResult;
   }
@@ -1394,6 +1414,7 @@ public abstract class JSType implements TypeI, Serializable {
   public final void clearResolved() {
     resolved = false;
     resolveResult = null;
+    registry.getSubtypeCache().invalidate();
   }
 
   /**
@@ -49,6 +49,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.MapMaker;
 import com.google.common.collect.Multimap;
 import com.google.javascript.rhino.ErrorReporter;
 import com.google.javascript.rhino.JSDocInfo;
@@ -59,6 +60,8 @@ import com.google.javascript.rhino.TypeI;
 import com.google.javascript.rhino.TypeIRegistry;
 import com.google.javascript.rhino.jstype.RecordTypeBuilder.RecordProperty;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -67,11 +70,15 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * The type registry is used to resolve named types.
  *
- * <p>This class is not thread-safe.
+ * <p>This class is not thread-safe, and neither are the types it creates:
+ * even a query like {@link JSType#isSubtype} updates the registry's caches.
+ * A registry and its types must be confined to one thread at a time, as they
+ * are to the compiler thread of the compilation that owns them.
  *
  */
 public class JSTypeRegistry implements TypeIRegistry, Serializable {
@@ -123,7 +130,7 @@ public class JSTypeRegistry implements TypeIRegistry, Serializable {
   // and force usage of this registry instead. This will allow us to evolve the
   // types without being tied by an open API.
 
-  private final transient ErrorReporter reporter;
+  private transient ErrorReporter reporter;
 
   // We use an Array instead of an immutable list because this lookup needs
   // to be very fast. When it was an immutable list, we were spending 5% of
@@ -173,12 +180,13 @@ public class JSTypeRegistry implements TypeIRegistry, Serializable {
   private final Multimap<String, FunctionType> interfaceToImplementors =
       LinkedHashMultimap.create();
 
-  // All the unresolved named types.
-  private final Multimap<StaticTypedScope<JSType>, NamedType> unresolvedNamedTypes =
+  // All the unresolved named types. Like the scopes they are keyed by, these
+  // are not serialized.
+  private transient Multimap<StaticTypedScope<JSType>, NamedType> unresolvedNamedTypes =
       ArrayListMultimap.create();
 
   // All the resolved named types.
-  private final Multimap<StaticTypedScope<JSType>, NamedType> resolvedNamedTypes =
+  private transient Multimap<StaticTypedScope<JSType>, NamedType> resolvedNamedTypes =
       ArrayListMultimap.create();
 
   // NamedType warns about unresolved types in the last generation.
@@ -187,6 +195,17 @@ public class JSTypeRegistry implements TypeIRegistry, Serializable {
   // The template type name.
   private final Map<String, TemplateType> templateTypes = new HashMap<>();
 
+  // The answers to the subtyping questions asked so far. Like the types they
+  // are keyed by, they are not serialized.
+  private transient SubtypeCache subtypeCache = new SubtypeCache();
+
+  // The canonical union and templatized types by structure. The types are
+  // weakly held, so that the ones that are no longer used are collected.
+  // Record types are not interned: the JSDoc and definition nodes of their
+  // properties can be changed, and must not leak between records.
+  private transient ConcurrentMap<TypeStructure, JSType> internedTypes =
+      createInternedTypes();
+
   // A single empty TemplateTypeMap, which can be safely reused in cases where
   // there are no template types.
   private final TemplateTypeMap emptyTemplateTypeMap;
@@ -317,14 +336,37 @@ public class JSTypeRegistry implements TypeIRegistry, Serializable {
     return templateTypeNames;
   }
 
+  private void readObject(ObjectInputStream in)
+      throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    unresolvedNamedTypes = ArrayListMultimap.create();
+    resolvedNamedTypes = ArrayListMultimap.create();
+    subtypeCache = new SubtypeCache();
+    internedTypes = createInternedTypes();
+  }
+
+  private static ConcurrentMap<TypeStructure, JSType> createInternedTypes() {
+    return new MapMaker().weakValues().makeMap();
+  }
+
   public ErrorReporter getErrorReporter() {
     return reporter;
   }
 
+  /**
+   * Sets the reporter for type resolution warnings. The reporter is not
+   * serialized, so a deserialized registry must be given a new one.
+   */
+  public void setErrorReporter(ErrorReporter reporter) {
+    this.reporter = reporter;
+  }
+
   /**
    * Reset to run the TypeCheck pass.
    */
   public void resetForTypeCheck() {
+    subtypeCache.invalidate();
+    internedTypes.clear();
     typesIndexedByProperty.clear();
     eachRefTypeIndexedByProperty.clear();
     initializeBuiltInTypes();
@@ -1127,6 +1169,8 @@ public class JSTypeRegistry implements TypeIRegistry, Serializable {
    * Resolve all the unresolved types in the given scope.
    */
   public void resolveTypesInScope(StaticTypedScope<JSType> scope) {
+    // Resolving a type, like setting the implicit prototype below, invalidates
+    // the cached subtyping answers, see JSType#resolve.
     for (NamedType type : unresolvedNamedTypes.get(scope)) {
       type.resolve(reporter, scope);
     }
@@ -1152,6 +1196,24 @@ public class JSTypeRegistry implements TypeIRegistry, Serializable {
     }
   }
 
+  SubtypeCache getSubtypeCache() {
+    return subtypeCache;
+  }
+
+  /**
+   * Returns how many subtyping questions were answered from the cache so far.
+   * Together with {@link #getSubtypeCacheMissCount} it gives the hit rate of
+   * the cache.
+   */
+  public long getSubtypeCacheHitCount() {
+    return subtypeCache.getHitCount();
+  }
+
+  /** Returns how many subtyping questions had to be computed so far. */
+  public long getSubtypeCacheMissCount() {
+    return subtypeCache.getMissCount();
+  }
+
   /**
    * Creates a type representing optional values of the given type.
    * @return the union of the type and the void type
@@ -1428,6 +1490,29 @@ public class JSTypeRegistry implements TypeIRegistry, Serializable {
     return new RecordType(this, properties);
   }
 
+  /**
+   * Returns the union type with the given alternates, creating it if no such
+   * union type exists. The alternates are compared in order and by identity.
+   */
+  UnionType createUnionType(ImmutableList<JSType> alternates) {
+    Object[] parts = new Object[1 + alternates.size()];
+    int i = 0;
+    parts[i++] = UnionType.class;
+    for (JSType alternate : alternates) {
+      parts[i++] = alternate;
+    }
+    TypeStructure structure = new TypeStructure(parts);
+    UnionType type = (UnionType) internedTypes.get(structure);
+    if (type == null) {
+      type = new UnionType(this, alternates);
+      JSType existing = internedTypes.putIfAbsent(structure, type);
+      if (existing != null) {
+        type = (UnionType) existing;
+      }
+    }
+    return type;
+  }
+
   /**
    * Create an object type.
    */
@@ -1537,7 +1622,26 @@ public class JSTypeRegistry implements TypeIRegistry, Serializable {
       ObjectType baseType, ImmutableList<JSType> templatizedTypes) {
     // Only ObjectTypes can currently be templatized; extend this logic when
     // more types can be templatized.
-    return new TemplatizedType(this, baseType, templatizedTypes);
+    // The template type map of the base type is part of the structure, since
+    // the base type may be given more template types later on.
+    Object[] parts = new Object[3 + templatizedTypes.size()];
+    int i = 0;
+    parts[i++] = TemplatizedType.class;
+    parts[i++] = baseType;
+    parts[i++] = baseType.getTemplateTypeMap();
+    for (JSType templatizedType : templatizedTypes) {
+      parts[i++] = templatizedType;
+    }
+    TypeStructure structure = new TypeStructure(parts);
+    TemplatizedType type = (TemplatizedType) internedTypes.get(structure);
+    if (type == null) {
+      type = new TemplatizedType(this, baseType, templatizedTypes);
+      JSType existing = internedTypes.putIfAbsent(structure, type);
+      if (existing != null) {
+        type = (TemplatizedType) existing;
+      }
+    }
+    return type;
   }
 
   /**
@@ -1879,4 +1983,46 @@ public class JSTypeRegistry implements TypeIRegistry, Serializable {
         && !(type instanceof NamespaceType)
         && !isNonNullable(type);
   }
+
+  /**
+   * The structure of a union or templatized type, as the key of the
+   * interned types. The parts are compared by identity, which keeps the key
+   * valid as the types are resolved, and never conflates two types that are
+   * equivalent now but may not be later.
+   */
+  private static final class TypeStructure {
+    private final Object[] parts;
+    private final int hashCode;
+
+    TypeStructure(Object[] parts) {
+      this.parts = parts;
+      int hash = 1;
+      for (Object part : parts) {
+        hash = 31 * hash + System.identityHashCode(part);
+      }
+      this.hashCode = hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof TypeStructure)) {
+        return false;
+      }
+      TypeStructure that = (TypeStructure) o;
+      if (hashCode != that.hashCode || parts.length != that.parts.length) {
+        return false;
+      }
+      for (int i = 0; i < parts.length; i++) {
+        if (parts[i] != that.parts[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
 }
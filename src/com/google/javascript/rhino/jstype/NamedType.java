@@ -44,6 +44,7 @@ import com.google.common.base.Predicate;
 import com.google.javascript.rhino.ErrorReporter;
 import com.google.javascript.rhino.Node;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -88,9 +89,10 @@ public class NamedType extends ProxyObjectType {
   private final int charno;
 
   /**
-   * Validates the type resolution.
+   * Validates the type resolution. Not serialized: validation only matters
+   * while the type is being resolved during type checking.
    */
-  private Predicate<JSType> validator;
+  private transient Predicate<JSType> validator;
 
   /**
    * Property-defining continuations.
@@ -383,7 +385,9 @@ public class NamedType extends ProxyObjectType {
   }
 
   /** Store enough information to define a property at a later time. */
-  private static final class PropertyContinuation {
+  private static final class PropertyContinuation implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private final String propertyName;
     private final JSType type;
     private final boolean inferred;
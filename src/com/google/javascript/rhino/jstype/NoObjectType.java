@@ -72,7 +72,7 @@ public class NoObjectType extends FunctionType {
   }
 
   @Override
-  public boolean isSubtype(JSType that) {
+  boolean isSubtypeInternal(JSType that) {
     if (JSType.isSubtypeHelper(this, that)) {
       return true;
     } else {
@@ -75,7 +75,7 @@ class NoResolvedType extends NoType {
   }
 
   @Override
-  public boolean isSubtype(JSType that) {
+  boolean isSubtypeInternal(JSType that) {
     if (JSType.isSubtypeHelper(this, that)) {
       return true;
     } else {
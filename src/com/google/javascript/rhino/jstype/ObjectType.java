@@ -594,6 +594,7 @@ public abstract class ObjectType
    */
   public void clearCachedValues() {
     unknown = true;
+    registry.getSubtypeCache().invalidate();
   }
 
   /** Whether this is a built-in object. */
@@ -165,11 +165,13 @@ public class PrototypeObjectType extends ObjectType {
     this.className = className;
     this.nativeType = nativeType;
     this.anonymousType = anonymousType;
+    // A new type is in no cached subtyping answer, so the implicit prototype
+    // is set without invalidating them.
     if (nativeType || implicitPrototype != null) {
-      setImplicitPrototype(implicitPrototype);
+      this.implicitPrototypeFallback = implicitPrototype;
     } else {
-      setImplicitPrototype(
-          registry.getNativeObjectType(JSTypeNative.OBJECT_TYPE));
+      this.implicitPrototypeFallback =
+          registry.getNativeObjectType(JSTypeNative.OBJECT_TYPE);
     }
   }
 
@@ -187,12 +189,17 @@ public class PrototypeObjectType extends ObjectType {
     Property newProp = new Property(
         name, type, inferred, propertyNode);
     properties.putProperty(name, newProp);
+    registry.getSubtypeCache().propertiesChanged();
     return true;
   }
 
   @Override
   public boolean removeProperty(String name) {
-    return properties.removeProperty(name);
+    if (!properties.removeProperty(name)) {
+      return false;
+    }
+    registry.getSubtypeCache().propertiesChanged();
+    return true;
   }
 
   @Override
@@ -350,6 +357,7 @@ public class PrototypeObjectType extends ObjectType {
   final void setImplicitPrototype(ObjectType implicitPrototype) {
     checkState(!hasCachedValues());
     this.implicitPrototypeFallback = implicitPrototype;
+    registry.getSubtypeCache().invalidate();
   }
 
   @Override
@@ -373,7 +381,7 @@ public class PrototypeObjectType extends ObjectType {
   }
 
   @Override
-  public boolean isSubtype(JSType that) {
+  boolean isSubtypeInternal(JSType that) {
     if (JSType.isSubtypeHelper(this, that)) {
       return true;
     }
@@ -447,6 +455,7 @@ public class PrototypeObjectType extends ObjectType {
   void setOwnerFunction(FunctionType type) {
     Preconditions.checkState(ownerFunction == null || type == null);
     ownerFunction = type;
+    registry.getSubtypeCache().invalidate();
   }
 
   @Override
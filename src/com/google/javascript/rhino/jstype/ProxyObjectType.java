@@ -66,7 +66,9 @@ public class ProxyObjectType extends ObjectType {
   ProxyObjectType(JSTypeRegistry registry, JSType referencedType,
                   TemplateTypeMap templateTypeMap) {
     super(registry, templateTypeMap);
-    setReferencedType(referencedType);
+    // A new type is in no cached subtyping answer, so there is nothing to
+    // invalidate.
+    refer(referencedType);
   }
 
   @Override
@@ -84,6 +86,11 @@ public class ProxyObjectType extends ObjectType {
   }
 
   void setReferencedType(JSType referencedType) {
+    refer(referencedType);
+    registry.getSubtypeCache().invalidate();
+  }
+
+  private void refer(JSType referencedType) {
     this.referencedType = referencedType;
     if (referencedType instanceof ObjectType) {
       this.referencedObjType = (ObjectType) referencedType;
@@ -231,7 +238,7 @@ public class ProxyObjectType extends ObjectType {
   }
 
   @Override
-  public boolean isSubtype(JSType that) {
+  boolean isSubtypeInternal(JSType that) {
     return referencedType.isSubtype(that);
   }
 
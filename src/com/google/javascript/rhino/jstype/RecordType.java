@@ -112,6 +112,7 @@ public class RecordType extends PrototypeObjectType {
 
   boolean checkRecordEquivalenceHelper(
       RecordType otherRecord, EquivalenceMethod eqMethod) {
+    registry.getSubtypeCache().dependOnProperties();
     Set<String> keySet = getOwnPropertyNames();
     Set<String> otherKeySet = otherRecord.getOwnPropertyNames();
     if (!otherKeySet.equals(keySet)) {
@@ -208,7 +209,7 @@ public class RecordType extends PrototypeObjectType {
   }
 
   @Override
-  public boolean isSubtype(JSType that) {
+  boolean isSubtypeInternal(JSType that) {
     if (JSType.isSubtypeHelper(this, that)) {
       return true;
     }
@@ -248,6 +249,7 @@ public class RecordType extends PrototypeObjectType {
     // properties. But z can be assigned to x. Even though z and y are the
     // same type, the properties of z are inferred--and so an assignment
     // to the property of z would not violate any restrictions on it.
+    typeA.registry.getSubtypeCache().dependOnProperties();
     for (String property : typeB.getOwnPropertyNames()) {
       if (!typeA.hasProperty(property)) {
         return false;
@@ -0,0 +1,172 @@
+/*
+ *
+ * ***** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is Rhino code, released
+ * May 6, 1999.
+ *
+ * The Initial Developer of the Original Code is
+ * Netscape Communications Corporation.
+ * Portions created by the Initial Developer are Copyright (C) 1997-1999
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ *   Google Inc.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * the GNU General Public License Version 2 or later (the "GPL"), in which
+ * case the provisions of the GPL are applicable instead of those above. If
+ * you wish to allow use of your version of this file only under the terms of
+ * the GPL and not to allow others to use your version of this file under the
+ * MPL, indicate your decision by deleting the provisions above and replacing
+ * them with the notice and other provisions required by the GPL. If you do
+ * not delete the provisions above, a recipient may use your version of this
+ * file under either the MPL or the GPL.
+ *
+ * ***** END LICENSE BLOCK ***** */
+
+
+package com.google.javascript.rhino.jstype;
+
+import java.util.Arrays;
+
+/**
+ * A bounded cache of the answers to {@link JSType#isSubtype}, keyed by the
+ * identity of the two types. Each {@link JSTypeRegistry} owns one.
+ *
+ * <p>The cache is direct-mapped: each pair of types has one slot, and a new
+ * answer evicts whatever answer was in its slot. Every answer is stamped with
+ * the generation it was computed in, and the cache is invalidated by moving to
+ * a new generation whenever the lattice may change: when a type is resolved,
+ * when a prototype, an interface list or a template type map changes, and
+ * when cached values are cleared. Property changes only invalidate the cache
+ * if some answer in it depended on the properties of a type, which is the case
+ * for record types only; they are frequent while the scopes are created and
+ * the types inferred, when nominal answers are still good.
+ *
+ * <p>Nothing is cached while a type is being resolved, since its answers may
+ * change until the resolution is done.
+ *
+ * <p>The cache is not thread-safe: an answer is written to three arrays, and
+ * a reader on another thread could see a mix of two answers. Like the rest of
+ * the registry, it must be confined to one thread.
+ */
+final class SubtypeCache {
+
+  private static final int SIZE = 1 << 12;
+
+  // The generations of the answers are stored with the answers themselves,
+  // in the upper bits, so that they are checked with a single load.
+  private static final int MAX_GENERATION = Integer.MAX_VALUE >>> 1;
+
+  private final JSType[] subtypes = new JSType[SIZE];
+  private final JSType[] supertypes = new JSType[SIZE];
+
+  // The generation of each answer shifted left by one, plus one if the answer
+  // is yes. The first generation is 1, so empty slots are never current.
+  private final int[] answers = new int[SIZE];
+
+  private int generation = 1;
+
+  // Whether some answer of the current generation was computed. If none was,
+  // there is nothing to invalidate, which is often the case while types are
+  // created and resolved.
+  private boolean hasAnswers = false;
+
+  // Whether some answer of the current generation depends on properties.
+  private boolean dependsOnProperties = false;
+
+  private int resolveDepth = 0;
+
+  private long hitCount = 0;
+  private long missCount = 0;
+
+  /** Returns whether {@code subtype} is a subtype of {@code supertype}. */
+  boolean isSubtype(JSType subtype, JSType supertype) {
+    if (resolveDepth > 0) {
+      return subtype.isSubtypeInternal(supertype);
+    }
+    int slot = slot(subtype, supertype);
+    int answer = answers[slot];
+    if (answer >>> 1 == generation
+        && subtypes[slot] == subtype && supertypes[slot] == supertype) {
+      hitCount++;
+      return (answer & 1) != 0;
+    }
+    missCount++;
+    hasAnswers = true;
+    int start = generation;
+    boolean result = subtype.isSubtypeInternal(supertype);
+    // Keep the answer only if the lattice did not change while computing it.
+    if (start == generation && resolveDepth == 0) {
+      subtypes[slot] = subtype;
+      supertypes[slot] = supertype;
+      answers[slot] = generation << 1 | (result ? 1 : 0);
+    }
+    return result;
+  }
+
+  /** Records that the answer being computed depends on properties. */
+  void dependOnProperties() {
+    dependsOnProperties = true;
+  }
+
+  /** Invalidates the answers that depend on properties. */
+  void propertiesChanged() {
+    if (dependsOnProperties) {
+      invalidate();
+    }
+  }
+
+  /** Invalidates all the answers. */
+  void invalidate() {
+    if (!hasAnswers) {
+      return;
+    }
+    hasAnswers = false;
+    dependsOnProperties = false;
+    if (generation == MAX_GENERATION) {
+      generation = 0;
+      Arrays.fill(answers, 0);
+      Arrays.fill(subtypes, null);
+      Arrays.fill(supertypes, null);
+    }
+    generation++;
+  }
+
+  void startResolve() {
+    resolveDepth++;
+  }
+
+  void stopResolve() {
+    resolveDepth--;
+    if (resolveDepth == 0) {
+      invalidate();
+    }
+  }
+
+  long getHitCount() {
+    return hitCount;
+  }
+
+  long getMissCount() {
+    return missCount;
+  }
+
+  private static int slot(JSType subtype, JSType supertype) {
+    int hash = System.identityHashCode(subtype) * 31
+        + System.identityHashCode(supertype);
+    return (hash ^ (hash >>> 16)) & (SIZE - 1);
+  }
+}
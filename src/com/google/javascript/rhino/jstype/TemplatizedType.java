@@ -54,7 +54,8 @@ public final class TemplatizedType extends ProxyObjectType {
   private static final long serialVersionUID = 1L;
 
   final ImmutableList<JSType> templateTypes;
-  final TemplateTypeMapReplacer replacer;
+  // Not serialized; recreated on first use after deserialization.
+  private transient TemplateTypeMapReplacer replacer;
 
   TemplatizedType(
       JSTypeRegistry registry, ObjectType objectType,
@@ -71,8 +72,6 @@ public final class TemplatizedType extends ProxyObjectType {
       builder.add(getTemplateTypeMap().getTemplateType(filledTemplateKey));
     }
     this.templateTypes = builder.build();
-
-    replacer = new TemplateTypeMapReplacer(registry, getTemplateTypeMap());
   }
 
   @Override
@@ -114,11 +113,17 @@ public final class TemplatizedType extends ProxyObjectType {
   @Override
   public JSType getPropertyType(String propertyName) {
     JSType result = super.getPropertyType(propertyName);
-    return result == null ? null : result.visit(replacer);
+    if (result == null) {
+      return null;
+    }
+    if (replacer == null) {
+      replacer = new TemplateTypeMapReplacer(registry, getTemplateTypeMap());
+    }
+    return result.visit(replacer);
   }
 
   @Override
-  public boolean isSubtype(JSType that) {
+  boolean isSubtypeInternal(JSType that) {
     return isSubtypeHelper(this, that);
   }
 
@@ -463,7 +463,7 @@ public class UnionType extends JSType {
   }
 
   @Override
-  public boolean isSubtype(JSType that) {
+  boolean isSubtypeInternal(JSType that) {
     // unknown
     if (that.isUnknownType()) {
       return true;
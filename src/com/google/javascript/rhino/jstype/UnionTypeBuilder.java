@@ -317,13 +317,9 @@ public class UnionTypeBuilder implements Serializable {
     if (result == null) {
       result = reduceAlternatesWithoutUnion();
       if (result == null) {
-        result = new UnionType(registry, getAlternateListCopy());
+        result = registry.createUnionType(ImmutableList.copyOf(alternates));
       }
     }
     return result;
   }
-
-  private Collection<JSType> getAlternateListCopy() {
-    return ImmutableList.copyOf(alternates);
-  }
 }
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.google.common.collect.ImmutableList;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * Tests for {@link AstCache}.
+ */
+@RunWith(JUnit4.class)
+public final class AstCacheTest {
+
+  private static final List<SourceFile> EXTERNS = ImmutableList.of(
+      SourceFile.fromCode("externs.js",
+          "/** @constructor */ function Window() {}\n"
+          + "/** @type {!Window} */ var window;"));
+
+  private static final List<SourceFile> INPUTS = ImmutableList.of(
+      SourceFile.fromCode("a.js",
+          "/** @param {number} x @return {number} */\n"
+          + "function square(x) { return x * x; }\n"
+          + "window['square'] = square;"),
+      SourceFile.fromCode("b.js",
+          "var s = 'a\\u2028b', n = -0.5e3, re = /x+/g;\n"
+          + "/** @const */ var obj = {'quoted': 1, get g() { return s; }};\n"
+          + "window['obj'] = obj; window['n'] = n; window['re'] = re;"));
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private File cacheDir;
+
+  @Before
+  public void setUp() throws Exception {
+    cacheDir = tempFolder.newFolder("cache");
+  }
+
+  @Test
+  public void testSecondCompilationLoadsFromCache() {
+    Compiler first = compile(EXTERNS, INPUTS);
+    assertEquals(0, first.getAstCache().getHitCount());
+    assertEquals(3, first.getAstCache().getMissCount());
+    assertEquals(3, cacheDir.list().length);
+
+    Compiler second = compile(EXTERNS, INPUTS);
+    assertEquals(3, second.getAstCache().getHitCount());
+    assertEquals(0, second.getAstCache().getMissCount());
+    assertEquals(first.toSource(), second.toSource());
+  }
+
+  @Test
+  public void testChangedSourceIsParsedAgain() {
+    compile(EXTERNS, INPUTS);
+    Compiler compiler = compile(EXTERNS, ImmutableList.of(
+        INPUTS.get(0), SourceFile.fromCode("b.js", "window.b = 1;")));
+    assertEquals(2, compiler.getAstCache().getHitCount());
+    assertEquals(1, compiler.getAstCache().getMissCount());
+  }
+
+  @Test
+  public void testSourceWithDiagnosticsIsNotCached() {
+    List<SourceFile> inputs = ImmutableList.of(
+        SourceFile.fromCode("bad.js", "var x = ;"));
+    Compiler first = compile(EXTERNS, inputs);
+    assertEquals(1, first.getErrorCount());
+
+    Compiler second = compile(EXTERNS, inputs);
+    assertEquals(1, second.getErrorCount());
+    assertEquals(1, second.getAstCache().getHitCount());
+    assertEquals(1, second.getAstCache().getMissCount());
+  }
+
+  @Test
+  public void testCachedTypeAnnotationsBelongToTheLoadingFile() {
+    String code = "window['f'] = /** @param {Missing} x */ function(x) {};";
+    compile(EXTERNS, ImmutableList.of(SourceFile.fromCode("a.js", code)));
+
+    Compiler compiler =
+        compile(EXTERNS, ImmutableList.of(SourceFile.fromCode("b.js", code)));
+    assertEquals(2, compiler.getAstCache().getHitCount());
+    assertEquals(1, compiler.getWarnings().length);
+    JSError warning = compiler.getWarnings()[0];
+    assertEquals(RhinoErrorReporter.TYPE_PARSE_ERROR, warning.getType());
+    assertEquals("b.js", warning.sourceName);
+  }
+
+  @Test
+  public void testCorruptEntryIsIgnored() throws Exception {
+    Compiler first = compile(EXTERNS, INPUTS);
+    for (File entry : cacheDir.listFiles()) {
+      Files.write(entry.toPath(), "garbage".getBytes(UTF_8));
+    }
+
+    Compiler second = compile(EXTERNS, INPUTS);
+    assertEquals(0, second.getAstCache().getHitCount());
+    assertEquals(first.toSource(), second.toSource());
+  }
+
+  @Test
+  public void testCacheDisabledInIdeMode() {
+    CompilerOptions options = createOptions();
+    options.setIdeMode(true);
+    Compiler compiler = new Compiler();
+    compiler.compile(EXTERNS, INPUTS, options);
+    assertNull(compiler.getAstCache());
+  }
+
+  private Compiler compile(List<SourceFile> externs, List<SourceFile> inputs) {
+    Compiler compiler = new Compiler();
+    // Use fresh SourceFiles so that nothing is shared between compilations.
+    compiler.compile(copy(externs), copy(inputs), createOptions());
+    return compiler;
+  }
+
+  private CompilerOptions createOptions() {
+    CompilerOptions options = new CompilerOptions();
+    CompilationLevel.ADVANCED_OPTIMIZATIONS.setOptionsForCompilationLevel(
+        options);
+    options.setLanguageIn(CompilerOptions.LanguageMode.ECMASCRIPT5);
+    options.setCheckTypes(true);
+    options.setAstCacheDirectory(cacheDir.getPath());
+    return options;
+  }
+
+  private static List<SourceFile> copy(List<SourceFile> files) {
+    ImmutableList.Builder<SourceFile> copies = ImmutableList.builder();
+    for (SourceFile file : files) {
+      try {
+        copies.add(SourceFile.fromCode(file.getName(), file.getCode()));
+      } catch (java.io.IOException e) {
+        throw new AssertionError(e);
+      }
+    }
+    return copies.build();
+  }
+}
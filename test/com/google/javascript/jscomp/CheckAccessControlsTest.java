@@ -104,6 +104,12 @@ public final class CheckAccessControlsTest extends CompilerTestCase {
     testSame("/** @deprecated */ var f = 4; var h = 3; function g() { alert(h); }");
   }
 
+  public void testDeprecatedPropertyOfRecordDoesNotLeakToOtherRecords() {
+    testSame("/** @type {{a: number}} */ var x = {a: 1};"
+        + "/** @deprecated Bad */ x.a = 2;"
+        + "/** @param {{a: number}} r */ function h(r) { alert(r.a); }");
+  }
+
   public void testDeprecatedFunctionVariable() {
     testDep(
         "/** @deprecated %s */ var f = function() {}; function g() { f(); }",
@@ -22,6 +22,7 @@ import com.google.javascript.rhino.IR;
 import com.google.javascript.rhino.Node;
 import com.google.javascript.rhino.Token;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -2041,4 +2042,70 @@ public final class CodePrinterTest extends CodePrinterTestBase {
     assertPrintSame("url`hello`");
     assertPrintSame("url(`hello`)");
   }
+
+  public void testBuildToAppendable() throws IOException {
+    // Enough code to be written out in several chunks.
+    StringBuilder js = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      js.append("var v" + i + " = function(a) { if (a) { return a + " + i
+          + "; } return 'abc'; };\n");
+    }
+    js.append("var last = 1;");
+
+    assertBuildToAppendable(js.toString(), new CompilerOptionBuilder() {
+      @Override
+      void setOptions(CompilerOptions options) {
+        options.setPrettyPrint(false);
+      }
+    });
+    assertBuildToAppendable(js.toString(), new CompilerOptionBuilder() {
+      @Override
+      void setOptions(CompilerOptions options) {
+        options.setPrettyPrint(false);
+        options.setLineBreak(true);
+      }
+    });
+    assertBuildToAppendable(js.toString(), new CompilerOptionBuilder() {
+      @Override
+      void setOptions(CompilerOptions options) {
+        options.setPrettyPrint(false);
+        options.setLineLengthThreshold(30);
+        options.setPreferLineBreakAtEndOfFile(true);
+      }
+    });
+    assertBuildToAppendable(js.toString(), new CompilerOptionBuilder() {
+      @Override
+      void setOptions(CompilerOptions options) {
+        options.setPrettyPrint(true);
+      }
+    });
+  }
+
+  private void assertBuildToAppendable(
+      String js, CompilerOptionBuilder builder) throws IOException {
+    CompilerOptions options = newCompilerOptions(builder);
+    Node root = parse(js);
+
+    SourceMap expectedMap = options.sourceMapFormat.getInstance();
+    String expected = new CodePrinter.Builder(root)
+        .setCompilerOptions(options)
+        .setSourceMap(expectedMap)
+        .build();
+
+    SourceMap map = options.sourceMapFormat.getInstance();
+    StringBuilder out = new StringBuilder();
+    new CodePrinter.Builder(root)
+        .setCompilerOptions(options)
+        .setSourceMap(map)
+        .build(out);
+
+    assertEquals(expected, out.toString());
+    assertEquals(printSourceMap(expectedMap), printSourceMap(map));
+  }
+
+  private static String printSourceMap(SourceMap map) throws IOException {
+    StringBuilder sb = new StringBuilder();
+    map.appendTo(sb, "out.js");
+    return sb.toString();
+  }
 }
@@ -33,8 +33,10 @@ import com.google.javascript.rhino.Node;
 
 import junit.framework.TestCase;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -417,6 +419,17 @@ public final class CommandLineRunnerTest extends TestCase {
     testSame("/** @const \n * @const */ var x;");
   }
 
+  public void testDaemonExitsWithTheStatusOfTheInitialCompile() {
+    InputStream stdin = System.in;
+    System.setIn(new ByteArrayInputStream(new byte[0]));
+    try {
+      args.add("--daemon");
+      test("var x = ;", RhinoErrorReporter.PARSE_ERROR);
+    } finally {
+      System.setIn(stdin);
+    }
+  }
+
   public void testProcessClosurePrimitives() {
     test("var goog = {}; goog.provide('goog.dom');",
          "var goog = {dom:{}};");
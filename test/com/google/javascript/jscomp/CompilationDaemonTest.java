@@ -0,0 +1,185 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableList;
+import com.google.javascript.jscomp.testing.BlackHoleErrorManager;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+
+/**
+ * Tests for {@link CompilationDaemon}.
+ */
+@RunWith(JUnit4.class)
+public final class CompilationDaemonTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private File a;
+  private File b;
+  private File c;
+
+  @Before
+  public void setUp() throws IOException {
+    a = tempFolder.newFile("a.js");
+    b = tempFolder.newFile("b.js");
+    c = tempFolder.newFile("c.js");
+    write(a, "/** @param {number} x */ function f(x) {}");
+    write(b, "f(1);");
+    write(c, "var unrelated = 1;");
+  }
+
+  @Test
+  public void testNothingChanged() throws IOException {
+    CompilationDaemon daemon = createDaemon();
+    assertThat(daemon.findChangedInputs()).isEmpty();
+    assertEquals("0 error(s), 0 warning(s)\n", serve(daemon, "\nquit\n"));
+  }
+
+  @Test
+  public void testChangedInputIsRechecked() throws IOException {
+    CompilationDaemon daemon = createDaemon();
+    write(b, "f('x');");
+
+    String response = serve(daemon, "check\n");
+    assertThat(response).contains(
+        "b.js:1: WARNING - actual parameter 1 of f does not match");
+    assertThat(response).endsWith("0 error(s), 1 warning(s)\n");
+  }
+
+  @Test
+  public void testInputIsRecheckedOnlyOnceForOneChange() throws IOException {
+    CompilationDaemon daemon = createDaemon();
+    write(b, "f('x');");
+
+    assertEquals(ImmutableList.of(b.getPath()), daemon.findChangedInputs());
+    assertThat(daemon.findChangedInputs()).isEmpty();
+  }
+
+  @Test
+  public void testFixedInputIsClean() throws IOException {
+    CompilationDaemon daemon = createDaemon();
+    write(b, "f('x');");
+    serve(daemon, "\n");
+    write(b, "f(2);");
+
+    assertEquals("0 error(s), 0 warning(s)\n", serve(daemon, "\n"));
+  }
+
+  @Test
+  public void testDependentInputIsRechecked() throws IOException {
+    CompilationDaemon daemon = createDaemon();
+    write(a, "/** @param {string} x */ function f(x) {}");
+
+    String response = serve(daemon, "check\n");
+    assertThat(response).contains(
+        "b.js:1: WARNING - actual parameter 1 of f does not match");
+    assertThat(response).endsWith("0 error(s), 1 warning(s)\n");
+  }
+
+  @Test
+  public void testOnlyDependentInputsAreRechecked() throws IOException {
+    CompilationDaemon daemon = createDaemon();
+    write(a, "/** @param {string} x */ function f(x) {}");
+
+    assertEquals(ImmutableList.of(a.getPath(), b.getPath()),
+        daemon.recheck(daemon.findChangedInputs(), new BlackHoleErrorManager()));
+  }
+
+  @Test
+  public void testUserOfRemovedDeclarationIsRechecked() throws IOException {
+    CompilationDaemon daemon = createDaemon();
+    write(a, "");
+
+    assertEquals(ImmutableList.of(a.getPath(), b.getPath()),
+        daemon.recheck(daemon.findChangedInputs(), new BlackHoleErrorManager()));
+  }
+
+  @Test
+  public void testStopsAtQuit() throws IOException {
+    CompilationDaemon daemon = createDaemon();
+    write(b, "f('x');");
+
+    assertEquals("", serve(daemon, "quit\n\n"));
+  }
+
+  @Test
+  public void testRequiresIdeMode() {
+    CompilerOptions options = new CompilerOptions();
+    Compiler compiler = new Compiler();
+    compiler.compile(ImmutableList.<SourceFile>of(),
+        ImmutableList.of(SourceFile.fromFile(a)), options);
+    try {
+      new CompilationDaemon(compiler, UTF_8);
+      fail("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+  }
+
+  private CompilationDaemon createDaemon() {
+    CompilerOptions options = new CompilerOptions();
+    options.setIdeMode(true);
+    options.setCheckTypes(true);
+    Compiler compiler = new Compiler();
+    compiler.compile(ImmutableList.<SourceFile>of(),
+        ImmutableList.of(
+            SourceFile.fromFile(a.getPath(), UTF_8),
+            SourceFile.fromFile(b.getPath(), UTF_8),
+            SourceFile.fromFile(c.getPath(), UTF_8)),
+        options);
+    assertEquals(0, compiler.getErrorCount() + compiler.getWarningCount());
+    return new CompilationDaemon(compiler, UTF_8);
+  }
+
+  private static String serve(CompilationDaemon daemon, String requests)
+      throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    daemon.serve(new BufferedReader(new StringReader(requests)),
+        new PrintStream(out, true, UTF_8.name()));
+    return out.toString(UTF_8.name()).replace(System.lineSeparator(), "\n");
+  }
+
+  /**
+   * Writes the file and moves its modification time forward, so that the
+   * change is seen even on file systems with a coarse timestamp resolution.
+   */
+  private static void write(File file, String code) throws IOException {
+    long previous = file.lastModified();
+    Files.write(file.toPath(), code.getBytes(UTF_8));
+    file.setLastModified(Math.max(previous + 2000, file.lastModified()));
+  }
+}
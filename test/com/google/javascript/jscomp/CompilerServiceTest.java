@@ -0,0 +1,111 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.javascript.jscomp.CompilerOptions.LanguageMode;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Tests for {@link CompilerService}.
+ */
+@RunWith(JUnit4.class)
+public final class CompilerServiceTest {
+
+  private static final List<SourceFile> EXTERNS = ImmutableList.of(
+      SourceFile.fromCode("externs.js", "function alert(x) {}"));
+
+  private CompilerService service;
+
+  @After
+  public void tearDown() {
+    if (service != null) {
+      service.shutdown();
+    }
+  }
+
+  @Test
+  public void testConcurrentCompilationsMatchSerialOnes() throws Exception {
+    service = new CompilerService(3, 1 << 20);
+    List<Compiler> compilers = new ArrayList<>();
+    List<Future<Result>> results = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      Compiler compiler = new Compiler();
+      compilers.add(compiler);
+      results.add(service.compile(
+          compiler, EXTERNS, createInputs(i), createOptions()));
+    }
+
+    for (int i = 0; i < 8; i++) {
+      assertTrue(results.get(i).get().success);
+      Compiler expected = new Compiler();
+      expected.compile(EXTERNS, createInputs(i), createOptions());
+      assertEquals(expected.toSource(), compilers.get(i).toSource());
+    }
+  }
+
+  @Test
+  public void testCompilationLargerThanTheBudgetRuns() throws Exception {
+    service = new CompilerService(2, 10);
+    Compiler compiler = new Compiler();
+    Result result = service.compile(
+        compiler, EXTERNS, createInputs(0), createOptions()).get();
+    assertTrue(result.success);
+    assertTrue(compiler.toSource().contains("alert"));
+  }
+
+  @Test
+  public void testErrorsAreReportedPerCompilation() throws Exception {
+    service = new CompilerService(2, 1 << 20);
+    Future<Result> bad = service.compile(new Compiler(), EXTERNS,
+        ImmutableList.of(SourceFile.fromCode("bad.js", "var x = ;")),
+        createOptions());
+    Future<Result> good = service.compile(
+        new Compiler(), EXTERNS, createInputs(1), createOptions());
+    assertEquals(1, bad.get().errors.length);
+    assertEquals(0, good.get().errors.length);
+  }
+
+  private static List<SourceFile> createInputs(int i) {
+    return ImmutableList.of(SourceFile.fromCode("in" + i + ".js",
+        "function* gen(n) {\n"
+        + "  for (var j = 0; j < n; j++) { if (j % 2) { yield j; } }\n"
+        + "  try { yield " + i + "; } finally { alert(n); }\n"
+        + "}\n"
+        + "for (var x of gen(" + i + ")) { alert(x + " + i + "); }"));
+  }
+
+  private static CompilerOptions createOptions() {
+    CompilerOptions options = new CompilerOptions();
+    CompilationLevel.SIMPLE_OPTIMIZATIONS.setOptionsForCompilationLevel(
+        options);
+    options.setLanguageIn(LanguageMode.ECMASCRIPT6);
+    options.setLanguageOut(LanguageMode.ECMASCRIPT5);
+    return options;
+  }
+}
@@ -38,6 +38,7 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -82,6 +83,26 @@ public final class CompilerTest extends TestCase {
     assertEquals(6, cb.getColumnIndex());
   }
 
+  public void testToSourceToAppendable() throws IOException {
+    List<SourceFile> inputs = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      inputs.add(SourceFile.fromCode("in" + i,
+          "/** @license L" + (i % 3) + " */ var f" + i
+          + " = function(x) { return x + " + i + "; }; window.f" + i
+          + " = f" + i));
+    }
+    CompilerOptions options = createNewFlagBasedOptions();
+    options.setPrintInputDelimiter(true);
+    Compiler compiler = new Compiler();
+    compiler.compile(
+        ImmutableList.of(SourceFile.fromCode("externs", "var window;")),
+        inputs, options);
+
+    StringBuilder out = new StringBuilder();
+    compiler.toSource(out);
+    assertEquals(compiler.toSource(), out.toString());
+  }
+
   public void testCyclicalDependencyInInputs() {
     List<SourceFile> inputs = ImmutableList.of(
         SourceFile.fromCode(
@@ -814,6 +835,299 @@ public final class CompilerTest extends TestCase {
     assertTrue(ast.isEquivalentTo(newInput.getAstRoot(compiler)));
   }
 
+  public void testNodeSerializationRestoresParentsOfNodesReadFirst()
+      throws Exception {
+    Node root = new Compiler().parseTestCode("function foo() { return 1; }");
+    Node number = root.getFirstChild().getLastChild().getFirstChild()
+        .getFirstChild();
+    assertTrue(number.isNumber());
+
+    // The number is read before the tree that contains it.
+    @SuppressWarnings("unchecked")
+    List<Node> nodes = (List<Node>) deserialize(
+        serialize(new ArrayList<>(ImmutableList.of(number, root))));
+    Node newNumber = nodes.get(0);
+    Node newRoot = nodes.get(1);
+    assertTrue(newRoot.isEquivalentTo(root));
+    assertSame(newRoot, newNumber.getParent().getParent().getParent()
+        .getParent());
+  }
+
+  public void testParallelParsingMatchesSerialParsing() {
+    List<SourceFile> externs = ImmutableList.of(
+        SourceFile.fromCode("externs1", "var window;"),
+        SourceFile.fromCode("externs2", "/** @constructor */ function Foo() {}"));
+    List<SourceFile> inputs = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      inputs.add(SourceFile.fromCode("in" + i,
+          "/** @param {number} x */ function f" + i + "(x) { return x + " + i
+          + "; } window.f" + i + " = f" + i + ";"));
+    }
+
+    Compiler serial = new Compiler();
+    serial.compile(externs, inputs, createNewFlagBasedOptions());
+
+    CompilerOptions options = createNewFlagBasedOptions();
+    options.setParseThreadCount(4);
+    Compiler parallel = new Compiler();
+    parallel.compile(externs, inputs, options);
+
+    assertEquals(serial.toSource(), parallel.toSource());
+    assertEquals(0, parallel.getErrorCount());
+  }
+
+  public void testParallelParsingReportsErrorsInInputOrder() {
+    // The inputs are not in name order, so that a sorted report would not
+    // hide the order in which the errors were reported.
+    final List<String> parseThreads = new ArrayList<>();
+    List<SourceFile> inputs = new ArrayList<>();
+    for (final String[] input : new String[][] {
+        {"in3", "var a = ;"}, {"in2", "var b = 1;"}, {"in1", "var c = );"}}) {
+      inputs.add(SourceFile.fromGenerator(input[0], new SourceFile.Generator() {
+        @Override
+        public String getCode() {
+          synchronized (parseThreads) {
+            parseThreads.add(Thread.currentThread().getName());
+          }
+          return input[1];
+        }
+      }));
+    }
+
+    final List<String> reportedSources = new ArrayList<>();
+    BasicErrorManager errorManager = new BasicErrorManager() {
+      @Override
+      public void report(CheckLevel level, JSError error) {
+        reportedSources.add(error.sourceName);
+        super.report(level, error);
+      }
+
+      @Override
+      public void println(CheckLevel level, JSError error) {}
+
+      @Override
+      protected void printSummary() {}
+    };
+
+    CompilerOptions options = new CompilerOptions();
+    options.setIdeMode(true);
+    options.setParseThreadCount(3);
+    Compiler compiler = new Compiler(errorManager);
+    compiler.compile(EMPTY_EXTERNS, inputs, options);
+
+    assertEquals(ImmutableList.of("in3", "in1"), reportedSources);
+    assertThat(parseThreads).containsExactly(
+        "jscompiler-parse", "jscompiler-parse", "jscompiler-parse");
+  }
+
+  public void testRestoredStateOptimizesLikeAnUninterruptedCompile()
+      throws Exception {
+    List<SourceFile> externs = ImmutableList.of(
+        SourceFile.fromCode("externs", "function alert(x) {}"));
+    List<SourceFile> inputs = ImmutableList.of(
+        SourceFile.fromCode("in1", Joiner.on('\n').join(
+            "/** @define {boolean} */ var DEBUG = true;",
+            "/** @constructor */ function Foo() {}",
+            "Foo.prototype.bar = function() { return 3; };",
+            "Foo.prototype.unused = function() {};")),
+        SourceFile.fromCode("in2", Joiner.on('\n').join(
+            "if (DEBUG) { alert('debug'); }",
+            "alert(new Foo().bar());")));
+
+    Compiler uninterrupted = new Compiler();
+    uninterrupted.compile(externs, inputs, createStateTestOptions());
+
+    Compiler checker = new Compiler();
+    checker.init(externs, inputs, createStateTestOptions());
+    checker.parse();
+    checker.check();
+    ByteArrayOutputStream state = new ByteArrayOutputStream();
+    checker.saveState(state);
+
+    Compiler optimizer = new Compiler();
+    optimizer.initOptions(createStateTestOptions());
+    optimizer.restoreState(new ByteArrayInputStream(state.toByteArray()));
+    optimizer.optimize();
+
+    assertEquals(0, optimizer.getErrorCount());
+    assertEquals(uninterrupted.toSource(), optimizer.toSource());
+    assertNotNull(optimizer.getTypeRegistry().getType("Foo"));
+  }
+
+  public void testRestoredStateKeepsModuleGraph() throws Exception {
+    JSModule m1 = new JSModule("m1");
+    m1.add(SourceFile.fromCode("in1", "function f() { return 1; }"));
+    JSModule m2 = new JSModule("m2");
+    m2.add(SourceFile.fromCode("in2", "alert(f());"));
+    m2.addDependency(m1);
+
+    Compiler checker = new Compiler();
+    checker.initModules(ImmutableList.of(SourceFile.fromCode(
+        "externs", "function alert(x) {}")),
+        ImmutableList.of(m1, m2), createStateTestOptions());
+    checker.parse();
+    checker.check();
+    ByteArrayOutputStream state = new ByteArrayOutputStream();
+    checker.saveState(state);
+
+    Compiler optimizer = new Compiler();
+    optimizer.initOptions(createStateTestOptions());
+    optimizer.restoreState(new ByteArrayInputStream(state.toByteArray()));
+
+    JSModuleGraph graph = optimizer.getModuleGraph();
+    assertNotNull(graph);
+    JSModule restored1 = graph.getRootModule();
+    assertEquals("m1", restored1.getName());
+    CompilerInput input2 = optimizer.getInput(new InputId("in2"));
+    JSModule restored2 = input2.getModule();
+    assertEquals("m2", restored2.getName());
+    assertTrue(graph.dependsOn(restored2, restored1));
+    assertSame(input2.getAstRoot(optimizer),
+        optimizer.getJsRoot().getLastChild());
+  }
+
+  public void testOptimizeFromUnknownPass() throws Exception {
+    Compiler checker = new Compiler();
+    checker.init(EMPTY_EXTERNS,
+        ImmutableList.of(SourceFile.fromCode("in", "alert(1);")),
+        createStateTestOptions());
+    checker.parse();
+    checker.check();
+    ByteArrayOutputStream state = new ByteArrayOutputStream();
+    checker.saveState(state);
+
+    Compiler optimizer = new Compiler();
+    optimizer.initOptions(createStateTestOptions());
+    optimizer.restoreState(new ByteArrayInputStream(state.toByteArray()));
+    try {
+      optimizer.optimizeFrom("noSuchPass");
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  private static CompilerOptions createStateTestOptions() {
+    CompilerOptions options = createNewFlagBasedOptions();
+    options.setCheckTypes(true);
+    return options;
+  }
+
+  public void testParallelNewTypeInferenceMatchesSerialNewTypeInference() {
+    List<SourceFile> externs = ImmutableList.of(SourceFile.fromCode(
+        "externs", CompilerTypeTestCase.DEFAULT_EXTERNS));
+    List<SourceFile> inputs = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      inputs.add(SourceFile.fromCode("in" + i, Joiner.on("\n").join(
+          "/** @param {string} s */",
+          "function f" + i + "(s) {",
+          "  var x = " + i + ";",
+          "  if (s) { x = s; }",
+          "  function g(y) { return y - x; }",
+          "  return g(s) + function() { return x * 2; }();",
+          "}",
+          "f" + i + "(" + i + ");")));
+    }
+
+    CompilerOptions serialOptions = new CompilerOptions();
+    serialOptions.setNewTypeInference(true);
+    Compiler serial = new Compiler();
+    serial.compile(externs, inputs, serialOptions);
+
+    CompilerOptions options = new CompilerOptions();
+    options.setNewTypeInference(true);
+    options.setTypeInferenceThreadCount(4);
+    Compiler parallel = new Compiler();
+    parallel.compile(externs, inputs, options);
+
+    assertThat(serial.getWarnings()).hasLength(40);
+    assertEquals(
+        Arrays.toString(serial.getWarnings()),
+        Arrays.toString(parallel.getWarnings()));
+    assertEquals(serial.toSource(), parallel.toSource());
+  }
+
+  public void testParallelPeepholeMatchesSerialPeephole() {
+    List<SourceFile> inputs = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      inputs.add(SourceFile.fromCode("in" + i, Joiner.on("\n").join(
+          "function f" + i + "(x) {",
+          "  if (true) { x = x + 1 - 1; } else { x = 0; }",
+          "  var g = function(y) { while (false) {} return y + '' + 'a'; };",
+          "  return g(x) + [1, 2].length * (2 + 3);",
+          "}",
+          "window['f" + i + "'] = f" + i + ";")));
+    }
+
+    CompilerOptions serialOptions = new CompilerOptions();
+    CompilationLevel.SIMPLE_OPTIMIZATIONS
+        .setOptionsForCompilationLevel(serialOptions);
+    Compiler serial = new Compiler();
+    serial.compile(EMPTY_EXTERNS, inputs, serialOptions);
+
+    CompilerOptions options = new CompilerOptions();
+    CompilationLevel.SIMPLE_OPTIMIZATIONS
+        .setOptionsForCompilationLevel(options);
+    options.setPeepholeThreadCount(4);
+    Compiler parallel = new Compiler();
+    parallel.compile(EMPTY_EXTERNS, inputs, options);
+
+    assertEquals(
+        Arrays.toString(serial.getWarnings()),
+        Arrays.toString(parallel.getWarnings()));
+    assertEquals(serial.toSource(), parallel.toSource());
+    assertThat(parallel.toSource()).doesNotContain("while");
+  }
+
+  public void testParallelModuleOutputMatchesSerialModuleOutput()
+      throws IOException {
+    List<String> serial = printModules(1);
+    List<String> parallel = printModules(4);
+
+    assertThat(serial).hasSize(20);
+    assertThat(serial.get(3)).startsWith("m3:");
+    assertThat(serial.get(3)).contains("\"mappings\"");
+    assertEquals(serial, parallel);
+  }
+
+  /**
+   * Compiles a chain of modules and prints them with source maps, returning
+   * the name, code and source map of each module in the order they were
+   * handed out.
+   */
+  private static List<String> printModules(int threadCount)
+      throws IOException {
+    List<JSModule> modules = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      JSModule module = new JSModule("m" + i);
+      module.add(SourceFile.fromCode("in" + i + ".js",
+          "var v" + i + " = function(x) { return x + " + i + "; };\n"
+          + "window.v" + i + " = v" + i + "(" + i + ");"));
+      if (i > 0) {
+        module.addDependency(modules.get(i - 1));
+      }
+      modules.add(module);
+    }
+
+    CompilerOptions options = new CompilerOptions();
+    options.setSourceMapOutputPath("out.map");
+    options.setModuleOutputThreadCount(threadCount);
+    Compiler compiler = new Compiler();
+    compiler.compileModules(EMPTY_EXTERNS, modules, options);
+
+    final List<String> printed = new ArrayList<>();
+    compiler.toSource(modules, new Compiler.ModuleSourceConsumer() {
+      @Override
+      public void accept(JSModule module, String code, SourceMap sourceMap)
+          throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sourceMap.appendTo(sb, module.getName());
+        printed.add(module.getName() + ":" + code + sb);
+      }
+    });
+    return printed;
+  }
+
   public void testGetEmptyResult() {
     Result result = new Compiler().getResult();
     assertThat(result.errors).isEmpty();
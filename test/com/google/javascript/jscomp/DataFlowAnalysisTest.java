@@ -16,6 +16,7 @@
 
 package com.google.javascript.jscomp;
 
+import com.google.javascript.jscomp.CompilerOptions.DataFlowOrder;
 import com.google.javascript.jscomp.ControlFlowGraph.Branch;
 import com.google.javascript.jscomp.DataFlowAnalysis.BranchedFlowState;
 import com.google.javascript.jscomp.DataFlowAnalysis.BranchedForwardDataFlowAnalysis;
@@ -622,6 +623,36 @@ public final class DataFlowAnalysisTest extends TestCase {
     verifyOutHas(n4, c, null);
   }
 
+  public void testSimpleLoopInComponentOrder() {
+    // a = 0; do { a = a + 1 } while (b); c = a;
+    Variable a = new Variable("a");
+    Variable b = new Variable("b");
+    Instruction inst1 = newAssignNumberToVariableInstruction(a, 0);
+    Instruction inst2 = new ArithmeticInstruction(a, a, Operation.ADD, 1);
+    Instruction inst3 = new BranchInstruction(b);
+    Instruction inst4 = newAssignNumberToVariableInstruction(a, 2);
+    ControlFlowGraph<Instruction> cfg =
+      new ControlFlowGraph<>(inst1, true, true);
+    GraphNode<Instruction, Branch> n1 = cfg.createNode(inst1);
+    GraphNode<Instruction, Branch> n2 = cfg.createNode(inst2);
+    GraphNode<Instruction, Branch> n3 = cfg.createNode(inst3);
+    GraphNode<Instruction, Branch> n4 = cfg.createNode(inst4);
+    cfg.connect(inst1, ControlFlowGraph.Branch.UNCOND, inst2);
+    cfg.connect(inst2, ControlFlowGraph.Branch.UNCOND, inst3);
+    cfg.connect(inst3, ControlFlowGraph.Branch.ON_TRUE, inst2);
+    cfg.connect(inst3, ControlFlowGraph.Branch.ON_FALSE, inst4);
+
+    DummyConstPropagation constProp = new DummyConstPropagation(cfg);
+    constProp.setOrder(DataFlowOrder.STRONGLY_CONNECTED_COMPONENTS);
+    constProp.analyze();
+
+    verifyOutHas(n1, a, 0);
+    verifyInHas(n2, a, null);
+    verifyOutHas(n3, a, null);
+    verifyInHas(n4, a, null);
+    verifyOutHas(n4, a, 2);
+  }
+
   public void testLatticeArrayMinimizationWhenMidpointIsEven() {
     assertEquals(6, JoinOp.BinaryJoinOp.computeMidPoint(12));
   }
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import com.google.common.collect.ImmutableList;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Tests for {@link ExternsSnapshot}.
+ */
+@RunWith(JUnit4.class)
+public final class ExternsSnapshotTest {
+
+  private static final List<SourceFile> EXTERNS = ImmutableList.of(
+      SourceFile.fromCode("window.js",
+          "/** @constructor */ function Window() {}\n"
+          + "/** @type {!Window} */ var window;"),
+      SourceFile.fromCode("console.js",
+          "/** @param {...*} var_args */ function log(var_args) {}"));
+
+  private static final List<SourceFile> INPUTS = ImmutableList.of(
+      SourceFile.fromCode("a.js",
+          "/** @param {number} x @return {number} */\n"
+          + "function square(x) { return x * x; }\n"
+          + "window['square'] = square; log(square(2));"));
+
+  @Test
+  public void testCompilationsUseTheSnapshot() throws Exception {
+    ExternsSnapshot snapshot = createSnapshot(EXTERNS);
+    assertEquals(2, snapshot.size());
+
+    Compiler expected = compile(EXTERNS, createOptions(null));
+    Compiler first = compile(EXTERNS, createOptions(snapshot));
+    Compiler second = compile(EXTERNS, createOptions(snapshot));
+    assertEquals(4, snapshot.getHitCount());
+    assertEquals(0, first.getErrorCount() + first.getWarningCount());
+    assertEquals(expected.toSource(), first.toSource());
+    assertEquals(expected.toSource(), second.toSource());
+    assertNotSame(first.getRoot().getFirstChild().getFirstChild(),
+        second.getRoot().getFirstChild().getFirstChild());
+  }
+
+  @Test
+  public void testChangedExternIsParsedAgain() throws Exception {
+    ExternsSnapshot snapshot = createSnapshot(EXTERNS);
+    compile(ImmutableList.of(EXTERNS.get(0),
+        SourceFile.fromCode("console.js",
+            "/** @param {...*} var_args */ function log(var_args) {}\n"
+            + "var console;")),
+        createOptions(snapshot));
+    assertEquals(1, snapshot.getHitCount());
+  }
+
+  @Test
+  public void testOtherLanguageModeIsParsedAgain() throws Exception {
+    ExternsSnapshot snapshot = createSnapshot(EXTERNS);
+    CompilerOptions options = createOptions(snapshot);
+    options.setLanguageIn(CompilerOptions.LanguageMode.ECMASCRIPT6_STRICT);
+    options.setLanguageOut(CompilerOptions.LanguageMode.ECMASCRIPT5);
+    compile(EXTERNS, options);
+    assertEquals(0, snapshot.getHitCount());
+  }
+
+  @Test
+  public void testExternWithDiagnosticsIsLeftOut() throws Exception {
+    ExternsSnapshot snapshot = createSnapshot(
+        ImmutableList.of(SourceFile.fromCode("bad.js", "var x = ;")));
+    assertEquals(0, snapshot.size());
+  }
+
+  private static ExternsSnapshot createSnapshot(List<SourceFile> externs)
+      throws IOException {
+    Compiler compiler = new Compiler();
+    compiler.initOptions(createOptions(null));
+    return ExternsSnapshot.create(copy(externs), compiler);
+  }
+
+  private static Compiler compile(
+      List<SourceFile> externs, CompilerOptions options) {
+    Compiler compiler = new Compiler();
+    // Use fresh SourceFiles so that nothing is shared between compilations.
+    compiler.compile(copy(externs), copy(INPUTS), options);
+    return compiler;
+  }
+
+  private static CompilerOptions createOptions(ExternsSnapshot snapshot) {
+    CompilerOptions options = new CompilerOptions();
+    CompilationLevel.ADVANCED_OPTIMIZATIONS.setOptionsForCompilationLevel(
+        options);
+    options.setLanguageIn(CompilerOptions.LanguageMode.ECMASCRIPT5);
+    options.setCheckTypes(true);
+    options.setExternsSnapshot(snapshot);
+    return options;
+  }
+
+  private static List<SourceFile> copy(List<SourceFile> files) {
+    ImmutableList.Builder<SourceFile> copies = ImmutableList.builder();
+    for (SourceFile file : files) {
+      try {
+        copies.add(SourceFile.fromCode(file.getName(), file.getCode()));
+      } catch (IOException e) {
+        throw new AssertionError(e);
+      }
+    }
+    return copies.build();
+  }
+}
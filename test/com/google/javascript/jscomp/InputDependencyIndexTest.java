@@ -0,0 +1,123 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.javascript.rhino.IR;
+import com.google.javascript.rhino.Node;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link InputDependencyIndex}.
+ *
+ */
+public final class InputDependencyIndexTest extends TestCase {
+
+  private InputDependencyIndex index;
+
+  @Override
+  protected void setUp() {
+    index = new InputDependencyIndex();
+  }
+
+  public void testDeclaredNames() {
+    index("a.js", Joiner.on("\n").join(
+        "var x = 1;",
+        "function f() { var local; this.p = 1; }",
+        "var ns = {};",
+        "ns.C = function() {};",
+        "/** @type {number} */ ns.C.prototype.n;",
+        "if (x) { var inBlock; }"));
+
+    assertThat(index.getDeclaredNames("a.js")).containsExactly(
+        "x", "f", "ns", "ns.C", "ns.C.prototype.n", "inBlock");
+    assertThat(index.getDeclaredNames("unknown.js")).isEmpty();
+  }
+
+  public void testUsesInCode() {
+    index("a.js", "var ns = {}; ns.f = function() {};");
+    index("b.js", "ns.f();");
+    index("c.js", "ns.g();");
+    index("d.js", "f();");
+
+    assertThat(index.getDependents(ImmutableList.of("ns.f"),
+        ImmutableSet.of("a.js"))).containsExactly("b.js");
+    assertThat(dependentsOf("ns")).containsExactly("a.js", "b.js", "c.js");
+  }
+
+  public void testDependentsOfDependents() {
+    index("a.js", "/** @return {number} */ function f() { return 1; }");
+    index("b.js", "var x = f();");
+    index("c.js", "var y = x + 1;");
+    index("d.js", "var z = 1;");
+
+    assertThat(dependentsOf("f")).containsExactly("a.js", "b.js", "c.js");
+    assertThat(index.getDependents(ImmutableList.of("x"),
+        ImmutableSet.of("b.js"))).containsExactly("c.js");
+  }
+
+  public void testDeeplyNestedCode() {
+    // Deeper than the parser would accept, so the tree is built directly.
+    Node value = IR.getprop(IR.name("ns"), "f");
+    for (int i = 0; i < 100000; i++) {
+      value = IR.arraylit(value);
+    }
+    index.index("a.js", IR.script(IR.var(IR.name("x"), value)));
+
+    assertThat(index.getDeclaredNames("a.js")).containsExactly("x");
+    assertThat(dependentsOf("ns.f")).containsExactly("a.js");
+  }
+
+  public void testUsesInJsDoc() {
+    index("a.js", "/** @param {!ns.Type} x */ function f(x) {}");
+    index("b.js", "/** @type {Array<ns.Other>} */ var y;");
+    index("c.js", "/** @constructor @extends {ns.Type} */ function C() {}");
+
+    assertThat(dependentsOf("ns.Type")).containsExactly("a.js", "c.js");
+    assertThat(dependentsOf("ns.Other")).containsExactly("b.js");
+  }
+
+  public void testReindexReplacesUses() {
+    index("a.js", "ns.f();");
+    index("a.js", "ns.g();");
+
+    assertThat(dependentsOf("ns.f")).isEmpty();
+    assertThat(dependentsOf("ns.g")).containsExactly("a.js");
+  }
+
+  public void testExcludedInputs() {
+    index("a.js", "ns.f();");
+    index("b.js", "ns.f();");
+
+    assertThat(index.getDependents(ImmutableList.of("ns.f"),
+        ImmutableSet.of("a.js"))).containsExactly("b.js");
+  }
+
+  private void index(String name, String code) {
+    index.index(name, new Compiler().parseTestCode(code));
+  }
+
+  private Iterable<String> dependentsOf(String name) {
+    return index.getDependents(
+        ImmutableList.of(name), ImmutableSet.<String>of());
+  }
+}
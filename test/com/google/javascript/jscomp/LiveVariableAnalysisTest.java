@@ -16,6 +16,7 @@
 
 package com.google.javascript.jscomp;
 
+import com.google.javascript.jscomp.CompilerOptions.DataFlowOrder;
 import com.google.javascript.jscomp.DataFlowAnalysis.FlowState;
 import com.google.javascript.rhino.InputId;
 import com.google.javascript.rhino.Node;
@@ -179,6 +180,24 @@ public final class LiveVariableAnalysisTest extends TestCase {
         "var a;X:1;do{do{do{a=1;}while(1)}while(1)}while(1);a()", "a");
   }
 
+  public void testComponentOrder() {
+    String src = "var a,b;X:b=0;"
+        + "while(b){for(a=0;a<9;a++){b(a)};do{a--}while(a);b--};a()";
+    LiveVariablesAnalysis byPriority =
+        computeLiveness(src, DataFlowOrder.PRIORITY);
+    LiveVariablesAnalysis byComponent =
+        computeLiveness(src, DataFlowOrder.STRONGLY_CONNECTED_COMPONENTS);
+    FlowState<LiveVariablesAnalysis.LiveVariableLattice> expected =
+        getFlowStateAtX(byPriority.getCfg().getEntry().getValue(),
+            byPriority.getCfg());
+    FlowState<LiveVariablesAnalysis.LiveVariableLattice> actual =
+        getFlowStateAtX(byComponent.getCfg().getEntry().getValue(),
+            byComponent.getCfg());
+    assertEquals(expected.getIn(), actual.getIn());
+    assertEquals(expected.getOut(), actual.getOut());
+    assertTrue(byComponent.getStepCount() < byPriority.getStepCount());
+  }
+
   public void testSwitches() {
     assertLiveBeforeX("var a,b;X:switch(a){}", "a");
     assertLiveBeforeX("var a,b;X:switch(b){case(a):break;}", "a");
@@ -354,6 +373,11 @@ public final class LiveVariableAnalysisTest extends TestCase {
   }
 
   private static LiveVariablesAnalysis computeLiveness(String src) {
+    return computeLiveness(src, DataFlowOrder.PRIORITY);
+  }
+
+  private static LiveVariablesAnalysis computeLiveness(
+      String src, DataFlowOrder order) {
     Compiler compiler = new Compiler();
     CompilerOptions options = new CompilerOptions();
     options.setCodingConvention(new GoogleCodingConvention());
@@ -370,6 +394,7 @@ public final class LiveVariableAnalysisTest extends TestCase {
     ControlFlowGraph<Node> cfg = cfa.getCfg();
     LiveVariablesAnalysis analysis =
         new LiveVariablesAnalysis(cfg, scope, compiler);
+    analysis.setOrder(order);
     analysis.analyze();
     return analysis;
   }
@@ -84,6 +84,11 @@ public final class MaybeReachingVariableUseTest extends TestCase {
     assertMatch("D:var x=0; U:x,x=1");
   }
 
+  public void testUsesOfSeveralVariablesInOneInstruction() {
+    assertMatch("D: var x = 1, y = 2; U: x + y; x = 3; y");
+    assertNotMatch("D: var x = 1, y = 2; x = 3; U: y + x");
+  }
+
   public void testAssignmentInExpressions() {
     assertMatch("var x=0; D:foo(bar(x=1)); U:x");
     assertMatch("var x=0; D:foo(bar + (x = 1)); U:x");
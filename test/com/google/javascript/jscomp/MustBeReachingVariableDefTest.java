@@ -143,6 +143,11 @@ public final class MustBeReachingVariableDefTest extends TestCase {
     assertNotSame(def, defUse.getDefNode("param1", use));
   }
 
+  public void testDefinitionsInOneNodeHaveTheirOwnDependences() {
+    assertNotMatch("var y = 1; D: var x = y, z = 2; y = 3; U: x");
+    assertMatch("var y = 1; D: var x = 2, z = y; y = 3; U: x");
+  }
+
   public void testArgumentsObjectEscapedDependents() {
     assertNotMatch("param1=1; var x; D:x=param1; var y=arguments; U:x");
   }
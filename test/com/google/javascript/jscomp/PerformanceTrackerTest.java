@@ -17,15 +17,24 @@
 package com.google.javascript.jscomp;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.google.javascript.jscomp.CompilerOptions.TracerMode;
+import com.google.javascript.jscomp.CompilerOptions.TracerOutputFormat;
+import com.google.javascript.jscomp.PerformanceTracker.DataFlowStats;
 import com.google.javascript.jscomp.PerformanceTracker.Stats;
 import com.google.javascript.rhino.Node;
 import com.google.javascript.rhino.Token;
+import com.google.javascript.rhino.jstype.JSType;
+import com.google.javascript.rhino.jstype.JSTypeNative;
+import com.google.javascript.rhino.jstype.JSTypeRegistry;
 
 import junit.framework.TestCase;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.util.List;
 import java.util.regex.Pattern;
 
 /**
@@ -126,4 +135,189 @@ public final class PerformanceTrackerTest extends TestCase {
     assertTrue("Unexpected output from PerformanceTracker:\n" + outputString,
         p.matcher(outputString).matches());
   }
-}
\ No newline at end of file
+
+  public void testResourceUsage() {
+    PerformanceTracker tracker =
+        new PerformanceTracker(emptyScript, TracerMode.TIMING_ONLY);
+    tracker.recordPassStart("allocating", true);
+    int[][] garbage = new int[100][];
+    for (int i = 0; i < garbage.length; i++) {
+      garbage[i] = new int[1000];
+    }
+    tracker.recordPassStop("allocating", 5);
+
+    Stats st = tracker.getStats().get("allocating");
+    assertTrue(st.cpuTime >= -1);
+    assertTrue(st.gcCount >= 0);
+    assertTrue(st.gcTime >= 0);
+    if (st.allocatedBytes != -1) {
+      assertTrue(st.allocatedBytes >= garbage.length * 1000 * 4);
+    }
+    assertEquals(st.allocatedBytes, tracker.getAllocatedBytes());
+    assertEquals(st.cpuTime, tracker.getCpuTime());
+  }
+
+  public void testJsonOutput() {
+    PerformanceTracker tracker =
+        new PerformanceTracker(emptyScript, TracerMode.TIMING_ONLY);
+    CodeChangeHandler handler = tracker.getCodeChangeHandler();
+    tracker.recordPassStart("passB", false);
+    handler.reportChange();
+    tracker.recordPassStop("passB", 3);
+    tracker.recordPassStart("passA", true);
+    tracker.recordPassStop("passA", 4);
+    tracker.recordPassStart("passB", false);
+    tracker.recordPassStop("passB", 5);
+
+    JsonObject report = new JsonParser()
+        .parse(output(tracker, TracerOutputFormat.JSON)).getAsJsonObject();
+    assertEquals(12, report.get("runtime").getAsInt());
+    assertEquals(3, report.get("runs").getAsInt());
+    assertEquals(1, report.get("changingRuns").getAsInt());
+    assertEquals(2, report.get("loopableRuns").getAsInt());
+    assertTrue(report.has("cpuTime"));
+    assertTrue(report.has("allocatedBytes"));
+    assertTrue(report.has("gcTime"));
+
+    JsonArray summary = report.getAsJsonArray("summary");
+    assertEquals(2, summary.size());
+    JsonObject passA = summary.get(0).getAsJsonObject();
+    assertEquals("passA", passA.get("pass").getAsString());
+    assertTrue(passA.get("isOneTime").getAsBoolean());
+    JsonObject passB = summary.get(1).getAsJsonObject();
+    assertEquals("passB", passB.get("pass").getAsString());
+    assertEquals(8, passB.get("runtime").getAsInt());
+    assertEquals(2, passB.get("runs").getAsInt());
+    assertEquals(1, passB.get("changingRuns").getAsInt());
+
+    JsonArray log = report.getAsJsonArray("log");
+    assertEquals(3, log.size());
+    JsonObject firstRun = log.get(0).getAsJsonObject();
+    assertEquals("passB", firstRun.get("pass").getAsString());
+    assertEquals(1, firstRun.get("changingRuns").getAsInt());
+  }
+
+  public void testSubtypeCacheStats() {
+    PerformanceTracker tracker =
+        new PerformanceTracker(emptyScript, TracerMode.TIMING_ONLY);
+    JSTypeRegistry registry = new JSTypeRegistry(null);
+    tracker.setTypeRegistry(registry);
+    JSType number = registry.getNativeType(JSTypeNative.NUMBER_TYPE);
+    JSType union = registry.createUnionType(
+        number, registry.getNativeType(JSTypeNative.STRING_TYPE));
+    tracker.recordPassStart("subtyping", true);
+    number.isSubtype(union);
+    number.isSubtype(union);
+    tracker.recordPassStop("subtyping", 1);
+    tracker.recordPassStart("other", true);
+    tracker.recordPassStop("other", 1);
+
+    Stats st = tracker.getStats().get("subtyping");
+    assertEquals(1, st.subtypeCacheHits);
+    assertTrue(st.subtypeCacheMisses > 0);
+    st = tracker.getStats().get("other");
+    assertEquals(0, st.subtypeCacheHits);
+    assertEquals(0, st.subtypeCacheMisses);
+
+    String outputString = output(tracker, TracerOutputFormat.PROMETHEUS);
+    assertTrue(outputString, outputString.contains(
+        "closure_compiler_pass_subtype_cache_hits_total{pass=\"subtyping\"} 1\n"));
+  }
+
+  public void testDataFlowSteps() {
+    PerformanceTracker tracker =
+        new PerformanceTracker(emptyScript, TracerMode.TIMING_ONLY);
+    Node function = new Compiler().parseTestCode("function f() {}")
+        .getFirstChild();
+    tracker.recordPassStart("flow", true);
+    tracker.recordDataFlowSteps(
+        "LiveVariablesAnalysis", function.getLastChild(), 7);
+    tracker.recordDataFlowSteps("TypeInference", null, 3);
+    tracker.recordPassStop("flow", 1);
+
+    assertEquals(10, tracker.getStats().get("flow").dataFlowSteps);
+    DataFlowStats stats = tracker.getDataFlowStats().get(0);
+    assertEquals("flow", stats.pass);
+    assertEquals("LiveVariablesAnalysis", stats.analysis);
+    assertEquals("f", stats.function);
+    assertEquals(7, stats.steps);
+    assertEquals("<global>", tracker.getDataFlowStats().get(1).function);
+
+    JsonObject report = new JsonParser()
+        .parse(output(tracker, TracerOutputFormat.JSON)).getAsJsonObject();
+    assertEquals(10, report.get("dataFlowSteps").getAsInt());
+    JsonArray dataFlow = report.getAsJsonArray("dataFlow");
+    assertEquals(2, dataFlow.size());
+    assertEquals("TypeInference",
+        dataFlow.get(1).getAsJsonObject().get("analysis").getAsString());
+  }
+
+  public void testDataFlowLogKeepsTheMostExpensiveAnalyses() {
+    PerformanceTracker tracker =
+        new PerformanceTracker(emptyScript, TracerMode.TIMING_ONLY);
+    int analyses = PerformanceTracker.MAX_DATA_FLOW_LOG_SIZE * 3;
+    tracker.recordPassStart("flow", true);
+    for (int i = 0; i < analyses; i++) {
+      // Records the steps 1 to analyses out of order.
+      tracker.recordDataFlowSteps(
+          "LiveVariablesAnalysis", null, (i * 7) % analyses + 1);
+    }
+    tracker.recordPassStop("flow", 1);
+
+    assertEquals(analyses * (analyses + 1) / 2,
+        tracker.getStats().get("flow").dataFlowSteps);
+    List<DataFlowStats> log = tracker.getDataFlowStats();
+    assertEquals(PerformanceTracker.MAX_DATA_FLOW_LOG_SIZE, log.size());
+    for (int i = 0; i < log.size(); i++) {
+      assertEquals(analyses - i, log.get(i).steps);
+    }
+  }
+
+  public void testDataFlowLogCanBeTurnedOff() {
+    PerformanceTracker tracker =
+        new PerformanceTracker(emptyScript, TracerMode.TIMING_ONLY);
+    tracker.setLogDataFlow(false);
+    tracker.recordPassStart("flow", true);
+    tracker.recordDataFlowSteps("LiveVariablesAnalysis", null, 7);
+    tracker.recordPassStop("flow", 1);
+
+    assertEquals(7, tracker.getStats().get("flow").dataFlowSteps);
+    assertTrue(tracker.getDataFlowStats().isEmpty());
+  }
+
+  public void testPrometheusOutput() {
+    PerformanceTracker tracker =
+        new PerformanceTracker(emptyScript, TracerMode.ALL);
+    tracker.recordPassStart("pass\"A", true);
+    tracker.recordPassStop("pass\"A", 1500);
+
+    String outputString = output(tracker, TracerOutputFormat.PROMETHEUS);
+    assertTrue(outputString, outputString.contains(
+        "# HELP closure_compiler_pass_runtime_seconds_total "
+        + "Wall time spent in the pass.\n"
+        + "# TYPE closure_compiler_pass_runtime_seconds_total counter\n"
+        + "closure_compiler_pass_runtime_seconds_total"
+        + "{pass=\"pass\\\"A\"} 1.5\n"));
+    assertTrue(outputString, outputString.contains(
+        "closure_compiler_pass_runs_total{pass=\"pass\\\"A\"} 1\n"));
+    assertTrue(outputString, outputString.contains(
+        "# TYPE closure_compiler_pass_gz_reduction_bytes gauge\n"));
+    for (String line : outputString.split("\n")) {
+      if (line.startsWith("# TYPE ") && line.endsWith(" counter")) {
+        assertTrue(line, line.endsWith("_total counter"));
+      }
+      assertTrue(line, line.startsWith("# ")
+          || line.matches("closure_compiler_pass_[a-z_]+\\{pass=\".*\"\\} "
+              + "-?[0-9.E-]+"));
+    }
+  }
+
+  private static String output(
+      PerformanceTracker tracker, TracerOutputFormat format) {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    PrintStream outstream = new PrintStream(output);
+    tracker.outputReport(outstream, format);
+    outstream.close();
+    return output.toString();
+  }
+}
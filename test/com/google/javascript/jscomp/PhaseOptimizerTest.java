@@ -21,6 +21,7 @@ import static com.google.common.truth.Truth.assertThat;
 import com.google.common.collect.ImmutableList;
 import com.google.javascript.jscomp.CompilerOptions.TracerMode;
 import com.google.javascript.jscomp.PhaseOptimizer.Loop;
+import com.google.javascript.rhino.IR;
 import com.google.javascript.rhino.Node;
 import com.google.javascript.rhino.Token;
 
@@ -159,6 +160,34 @@ public final class PhaseOptimizerTest extends TestCase {
     assertEquals(PhaseOptimizer.OPTIMAL_ORDER, passesRun);
   }
 
+  public void testResumeAtOneTimePass() {
+    addOneTimePass("a");
+    addOneTimePass("b");
+    addOneTimePass("c");
+    optimizer.resumeAt("b");
+    assertPasses("b", "c");
+  }
+
+  public void testResumeAtLoopedPass() {
+    addOneTimePass("a");
+    Loop loop = optimizer.addFixedPointLoop();
+    addLoopedPass(loop, "x", 0);
+    addLoopedPass(loop, "y", 0);
+    addOneTimePass("z");
+    optimizer.resumeAt("y");
+    assertPasses("x", "y", "z");
+  }
+
+  public void testResumeAtUnknownPass() {
+    addOneTimePass("a");
+    try {
+      optimizer.resumeAt("b");
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
   public void testProgress() {
     final List<Double> progressList = new ArrayList<>();
     compiler = new Compiler() {
@@ -181,6 +210,52 @@ public final class PhaseOptimizerTest extends TestCase {
     assertEquals(100, Math.round(progressList.get(3)));
   }
 
+  public void testChangedScopeRoots() {
+    compiler = new Compiler();
+    compiler.init(ImmutableList.<SourceFile>of(), ImmutableList.of(
+        SourceFile.fromCode("in.js",
+            "function f() {} function g() {} function h() {}")),
+        new CompilerOptions());
+    final Node script = compiler.parseInputs().getLastChild().getFirstChild();
+    final Node f = script.getFirstChild();
+    final Node g = f.getNext();
+    final Node h = g.getNext();
+    optimizer = new PhaseOptimizer(compiler, null, null);
+    final List<List<Node>> seen = new ArrayList<>();
+    final int[] changingRuns = {0};
+
+    Loop loop = optimizer.addFixedPointLoop();
+    loop.addLoopedPass(createPassFactory("change", new CompilerPass() {
+      @Override public void process(Node externs, Node root) {
+        if (changingRuns[0]++ == 1) {
+          optimizer.reportChangeToEnclosingScope(g.getLastChild());
+          optimizer.reportChangeToEnclosingScope(f.getLastChild());
+          Node clone = f.cloneTree();
+          clone.getFirstChild().setString("fClone");
+          g.getLastChild().addChildToBack(IR.exprResult(clone));
+          optimizer.reportChangeToEnclosingScope(g.getLastChild());
+          optimizer.reportChangeToEnclosingScope(h.getLastChild());
+          script.removeChild(h);
+        } else if (changingRuns[0] == 1) {
+          optimizer.reportChangeToEnclosingScope(h.getLastChild());
+        }
+      }
+    }, false));
+    loop.addLoopedPass(createPassFactory("observe", new CompilerPass() {
+      @Override public void process(Node externs, Node root) {
+        seen.add(optimizer.getChangedScopeRoots());
+      }
+    }, false));
+    optimizer.process(null, compiler.getJsRoot());
+
+    // The first run looks at every scope, the second only at the scopes
+    // changed since then, in the order they changed.
+    assertThat(seen).hasSize(2);
+    assertNull(seen.get(0));
+    Node fClone = g.getLastChild().getLastChild().getFirstChild();
+    assertEquals(ImmutableList.of(f, g, fClone), seen.get(1));
+  }
+
   public void assertPasses(String ... names) {
     optimizer.process(null, dummyRoot);
     assertEquals(ImmutableList.copyOf(names), passesRun);
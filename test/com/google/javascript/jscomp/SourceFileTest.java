@@ -0,0 +1,131 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import static java.nio.charset.StandardCharsets.UTF_16;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.ImmutableList;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+
+/**
+ * Tests for {@link SourceFile}.
+ */
+public final class SourceFileTest extends TestCase {
+
+  private static final ImmutableList<String> CODES = ImmutableList.of(
+      "",
+      "var a = 1;",
+      "var a = 1;\n",
+      "var a = 1;\nvar b = 2;\n\nvar c = 3;",
+      "var a = 'ü';\r\nvar b = '中';\r\n",
+      "1;\n2;\n3;\n4;\n5;\n6;\n7;\n8;\n9;\n");
+
+  private File file;
+
+  @Override
+  protected void setUp() throws IOException {
+    file = File.createTempFile("source", ".js");
+    file.deleteOnExit();
+  }
+
+  @Override
+  protected void tearDown() {
+    file.delete();
+  }
+
+  public void testMappedFileCode() throws IOException {
+    for (String code : CODES) {
+      write(code, UTF_8);
+      assertEquals(code,
+          SourceFile.fromMappedFile(file.getPath(), UTF_8).getCode());
+    }
+  }
+
+  public void testMappedFileReleasesParsedSource() throws IOException {
+    write("var a = 1;\nvar b = 2;", UTF_8);
+    SourceFile source = SourceFile.fromMappedFile(file.getPath(), UTF_8);
+    source.getCode();
+    assertTrue(source.hasSourceInMemory());
+
+    source.releaseParsedSource();
+    assertFalse(source.hasSourceInMemory());
+    assertEquals("var b = 2;", source.getLine(2));
+    assertFalse(source.hasSourceInMemory());
+    assertEquals(2, source.getLineOfOffset(12));
+  }
+
+  public void testMappedFileKeepsSourceWithoutLineIndex() throws IOException {
+    write("var a = 1;\nvar b = 2;", UTF_16);
+    SourceFile source = SourceFile.fromMappedFile(file.getPath(), UTF_16);
+    assertEquals("var a = 1;\nvar b = 2;", source.getCode());
+
+    source.releaseParsedSource();
+    assertTrue(source.hasSourceInMemory());
+    assertEquals("var b = 2;", source.getLine(2));
+  }
+
+  public void testSizeHintDoesNotReadTheFile() throws IOException {
+    write("var a = 'ü';", UTF_8);
+    for (SourceFile source : new SourceFile[] {
+        SourceFile.fromFile(file.getPath(), UTF_8),
+        SourceFile.fromMappedFile(file.getPath(), UTF_8)}) {
+      assertEquals(13, source.getSizeHint());
+      assertFalse(source.hasSourceInMemory());
+      source.getCode();
+      assertEquals(12, source.getSizeHint());
+    }
+  }
+
+  public void testMappedFileExcerptsMatchPreloaded() throws IOException {
+    for (String code : CODES) {
+      write(code, UTF_8);
+      SourceFile expected = SourceFile.fromCode(file.getPath(), code);
+      SourceFile source = SourceFile.fromMappedFile(file.getPath(), UTF_8);
+      source.getCode();
+      source.releaseParsedSource();
+
+      assertEquals(expected.getLine(0), source.getLine(0));
+      for (int line = 1; line <= expected.getNumLines() + 3; line++) {
+        assertEquals(expected.getLine(line), source.getLine(line));
+        assertRegionEquals(expected.getRegion(line), source.getRegion(line));
+      }
+      assertFalse(source.hasSourceInMemory());
+    }
+  }
+
+  private void write(String code, Charset charset) throws IOException {
+    Files.write(file.toPath(), code.getBytes(charset));
+  }
+
+  private static void assertRegionEquals(Region expected, Region actual) {
+    if (expected == null) {
+      assertNull(actual);
+      return;
+    }
+    assertEquals(expected.getBeginningLineNumber(),
+        actual.getBeginningLineNumber());
+    assertEquals(expected.getEndingLineNumber(), actual.getEndingLineNumber());
+    assertEquals(expected.getSourceExcerpt(), actual.getSourceExcerpt());
+  }
+}
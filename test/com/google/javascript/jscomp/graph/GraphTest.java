@@ -20,7 +20,10 @@ import static com.google.common.truth.Truth.assertThat;
 
 import com.google.javascript.jscomp.graph.Annotatable;
 import com.google.javascript.jscomp.graph.Annotation;
+import com.google.javascript.jscomp.graph.CompactDirectedGraph;
 import com.google.javascript.jscomp.graph.DiGraph;
+import com.google.javascript.jscomp.graph.DiGraph.DiGraphEdge;
+import com.google.javascript.jscomp.graph.DiGraph.DiGraphNode;
 import com.google.javascript.jscomp.graph.Graph;
 import com.google.javascript.jscomp.graph.Graph.GraphEdge;
 import com.google.javascript.jscomp.graph.GraphNode;
@@ -31,6 +34,7 @@ import com.google.javascript.jscomp.graph.UndiGraph;
 
 import junit.framework.TestCase;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -43,8 +47,11 @@ import java.util.Set;
 public final class GraphTest extends TestCase {
 
   public void testDirectedSimple() {
-    DiGraph<String, String> graph =
-        LinkedDirectedGraph.create();
+    testDirectedSimple(LinkedDirectedGraph.<String, String>create());
+    testDirectedSimple(CompactDirectedGraph.<String, String>create());
+  }
+
+  private static void testDirectedSimple(DiGraph<String, String> graph) {
     graph.createNode("a");
     graph.createNode("b");
     graph.createNode("c");
@@ -119,8 +126,11 @@ public final class GraphTest extends TestCase {
   }
 
   public void testDirectedSelfLoop() {
-    DiGraph<String, String> graph =
-        LinkedDirectedGraph.create();
+    testDirectedSelfLoop(LinkedDirectedGraph.<String, String>create());
+    testDirectedSelfLoop(CompactDirectedGraph.<String, String>create());
+  }
+
+  private static void testDirectedSelfLoop(DiGraph<String, String> graph) {
     graph.createNode("a");
     graph.createNode("b");
     graph.connect("a", "->", "a");
@@ -163,8 +173,11 @@ public final class GraphTest extends TestCase {
   }
 
   public void testDirectedInAndOutEdges() {
-    DiGraph<String, String> graph =
-        LinkedDirectedGraph.create();
+    testDirectedInAndOutEdges(LinkedDirectedGraph.<String, String>create());
+    testDirectedInAndOutEdges(CompactDirectedGraph.<String, String>create());
+  }
+
+  private void testDirectedInAndOutEdges(DiGraph<String, String> graph) {
     graph.createNode("a");
     graph.createNode("b");
     graph.createNode("c");
@@ -207,8 +220,11 @@ public final class GraphTest extends TestCase {
   }
 
   public void testDirectedGetFirstEdge() {
-    DiGraph<String, String> graph =
-      LinkedDirectedGraph.create();
+    testDirectedGetFirstEdge(LinkedDirectedGraph.<String, String>create());
+    testDirectedGetFirstEdge(CompactDirectedGraph.<String, String>create());
+  }
+
+  private static void testDirectedGetFirstEdge(DiGraph<String, String> graph) {
     graph.createNode("a");
     graph.createNode("b");
     graph.createNode("c");
@@ -231,14 +247,22 @@ public final class GraphTest extends TestCase {
   }
 
   public void testNodeAnnotations() {
-    Graph<String, String> graph = LinkedUndirectedGraph.create();
+    testNodeAnnotations(LinkedUndirectedGraph.<String, String>create());
+    testNodeAnnotations(CompactDirectedGraph.<String, String>create());
+  }
+
+  private static void testNodeAnnotations(Graph<String, String> graph) {
     GraphNode<String, String> a = graph.createNode("a");
     GraphNode<String, String> b = graph.createNode("b");
     checkAnnotations(graph, a, b);
   }
 
   public void testEdgeAnnotations() {
-    Graph<String, String> graph = LinkedUndirectedGraph.create();
+    testEdgeAnnotations(LinkedUndirectedGraph.<String, String>create());
+    testEdgeAnnotations(CompactDirectedGraph.<String, String>create());
+  }
+
+  private static void testEdgeAnnotations(Graph<String, String> graph) {
     graph.createNode("1");
     graph.createNode("2");
     graph.createNode("3");
@@ -300,6 +324,7 @@ public final class GraphTest extends TestCase {
   public void testDegree() {
     testDirectedDegree(LinkedDirectedGraph.<String, String>create());
     testDirectedDegree(LinkedUndirectedGraph.<String, String>create());
+    testDirectedDegree(CompactDirectedGraph.<String, String>create());
   }
 
   public void testDirectedDegree(Graph<String, String> graph) {
@@ -323,6 +348,8 @@ public final class GraphTest extends TestCase {
         LinkedDirectedGraph.<String, String>create());
     testDirectedConnectIfNotFound(
         LinkedUndirectedGraph.<String, String>create());
+    testDirectedConnectIfNotFound(
+        CompactDirectedGraph.<String, String>create());
   }
 
   public void testDirectedConnectIfNotFound(Graph<String, String> graph) {
@@ -338,6 +365,45 @@ public final class GraphTest extends TestCase {
     assertThat(graph.getNodeDegree("a")).isEqualTo(2);
   }
 
+  public void testCompactGraphKeepsCreationOrder() {
+    DiGraph<String, String> graph = CompactDirectedGraph.create();
+    graph.createNode("c");
+    graph.createNode("a");
+    graph.createNode("b");
+    graph.connect("a", "1", "c");
+    graph.connect("b", "2", "c");
+    graph.connect("a", "3", "b");
+    graph.connect("a", "4", "c");
+
+    List<String> nodes = new ArrayList<>();
+    for (DiGraphNode<String, String> node : graph.getDirectedGraphNodes()) {
+      nodes.add(node.getValue());
+    }
+    assertThat(nodes).containsExactly("c", "a", "b").inOrder();
+    assertEdgeValues(graph.getOutEdges("a"), "1", "3", "4");
+    assertEdgeValues(graph.getInEdges("c"), "1", "2", "4");
+
+    graph.disconnectInDirection("a", "b");
+    assertEdgeValues(graph.getOutEdges("a"), "1", "4");
+    assertThat(graph.getDirectedPredNodes("b")).isEmpty();
+  }
+
+  public void testCompactGraphEdgesAreStable() {
+    DiGraph<String, String> graph = CompactDirectedGraph.create();
+    graph.createNode("a");
+    graph.createNode("b");
+    graph.connect("a", "-", "b");
+    DiGraphEdge<String, String> edge = graph.getOutEdges("a").get(0);
+    Annotation annotation = new Annotation() {};
+    edge.setAnnotation(annotation);
+
+    // Adding nodes and edges rebuilds the index but keeps the edge.
+    graph.createNode("c");
+    graph.connect("c", "-", "a");
+    assertSame(edge, graph.getInEdges("b").get(0));
+    assertSame(annotation, graph.getInEdges("b").get(0).getAnnotation());
+  }
+
   public void testSimpleSubGraph() {
     UndiGraph<String, String> graph =
         LinkedUndirectedGraph.create();
@@ -362,6 +428,15 @@ public final class GraphTest extends TestCase {
     assertThat(subGraph.isIndependentOf("c")).isTrue();
   }
 
+  private static void assertEdgeValues(
+      List<DiGraphEdge<String, String>> edges, String... values) {
+    List<String> edgeValues = new ArrayList<>();
+    for (DiGraphEdge<String, String> edge : edges) {
+      edgeValues.add(edge.getValue());
+    }
+    assertThat(edgeValues).containsExactly((Object[]) values).inOrder();
+  }
+
   private <T extends GraphNode<String, String>> void assertListCount(
       List<T> list, String target, int count) {
     for (GraphNode<String, String> node : list) {
@@ -238,6 +238,16 @@ public final class NewParserTest extends BaseJSTypeTestCase {
     assertThat(assign.getCharno()).isEqualTo(1);
   }
 
+  public void testLinenoCharnoMixedLineTerminators() throws Exception {
+    Node script = parse("a;\r\nb;\rc;\n\u2028 d;");
+    Node d = script.getLastChild().getFirstChild();
+
+    assertThat(script.getChildAtIndex(1).getLineno()).isEqualTo(2);
+    assertThat(script.getChildAtIndex(2).getLineno()).isEqualTo(3);
+    assertThat(d.getLineno()).isEqualTo(5);
+    assertThat(d.getCharno()).isEqualTo(1);
+  }
+
   public void testLinenoCharnoCall() throws Exception {
     Node call = parse("\n foo(123);").getFirstChild().getFirstChild();
 
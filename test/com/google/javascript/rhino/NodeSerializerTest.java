@@ -0,0 +1,279 @@
+/*
+ *
+ * ***** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is Rhino code, released
+ * May 6, 1999.
+ *
+ * The Initial Developer of the Original Code is
+ * Netscape Communications Corporation.
+ * Portions created by the Initial Developer are Copyright (C) 1997-1999
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ *   Google Inc.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * the GNU General Public License Version 2 or later (the "GPL"), in which
+ * case the provisions of the GPL are applicable instead of those above. If
+ * you wish to allow use of your version of this file only under the terms of
+ * the GPL and not to allow others to use your version of this file under the
+ * MPL, indicate your decision by deleting the provisions above and replacing
+ * them with the notice and other provisions required by the GPL. If you do
+ * not delete the provisions above, a recipient may use your version of this
+ * file under either the MPL or the GPL.
+ *
+ * ***** END LICENSE BLOCK ***** */
+
+
+package com.google.javascript.rhino;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.javascript.jscomp.parsing.Config;
+import com.google.javascript.jscomp.parsing.Config.LanguageMode;
+import com.google.javascript.jscomp.parsing.ParserRunner;
+import com.google.javascript.rhino.testing.TestErrorReporter;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+/**
+ * Tests for {@link NodeSerializer}.
+ */
+public class NodeSerializerTest extends TestCase {
+
+  private static final String ES5_SOURCE = ""
+      + "/** @fileoverview Serialization test. @suppress {checkTypes} */\n"
+      + "/**\n"
+      + " * @constructor @struct\n"
+      + " * @extends {Base}\n"
+      + " * @implements {Iface<string>}\n"
+      + " * @param {number=} opt_x\n"
+      + " * @param {...?} var_args\n"
+      + " * @template T\n"
+      + " * @deprecated Use Bar.\n"
+      + " */\n"
+      + "function Foo(opt_x, var_args) {\n"
+      + "  'use strict';\n"
+      + "  /** @private {!Array<{a: (string|null), b: function(this:T): ?}>} */\n"
+      + "  this.arr_ = [];\n"
+      + "  /** @const */ this.n = -0.5e3 + 0x1F + 1 / 0;\n"
+      + "}\n"
+      + "/** @override @return {T} @throws {Error} */\n"
+      + "Foo.prototype.get = function() { return this.arr_[0]; };\n"
+      + "var o = {'quoted': 1, unquoted: 2, get g() { return '\\u2028\\v'; },"
+      + " set g(v) {}};\n"
+      + "for (var i = 0; i < 10; i++) { if (i-- in o) continue; else break; }\n"
+      + "var re = /a+b\\/c/gi, s = 'caf\\u00e9 \\ud83d\\ude00';\n"
+      + "label: while (true) { try { throw f(i++, --i); }"
+      + " catch (e) { debugger; } finally {} }\n"
+      + "/** @enum {string} */ var E = {A: 'a', B: 'b'};\n"
+      + "/** @typedef {{x: number}} */ var Point;\n"
+      + "/** @type {function(new:Foo, ...number)} */ var ctor;\n"
+      + "/** @lends {Foo.prototype} */ ({x: 1});\n"
+      + "/** @param {string} x @modifies {this} @nosideeffects */\n"
+      + "function g(x) {}\n";
+
+  private static final String ES6_SOURCE = ""
+      + "class A extends B { constructor() { super(); }"
+      + " static m() {} *gen() { yield* [1]; } get [k]() { return 1; } }\n"
+      + "let f = (a, b = 1, ...c) => a + `x${b}y`;\n"
+      + "const {p, q: [r, , ...t]} = obj;\n"
+      + "for (let v of xs) {}\n"
+      + "export default function() {}\n"
+      + "export * from 'mod';\n";
+
+  private static final String TYPED_SOURCE = ""
+      + "var n: number = 1;\n"
+      + "function f(x: string, y?: boolean, ...z: number[]): void {}\n"
+      + "var u: string | Array<Foo>;\n"
+      + "interface I<T> { m(x: T): T; }\n"
+      + "class C<T> implements I<T> { private x: T; m(x: T): T { return x; } }\n";
+
+  private final StaticSourceFile file = new TestSourceFile("test.js");
+
+  public void testRoundTripEs5() throws Exception {
+    assertRoundTrip(parse(ES5_SOURCE, LanguageMode.ECMASCRIPT5));
+  }
+
+  public void testRoundTripEs6() throws Exception {
+    assertRoundTrip(parse(ES6_SOURCE, LanguageMode.ECMASCRIPT6));
+  }
+
+  public void testRoundTripTypedSyntax() throws Exception {
+    assertRoundTrip(parse(TYPED_SOURCE, LanguageMode.ECMASCRIPT6_TYPED));
+  }
+
+  public void testSourceFileIsRebound() throws Exception {
+    Node root = parse(ES5_SOURCE, LanguageMode.ECMASCRIPT5);
+    StaticSourceFile other = new TestSourceFile("test.js");
+    Node copy = NodeSerializer.deserialize(
+        new ByteArrayInputStream(serialize(root)), other);
+
+    int rebound = 0;
+    for (Node n = root, m = copy; n != null; n = next(n, root), m = next(m, copy)) {
+      if (n.getStaticSourceFile() == file) {
+        assertSame(other, m.getStaticSourceFile());
+        rebound++;
+      }
+      JSDocInfo info = m.getJSDocInfo();
+      if (info != null && info.getType() != null) {
+        assertSame(other, info.getType().getRoot().getStaticSourceFile());
+      }
+    }
+    assertTrue(rebound > 0);
+  }
+
+  public void testDeeplyNestedAndWideTrees() throws Exception {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 20000; i++) {
+      sb.append("x").append(i).append(" = ").append(i).append(";\n");
+    }
+    sb.append("var y = ");
+    for (int i = 0; i < 100; i++) {
+      sb.append("[");
+    }
+    for (int i = 0; i < 100; i++) {
+      sb.append("]");
+    }
+    sb.append(";");
+    assertRoundTrip(parse(sb.toString(), LanguageMode.ECMASCRIPT5));
+  }
+
+  public void testIntAndObjectProps() throws Exception {
+    Node n = IR.name("x");
+    n.setStaticSourceFile(file);
+    n.putIntProp(Node.SIDE_EFFECT_FLAGS, -7);
+    n.putProp(Node.ORIGINALNAME_PROP, "y");
+    n.setInputId(new InputId("input"));
+    n.putProp(Node.DIRECTIVES, ImmutableSet.of("use strict"));
+    n.putProp(Node.ACCESS_MODIFIER, JSDocInfo.Visibility.PRIVATE);
+    n.setSourceEncodedPosition(Node.mergeLineCharNo(12, 34));
+
+    Node copy = NodeSerializer.deserialize(
+        new ByteArrayInputStream(serialize(n)), file);
+    assertEquals(-7, copy.getIntProp(Node.SIDE_EFFECT_FLAGS));
+    assertEquals("y", copy.getProp(Node.ORIGINALNAME_PROP));
+    assertEquals(new InputId("input"), copy.getInputId());
+    assertEquals(ImmutableSet.of("use strict"), copy.getProp(Node.DIRECTIVES));
+    assertEquals(JSDocInfo.Visibility.PRIVATE,
+        copy.getProp(Node.ACCESS_MODIFIER));
+    assertEquals(12, copy.getLineno());
+    assertEquals(34, copy.getCharno());
+  }
+
+  public void testRejectsOtherFormats() {
+    try {
+      NodeSerializer.deserialize(
+          new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5, 6, 7, 8}), file);
+      fail("Expected an IOException");
+    } catch (IOException expected) {
+    }
+  }
+
+  public void testSmallerThanJavaSerialization() throws Exception {
+    Node root = parse(ES5_SOURCE, LanguageMode.ECMASCRIPT5);
+    ByteArrayOutputStream javaSerialized = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(javaSerialized)) {
+      out.writeObject(root);
+    }
+    int size = serialize(root).length;
+    assertTrue("Serialized to " + size + " bytes, Java serialization uses "
+        + javaSerialized.size(), size * 4 < javaSerialized.size());
+  }
+
+  private void assertRoundTrip(Node root) throws IOException {
+    byte[] bytes = serialize(root);
+    Node copy = NodeSerializer.deserialize(new ByteArrayInputStream(bytes), file);
+
+    assertTrue(root.isEquivalentTo(copy, false, true, true));
+    for (Node n = root, m = copy; n != null; n = next(n, root), m = next(m, copy)) {
+      assertEquals(n.toString(false, true, false), m.toString(false, true, false));
+      assertEquals(n.getSourcePosition(), m.getSourcePosition());
+      assertEquals(n.getLength(), m.getLength());
+      JSDocInfo info = n.getJSDocInfo();
+      if (info != null) {
+        assertTrue(JSDocInfo.areEquivalent(info, m.getJSDocInfo()));
+        assertEquals(info.getOriginalCommentPosition(),
+            m.getJSDocInfo().getOriginalCommentPosition());
+      }
+    }
+  }
+
+  /** Returns the node after n in a preorder traversal of root. */
+  private static Node next(Node n, Node root) {
+    if (n.hasChildren()) {
+      return n.getFirstChild();
+    }
+    while (n != root && n.getNext() == null) {
+      n = n.getParent();
+    }
+    return n == root ? null : n.getNext();
+  }
+
+  private byte[] serialize(Node root) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    NodeSerializer.serialize(root, file, out);
+    return out.toByteArray();
+  }
+
+  private Node parse(String source, LanguageMode mode) {
+    Config config = ParserRunner.createConfig(
+        false, mode, ImmutableSet.<String>of());
+    TestErrorReporter reporter = new TestErrorReporter(null, null);
+    Node root = ParserRunner.parse(file, source, config, reporter).ast;
+    assertNotNull(root);
+    return root;
+  }
+
+  private static final class TestSourceFile
+      implements StaticSourceFile, Serializable {
+    private static final long serialVersionUID = 1L;
+    private final String name;
+
+    TestSourceFile(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public boolean isExtern() {
+      return false;
+    }
+
+    @Override
+    public int getLineOffset(int lineNumber) {
+      return 0;
+    }
+
+    @Override
+    public int getLineOfOffset(int offset) {
+      return 1;
+    }
+
+    @Override
+    public int getColumnOfOffset(int offset) {
+      return offset;
+    }
+  }
+}
@@ -45,6 +45,8 @@ import com.google.javascript.rhino.testing.TestErrorReporter;
 
 import junit.framework.TestCase;
 
+import java.util.Arrays;
+
 public class NodeTest extends TestCase {
   public void testMergeExtractNormal() throws Exception {
     testMergeExtract(5, 6);
@@ -376,7 +378,7 @@ public class NodeTest extends TestCase {
     n.putIntProp(Node.SIDE_EFFECT_FLAGS, 5);
     Node m = new Node(Token.TRUE);
     m.clonePropsFrom(n);
-    assertEquals(m.getPropListHeadForTesting(), n.getPropListHeadForTesting());
+    assertEquals(m.getPropsForTesting(), n.getPropsForTesting());
     assertEquals(5, n.getIntProp(Node.SIDE_EFFECT_FLAGS));
     assertEquals(5, m.getIntProp(Node.SIDE_EFFECT_FLAGS));
   }
@@ -391,7 +393,7 @@ public class NodeTest extends TestCase {
     assertEquals(6, n.getIntProp(Node.SIDE_EFFECT_FLAGS));
     assertEquals(5, m.getIntProp(Node.SIDE_EFFECT_FLAGS));
     assertFalse(
-        m.getPropListHeadForTesting() == n.getPropListHeadForTesting());
+        m.getPropsForTesting() == n.getPropsForTesting());
 
     m.putIntProp(Node.SIDE_EFFECT_FLAGS, 7);
     assertEquals(6, n.getIntProp(Node.SIDE_EFFECT_FLAGS));
@@ -415,20 +417,78 @@ public class NodeTest extends TestCase {
 
     n.putBooleanProp(Node.IS_CONSTANT_NAME, false);
 
-    assertNull(n.lookupProperty(Node.IS_CONSTANT_NAME));
+    assertFalse(n.hasProp(Node.IS_CONSTANT_NAME));
     assertFalse(n.getBooleanProp(Node.IS_CONSTANT_NAME));
 
     n.putBooleanProp(Node.IS_CONSTANT_NAME, true);
 
-    assertNotNull(n.lookupProperty(Node.IS_CONSTANT_NAME));
+    assertTrue(n.hasProp(Node.IS_CONSTANT_NAME));
     assertTrue(n.getBooleanProp(Node.IS_CONSTANT_NAME));
 
     n.putBooleanProp(Node.IS_CONSTANT_NAME, false);
 
-    assertNull(n.lookupProperty(Node.IS_CONSTANT_NAME));
+    assertFalse(n.hasProp(Node.IS_CONSTANT_NAME));
     assertFalse(n.getBooleanProp(Node.IS_CONSTANT_NAME));
   }
 
+  public void testMixedProps() {
+    Node n = getVarRef("a");
+    n.putBooleanProp(Node.IS_CONSTANT_NAME, true);
+    n.putIntProp(Node.SIDE_EFFECT_FLAGS, 5);
+    n.putProp(Node.ORIGINALNAME_PROP, "b");
+    n.putIntProp(Node.CHANGE_TIME, 7);
+    n.putProp(Node.ACCESS_MODIFIER, "private");
+
+    assertTrue(Arrays.equals(
+        new int[] {Node.ORIGINALNAME_PROP, Node.SIDE_EFFECT_FLAGS,
+            Node.IS_CONSTANT_NAME, Node.CHANGE_TIME, Node.ACCESS_MODIFIER},
+        n.getSortedPropTypes()));
+    assertTrue(n.isIntProp(Node.IS_CONSTANT_NAME));
+    assertTrue(n.isIntProp(Node.CHANGE_TIME));
+    assertFalse(n.isIntProp(Node.ORIGINALNAME_PROP));
+    assertFalse(n.isIntProp(Node.INCRDECR_PROP));
+    assertEquals(5, n.getIntProp(Node.SIDE_EFFECT_FLAGS));
+    assertEquals(7, n.getIntProp(Node.CHANGE_TIME));
+    assertEquals("b", n.getProp(Node.ORIGINALNAME_PROP));
+    assertEquals("private", n.getProp(Node.ACCESS_MODIFIER));
+
+    n.putIntProp(Node.IS_CONSTANT_NAME, 3);
+    n.putIntProp(Node.SIDE_EFFECT_FLAGS, 1);
+    n.removeProp(Node.ORIGINALNAME_PROP);
+    assertEquals(3, n.getIntProp(Node.IS_CONSTANT_NAME));
+    assertEquals(1, n.getIntProp(Node.SIDE_EFFECT_FLAGS));
+    assertEquals(7, n.getIntProp(Node.CHANGE_TIME));
+    assertNull(n.getProp(Node.ORIGINALNAME_PROP));
+    assertEquals("private", n.getProp(Node.ACCESS_MODIFIER));
+
+    n.removeProp(Node.IS_CONSTANT_NAME);
+    n.removeProp(Node.SIDE_EFFECT_FLAGS);
+    n.putIntProp(Node.CHANGE_TIME, 0);
+    n.putProp(Node.ACCESS_MODIFIER, null);
+    assertFalse(n.hasProps());
+  }
+
+  public void testNodesGivenTheSamePropShareProps() {
+    Node template = new Node(Token.SCRIPT);
+    template.putProp(Node.ORIGINALNAME_PROP, "a");
+    Node a = Node.newString("abc").clonePropsFrom(template);
+    Node b = Node.newString("xyz").clonePropsFrom(template);
+    Node c = Node.newString("abcd").clonePropsFrom(template);
+    a.setLength(3);
+    b.setLength(3);
+    c.setLength(4);
+    assertSame(a.getPropsForTesting(), b.getPropsForTesting());
+    assertNotSame(a.getPropsForTesting(), c.getPropsForTesting());
+    assertEquals(3, b.getLength());
+    assertEquals(4, c.getLength());
+    assertEquals("a", c.getProp(Node.ORIGINALNAME_PROP));
+
+    a.putBooleanProp(Node.QUOTED_PROP, true);
+    b.putBooleanProp(Node.QUOTED_PROP, true);
+    assertSame(a.getPropsForTesting(), b.getPropsForTesting());
+    assertEquals(3, b.getLength());
+  }
+
   // Verify that annotations on cloned nodes are properly handled.
   public void testCloneAnnontations2() {
     Node n = getVarRef("a");
@@ -507,6 +567,30 @@ public class NodeTest extends TestCase {
     assertEquals("bar.js", lhs.getSourceFileName());
   }
 
+  public void testUseSourceInfoFromSharesSourceInfo() {
+    Node assign = getAssignExpr("b","c");
+    assign.setSourceFileForTesting("foo.js");
+    assign.setLength(5);
+
+    Node lhs = assign.getFirstChild();
+    lhs.useSourceInfoFrom(assign);
+    assertSame(assign.getPropsForTesting(), lhs.getPropsForTesting());
+
+    Node rhs = assign.getLastChild();
+    rhs.putBooleanProp(Node.QUOTED_PROP, true);
+    rhs.useSourceInfoFrom(assign);
+    assertNotSame(assign.getPropsForTesting(), rhs.getPropsForTesting());
+    assertTrue(rhs.getBooleanProp(Node.QUOTED_PROP));
+    assertEquals("foo.js", rhs.getSourceFileName());
+    assertEquals(5, rhs.getLength());
+
+    assign.putBooleanProp(Node.QUOTED_PROP, true);
+    lhs.useSourceInfoFrom(assign);
+    assertFalse(lhs.getBooleanProp(Node.QUOTED_PROP));
+    assertEquals("foo.js", lhs.getSourceFileName());
+    assertEquals(5, lhs.getLength());
+  }
+
   public void testInvalidSourceOffset() {
     Node string = Node.newString("a");
 
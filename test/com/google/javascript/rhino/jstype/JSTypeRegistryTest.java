@@ -38,6 +38,7 @@
 
 package com.google.javascript.rhino.jstype;
 
+import com.google.common.collect.ImmutableList;
 import com.google.javascript.rhino.testing.Asserts;
 
 import junit.framework.TestCase;
@@ -84,6 +85,50 @@ public class JSTypeRegistryTest extends TestCase {
     assertFalse(typeRegistry.getGreatestSubtypeWithProperty(type, "foo").isUnknownType());
   }
 
+  public void testUnionTypesAreInterned() {
+    JSTypeRegistry typeRegistry = new JSTypeRegistry(null);
+    JSType number = typeRegistry.getNativeType(JSTypeNative.NUMBER_TYPE);
+    JSType string = typeRegistry.getNativeType(JSTypeNative.STRING_TYPE);
+    JSType union = typeRegistry.createUnionType(number, string);
+    assertSame(union, typeRegistry.createUnionType(number, string));
+    assertNotSame(union, typeRegistry.createUnionType(
+        number, typeRegistry.getNativeType(JSTypeNative.BOOLEAN_TYPE)));
+  }
+
+  public void testRecordTypesAreNotInterned() {
+    JSTypeRegistry typeRegistry = new JSTypeRegistry(null);
+    JSType number = typeRegistry.getNativeType(JSTypeNative.NUMBER_TYPE);
+    // The JSDoc of a record's properties can be changed, so records of the
+    // same structure must stay distinct.
+    JSType record = new RecordTypeBuilder(typeRegistry)
+        .addProperty("a", number, null)
+        .build();
+    assertNotSame(record, new RecordTypeBuilder(typeRegistry)
+        .addProperty("a", number, null)
+        .build());
+  }
+
+  public void testTemplatizedTypesAreInterned() {
+    JSTypeRegistry typeRegistry = new JSTypeRegistry(null);
+    ObjectType array = typeRegistry.getNativeObjectType(JSTypeNative.ARRAY_TYPE);
+    ImmutableList<JSType> numbers = ImmutableList.of(
+        typeRegistry.getNativeType(JSTypeNative.NUMBER_TYPE));
+    JSType arrayOfNumbers = typeRegistry.createTemplatizedType(array, numbers);
+    assertSame(arrayOfNumbers,
+        typeRegistry.createTemplatizedType(array, numbers));
+  }
+
+  public void testInterningKeepsNamedTypesApart() {
+    JSTypeRegistry typeRegistry = new JSTypeRegistry(null);
+    JSType number = typeRegistry.getNativeType(JSTypeNative.NUMBER_TYPE);
+    // Both named types are unknown until they are resolved, but they may not
+    // resolve to the same type, so unions of them must stay distinct.
+    JSType a = typeRegistry.createNamedType("A", "source", 1, 0);
+    JSType b = typeRegistry.createNamedType("B", "source", 1, 0);
+    assertNotSame(typeRegistry.createUnionType(a, number),
+        typeRegistry.createUnionType(b, number));
+  }
+
   private void assertTypeEquals(JSType a, JSType b) {
     Asserts.assertTypeEquals(a, b);
   }
@@ -0,0 +1,107 @@
+/*
+ *
+ * ***** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is Rhino code, released
+ * May 6, 1999.
+ *
+ * The Initial Developer of the Original Code is
+ * Netscape Communications Corporation.
+ * Portions created by the Initial Developer are Copyright (C) 1997-1999
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ *   Google Inc.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * the GNU General Public License Version 2 or later (the "GPL"), in which
+ * case the provisions of the GPL are applicable instead of those above. If
+ * you wish to allow use of your version of this file only under the terms of
+ * the GPL and not to allow others to use your version of this file under the
+ * MPL, indicate your decision by deleting the provisions above and replacing
+ * them with the notice and other provisions required by the GPL. If you do
+ * not delete the provisions above, a recipient may use your version of this
+ * file under either the MPL or the GPL.
+ *
+ * ***** END LICENSE BLOCK ***** */
+
+package com.google.javascript.rhino.jstype;
+
+import com.google.javascript.rhino.testing.BaseJSTypeTestCase;
+
+/**
+ * Tests for {@link SubtypeCache}.
+ */
+public class SubtypeCacheTest extends BaseJSTypeTestCase {
+
+  public void testRepeatedQuestionIsAnsweredFromCache() {
+    JSType union = registry.createUnionType(NUMBER_TYPE, STRING_TYPE);
+    assertTrue(NUMBER_TYPE.isSubtype(union));
+
+    long hits = registry.getSubtypeCacheHitCount();
+    long misses = registry.getSubtypeCacheMissCount();
+    assertTrue(NUMBER_TYPE.isSubtype(union));
+    assertEquals(hits + 1, registry.getSubtypeCacheHitCount());
+    assertEquals(misses, registry.getSubtypeCacheMissCount());
+  }
+
+  public void testResolvingTypesInvalidatesCache() {
+    JSType named = registry.getType(null, "Foo", "source", 1, 0);
+    assertTrue(named.isSubtype(NUMBER_TYPE));
+
+    FunctionType foo = registry.createConstructorType(
+        "Foo", null, null, null, null);
+    registry.declareType("Foo", foo.getInstanceType());
+    registry.resolveTypesInScope(null);
+    assertFalse(named.isSubtype(NUMBER_TYPE));
+    assertTrue(named.isSubtype(foo.getInstanceType()));
+  }
+
+  public void testPrototypeChangeInvalidatesCache() {
+    FunctionType a = registry.createConstructorType(
+        "A", null, null, null, null);
+    FunctionType b = registry.createConstructorType(
+        "B", null, null, null, null);
+    assertFalse(a.getInstanceType().isSubtype(b.getInstanceType()));
+
+    a.setPrototypeBasedOn(b.getInstanceType());
+    assertTrue(a.getInstanceType().isSubtype(b.getInstanceType()));
+  }
+
+  public void testPropertyChangeInvalidatesRecordAnswers() {
+    JSType record = new RecordTypeBuilder(registry)
+        .addProperty("a", NUMBER_TYPE, null)
+        .build();
+    ObjectType object = registry.createAnonymousObjectType(null);
+    assertFalse(object.isSubtype(record));
+
+    object.defineInferredProperty("a", NUMBER_TYPE, null);
+    assertTrue(object.isSubtype(record));
+
+    object.removeProperty("a");
+    assertFalse(object.isSubtype(record));
+  }
+
+  public void testClearCachedValuesInvalidatesCache() {
+    FunctionType a = registry.createConstructorType(
+        "A", null, null, null, null);
+    ObjectType instance = a.getInstanceType();
+    assertTrue(instance.isSubtype(OBJECT_TYPE));
+    long misses = registry.getSubtypeCacheMissCount();
+
+    a.clearCachedValues();
+    assertTrue(instance.isSubtype(OBJECT_TYPE));
+    assertTrue(registry.getSubtypeCacheMissCount() > misses);
+  }
+}